@@ -0,0 +1,114 @@
+package com.foxminded.university.build;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+public class StaticResourceCompressor {
+    private static final List<String> COMPRESSIBLE = Arrays.asList(".css", ".js", ".map", ".svg", ".ttf", ".eot", 
+                                                                   ".otf");
+    private static final double MIN_SAVING = 0.1;
+    
+    private final Path sourceDirectory;
+    private final Path targetDirectory;
+    private final boolean brotli;
+    
+    public StaticResourceCompressor(Path sourceDirectory, Path targetDirectory) {
+        this(sourceDirectory, targetDirectory, false);
+    }
+    
+    public StaticResourceCompressor(Path sourceDirectory, Path targetDirectory, boolean brotli) {
+        this.sourceDirectory = sourceDirectory;
+        this.targetDirectory = targetDirectory;
+        this.brotli = brotli;
+    }
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: StaticResourceCompressor <source> <target> <directory>...");
+        }
+        // .br variants are opt-in so that the war does not depend on whether a brotli binary happens to be installed
+        StaticResourceCompressor compressor = new StaticResourceCompressor(Paths.get(args[0]), Paths.get(args[1]),
+                                                                           Boolean.getBoolean("precompress.brotli"));
+        int compressed = 0;
+        for (int i = 2; i < args.length; i++) {
+            compressed += compressor.compressDirectory(args[i]);
+        }
+        System.out.println("Precompressed " + compressed + " static resources into " + args[1]);
+    }
+    
+    public int compressDirectory(String directory) throws IOException, InterruptedException {
+        Path root = sourceDirectory.resolve(directory);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(Files::isRegularFile).filter(this::isCompressible).collect(Collectors.toList());
+        }
+        int compressed = 0;
+        for (Path file : files) {
+            Path target = targetDirectory.resolve(sourceDirectory.relativize(file).toString());
+            Files.createDirectories(target.getParent());
+            if (writeGzip(file, Paths.get(target + ".gz"))) {
+                compressed++;
+            }
+            if (brotli) {
+                writeBrotli(file, Paths.get(target + ".br"));
+            }
+        }
+        return compressed;
+    }
+    
+    boolean isCompressible(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return COMPRESSIBLE.stream().anyMatch(name::endsWith);
+    }
+    
+    private boolean writeGzip(Path source, Path target) throws IOException {
+        byte[] content = Files.readAllBytes(source);
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(target)) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            output.write(content);
+        }
+        return keepIfSmaller(content.length, target);
+    }
+    
+    private void writeBrotli(Path source, Path target) throws IOException, InterruptedException {
+        Process process;
+        try {
+            process = new ProcessBuilder("brotli", "--force", "--best", "--output=" + target, source.toString())
+                          .inheritIO()
+                          .start();
+        } catch (IOException ex) {
+            throw new IllegalStateException("precompress.brotli is set but brotli is not available", ex);
+        }
+        if (!process.waitFor(1, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            process.destroyForcibly();
+            Files.deleteIfExists(target);
+            throw new IllegalStateException("brotli failed to compress " + source);
+        }
+        keepIfSmaller(Files.size(source), target);
+    }
+    
+    private boolean keepIfSmaller(long originalSize, Path target) throws IOException {
+        if (Files.size(target) > originalSize * (1 - MIN_SAVING)) {
+            Files.delete(target);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package com.foxminded.university.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+
+public final class BenchmarkData {
+    public static final LocalDate START_DATE = LocalDate.of(2020, 9, 1);
+    
+    private BenchmarkData() {
+    }
+    
+    public static List<Timeslot> createTimeslots(int count) {
+        List<Timeslot> timeslots = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Timeslot timeslot = new Timeslot();
+            timeslot.setId(i);
+            int start = 8 * 60 + (i - 1) * 100;
+            timeslot.setDescription(String.format("%02d:%02d - %02d:%02d", start / 60, start % 60, 
+                                                  (start + 90) / 60, (start + 90) % 60));
+            timeslots.add(timeslot);
+        }
+        return timeslots;
+    }
+    
+    public static List<Lesson> createLessons(int count, int days, List<Timeslot> timeslots) {
+        SplittableRandom random = new SplittableRandom(42);
+        Group group = new Group();
+        group.setId(1);
+        group.setGroupName("cs-20");
+        
+        List<Lesson> lessons = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Course course = new Course();
+            course.setId(1 + i % 40);
+            course.setName("Course " + course.getId());
+            Classroom classroom = new Classroom();
+            classroom.setId(1 + i % 25);
+            classroom.setNumber((100 + classroom.getId()) + "A");
+            
+            Lesson lesson = new Lesson();
+            lesson.setId(i);
+            lesson.setDate(START_DATE.plusDays(random.nextInt(days)));
+            lesson.setTime(timeslots.get(random.nextInt(timeslots.size())));
+            lesson.setCourse(course);
+            lesson.setClassroom(classroom);
+            lesson.setGroups(Arrays.asList(group));
+            lessons.add(lesson);
+        }
+        return lessons;
+    }
+}
@@ -0,0 +1,108 @@
+package com.foxminded.university.benchmark;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.extras.java8time.dialect.Java8TimeDialect;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.FileTemplateResolver;
+
+import com.foxminded.university.controller.util.TimetableFormatter;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimetableTemplateBenchmark {
+    @Param({"6", "12"})
+    int timeslotsCount;
+    
+    @Param({"7", "31", "180"})
+    int days;
+    
+    @Param({"0", "200", "2000"})
+    int lessonsCount;
+    
+    SpringTemplateEngine templateEngine;
+    Context context;
+    
+    @Setup
+    public void setUp() {
+        FileTemplateResolver templateResolver = new FileTemplateResolver();
+        templateResolver.setPrefix(System.getProperty("templates.dir", "src/main/webapp/WEB-INF/templates/"));
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setEnableSpringELCompiler(true);
+        templateEngine.addDialect(new Java8TimeDialect());
+        
+        List<Timeslot> timeslots = BenchmarkData.createTimeslots(timeslotsCount);
+        Timetable timetable = new Timetable();
+        timetable.setDateInterval(new DateInterval(BenchmarkData.START_DATE, 
+                                                   BenchmarkData.START_DATE.plusDays(days - 1L)));
+        timetable.setLessons(BenchmarkData.createLessons(lessonsCount, days, timeslots));
+        TimetableGrid timemap = new TimetableFormatter().generateFormattedTable(timetable, timeslots);
+        
+        context = new Context();
+        context.setVariable("studentId", 1);
+        context.setVariable("dateInterval", timemap.getDateInterval());
+        context.setVariable("timeslots", timeslots);
+        context.setVariable("timemap", timemap);
+    }
+    
+    @Benchmark
+    public void renderTimetable(Blackhole blackhole) {
+        templateEngine.process("timetable", context, new BlackholeWriter(blackhole));
+    }
+    
+    private static class BlackholeWriter extends Writer {
+        private final Blackhole blackhole;
+        
+        BlackholeWriter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+        
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            blackhole.consume(buffer);
+            blackhole.consume(length);
+        }
+        
+        @Override
+        public void write(String value, int offset, int length) {
+            blackhole.consume(value);
+            blackhole.consume(length);
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.foxminded.university.controller.repository;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.foxminded.university.benchmark.BenchmarkData;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LessonRowMapperBenchmark {
+    @Param({"0", "200", "2000"})
+    int rowsCount;
+    
+    SimpleResultSet resultSet;
+    TimetableRepository timetableRepository;
+    LessonRepository lessonRepository;
+    
+    @Setup
+    public void setUp() {
+        timetableRepository = new TimetableRepository(null, new TransactionTemplate(), 500);
+        lessonRepository = new LessonRepository(null, null, null, null, null);
+        
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        resultSet.addColumn("lesson_id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("lesson_date", Types.DATE, 10, 0);
+        resultSet.addColumn("timeslot_id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("timeslot_description", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("course_id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("course_name", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("classroom_id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("classroom_number", Types.VARCHAR, 255, 0);
+        for (int i = 1; i <= rowsCount; i++) {
+            resultSet.addRow(i, Date.valueOf(BenchmarkData.START_DATE.plusDays(i % 180)), 1 + i % 6, 
+                             "09:00 - 10:30", 1 + i % 40, "Course " + i % 40, 1 + i % 25, (100 + i % 25) + "A");
+        }
+    }
+    
+    @Benchmark
+    public void timetableRepositoryMapRow(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            blackhole.consume(timetableRepository.mapRow(resultSet, resultSet.getRow()));
+        }
+    }
+    
+    @Benchmark
+    public void lessonRepositoryMapRow(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            blackhole.consume(lessonRepository.mapRow(resultSet, resultSet.getRow()));
+        }
+    }
+}
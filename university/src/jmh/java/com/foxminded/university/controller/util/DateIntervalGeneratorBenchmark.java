@@ -0,0 +1,55 @@
+package com.foxminded.university.controller.util;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxminded.university.model.DateInterval;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateIntervalGeneratorBenchmark {
+    DateIntervalGenerator generator = new DateIntervalGenerator();
+    LocalDate date = LocalDate.of(2020, 6, 18);
+    String startDate = "2020-06-15";
+    String endDate = "2020-06-21";
+    String invalidDate = "2020-06-";
+    
+    @Benchmark
+    public DateInterval getWeekByDate() {
+        return generator.getWeekByDate(date);
+    }
+    
+    @Benchmark
+    public DateInterval getMonthByDate() {
+        return generator.getMonthByDate(date);
+    }
+    
+    @Benchmark
+    public DateInterval getMonthsByDate() {
+        return generator.getMonthsByDate(date, 6);
+    }
+    
+    @Benchmark
+    public DateInterval getFromString() {
+        return generator.getFromString(startDate, endDate);
+    }
+    
+    @Benchmark
+    public DateInterval getFromInvalidString() {
+        return generator.getFromString(invalidDate, endDate);
+    }
+}
@@ -0,0 +1,58 @@
+package com.foxminded.university.controller.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxminded.university.benchmark.BenchmarkData;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimetableFormatterBenchmark {
+    @Param({"6", "12"})
+    int timeslotsCount;
+    
+    @Param({"7", "31", "180"})
+    int days;
+    
+    @Param({"0", "200", "2000"})
+    int lessonsCount;
+    
+    TimetableFormatter formatter;
+    Timetable timetable;
+    List<Timeslot> timeslots;
+    
+    @Setup
+    public void setUp() {
+        formatter = new TimetableFormatter();
+        timeslots = BenchmarkData.createTimeslots(timeslotsCount);
+        timetable = new Timetable();
+        timetable.setDateInterval(new DateInterval(BenchmarkData.START_DATE, 
+                                                   BenchmarkData.START_DATE.plusDays(days - 1L)));
+        timetable.setLessons(BenchmarkData.createLessons(lessonsCount, days, timeslots));
+    }
+    
+    @Benchmark
+    public TimetableGrid generateFormattedTable() {
+        return formatter.generateFormattedTable(timetable, timeslots);
+    }
+}
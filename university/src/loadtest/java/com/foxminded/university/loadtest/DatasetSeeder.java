@@ -0,0 +1,123 @@
+package com.foxminded.university.loadtest;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+public class DatasetSeeder {
+    private static final int BATCH_SIZE = 1000;
+    private static final int TIMESLOTS = 6;
+    
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public DatasetSeeder(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+    
+    public void createSchema(String schemaScript) throws SQLException {
+        logger.info("Create schema from {}", schemaScript);
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new FileSystemResource(schemaScript));
+        }
+    }
+    
+    public void seed(LoadTestSettings settings) {
+        long started = System.currentTimeMillis();
+        
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < settings.getClassrooms(); i++) {
+            rows.add(new Object[] {"L" + i, i % 10 == 0 ? 300 : 40});
+        }
+        insert("INSERT INTO classrooms (classroom_number, capacity) VALUES (?, ?)", rows);
+        
+        for (int i = 0; i < settings.getGroups(); i++) {
+            rows.add(new Object[] {"lt-" + i, 1 + i % 2});
+        }
+        insert("INSERT INTO groups (group_name, faculty_id) VALUES (?, ?)", rows);
+        List<Integer> groupIds = ids("SELECT group_id FROM groups ORDER BY group_id");
+        
+        for (int groupId : groupIds) {
+            for (int i = 0; i < settings.getStudentsPerGroup(); i++) {
+                rows.add(new Object[] {"Student" + i, "Group" + groupId, groupId});
+                flushIfFull("INSERT INTO students (first_name, last_name, group_id) VALUES (?, ?, ?)", rows);
+            }
+        }
+        insert("INSERT INTO students (first_name, last_name, group_id) VALUES (?, ?, ?)", rows);
+        
+        for (int i = 0; i < settings.getTeachers(); i++) {
+            rows.add(new Object[] {"Teacher" + i, "Load", 1 + i % 2});
+        }
+        insert("INSERT INTO teachers (first_name, last_name, faculty_id) VALUES (?, ?, ?)", rows);
+        List<Integer> teacherIds = ids("SELECT teacher_id FROM teachers ORDER BY teacher_id");
+        
+        for (int i = 0; i < settings.getCourses(); i++) {
+            rows.add(new Object[] {"Course" + i, "Load test course " + i, teacherIds.get(i % teacherIds.size())});
+        }
+        insert("INSERT INTO courses (course_name, course_description, teacher_id) VALUES (?, ?, ?)", rows);
+        List<Integer> courseIds = ids("SELECT course_id FROM courses ORDER BY course_id");
+        
+        for (int i = 0; i < groupIds.size(); i++) {
+            for (int j = 0; j < settings.getCoursesPerGroup(); j++) {
+                int courseIndex = (i * settings.getCoursesPerGroup() + j) % courseIds.size();
+                rows.add(new Object[] {groupIds.get(i), courseIds.get(courseIndex)});
+            }
+        }
+        jdbcTemplate.update("DELETE FROM groups_courses");
+        insert("INSERT INTO groups_courses (group_id, course_id) VALUES (?, ?)", rows);
+        
+        List<Integer> classroomIds = ids("SELECT classroom_id FROM classrooms ORDER BY classroom_id");
+        int lessonsPerSlot = Math.min(Math.min(settings.getLessonsPerSlot(), classroomIds.size()), courseIds.size());
+        jdbcTemplate.update("DELETE FROM lessons");
+        LocalDate date = settings.getStartDate();
+        int lessons = 0;
+        for (int day = 0; day < settings.getDays(); day++, date = date.plusDays(1)) {
+            for (int timeslot = 1; timeslot <= TIMESLOTS; timeslot++) {
+                int offset = (day * TIMESLOTS + timeslot) * lessonsPerSlot;
+                for (int i = 0; i < lessonsPerSlot; i++) {
+                    rows.add(new Object[] {Date.valueOf(date), timeslot, 
+                                           courseIds.get((offset + i) % courseIds.size()), classroomIds.get(i)});
+                    flushIfFull("INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) " 
+                              + "VALUES (?, ?, ?, ?)", rows);
+                    lessons++;
+                }
+            }
+        }
+        insert("INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) VALUES (?, ?, ?, ?)", rows);
+        
+        logger.info("Seeded {} groups, {} students, {} teachers, {} courses, {} lessons in {} ms", 
+                    groupIds.size(), groupIds.size() * settings.getStudentsPerGroup(), teacherIds.size(), 
+                    courseIds.size(), lessons, System.currentTimeMillis() - started);
+    }
+    
+    private void flushIfFull(String query, List<Object[]> rows) {
+        if (rows.size() >= BATCH_SIZE) {
+            insert(query, rows);
+        }
+    }
+    
+    private void insert(String query, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(query, rows);
+            rows.clear();
+        }
+    }
+    
+    private List<Integer> ids(String query) {
+        return jdbcTemplate.queryForList(query, Integer.class);
+    }
+}
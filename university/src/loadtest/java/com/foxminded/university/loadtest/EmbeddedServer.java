@@ -0,0 +1,58 @@
+package com.foxminded.university.loadtest;
+
+import java.io.File;
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.ContextResource;
+import org.springframework.web.SpringServletContainerInitializer;
+
+import com.foxminded.university.config.MainWebAppInitializer;
+import com.zaxxer.hikari.HikariJNDIFactory;
+
+public class EmbeddedServer {
+    private static final String WEBAPP_DIR = "src/main/webapp";
+    
+    private final Tomcat tomcat = new Tomcat();
+    
+    public int start(LoadTestSettings settings) throws LifecycleException {
+        File baseDir = new File("target/loadtest-tomcat");
+        baseDir.mkdirs();
+        tomcat.setBaseDir(baseDir.getAbsolutePath());
+        tomcat.setPort(settings.getPort());
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(Math.max(200, settings.getConcurrency())));
+        tomcat.enableNaming();
+        
+        StandardContext context = (StandardContext) tomcat.addContext("", new File(WEBAPP_DIR).getAbsolutePath());
+        context.setClearReferencesObjectStreamClassCaches(false);
+        context.setClearReferencesRmiTargets(false);
+        context.addServletContainerInitializer(new SpringServletContainerInitializer(), 
+                                               Collections.singleton(MainWebAppInitializer.class));
+        context.getNamingResources().addResource(createDataSourceResource(settings));
+        
+        tomcat.start();
+        return tomcat.getConnector().getLocalPort();
+    }
+    
+    public void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+    
+    private ContextResource createDataSourceResource(LoadTestSettings settings) {
+        ContextResource resource = new ContextResource();
+        resource.setName("jdbc/universityCP");
+        resource.setType(DataSource.class.getName());
+        resource.setAuth("Container");
+        resource.setProperty("factory", HikariJNDIFactory.class.getName());
+        resource.setProperty("jdbcUrl", settings.getJdbcUrl());
+        resource.setProperty("username", settings.getUsername());
+        resource.setProperty("password", settings.getPassword());
+        resource.setProperty("maximumPoolSize", String.valueOf(settings.getPoolSize()));
+        return resource;
+    }
+}
@@ -0,0 +1,45 @@
+package com.foxminded.university.loadtest;
+
+import java.util.Arrays;
+
+public class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+    
+    public void record(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+    }
+    
+    public void recordError() {
+        errors++;
+    }
+    
+    public void add(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latencies[i]);
+        }
+        errors += other.errors;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int getErrors() {
+        return errors;
+    }
+    
+    public long getPercentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -0,0 +1,78 @@
+package com.foxminded.university.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class LoadDriver {
+    private final String baseUrl;
+    private final List<String> paths;
+    private final int concurrency;
+    
+    public LoadDriver(String baseUrl, List<String> paths, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.paths = paths;
+        this.concurrency = concurrency;
+    }
+    
+    public Map<String, LatencyRecorder> run(int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, LatencyRecorder>>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                int first = i;
+                workers.add(executor.submit(() -> drive(first, deadline)));
+            }
+            Map<String, LatencyRecorder> results = new LinkedHashMap<>();
+            for (String path : paths) {
+                results.put(path, new LatencyRecorder());
+            }
+            for (Future<Map<String, LatencyRecorder>> worker : workers) {
+                worker.get().forEach((path, recorder) -> results.get(path).add(recorder));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private Map<String, LatencyRecorder> drive(int first, long deadline) {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        for (String path : paths) {
+            recorders.put(path, new LatencyRecorder());
+        }
+        byte[] buffer = new byte[8192];
+        for (int i = first; System.nanoTime() < deadline; i++) {
+            String path = paths.get(i % paths.size());
+            LatencyRecorder recorder = recorders.get(path);
+            long started = System.nanoTime();
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+                int status = connection.getResponseCode();
+                try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                    while (body != null && body.read(buffer) >= 0) {
+                        // drain the body so the connection is reused
+                    }
+                }
+                if (status == HttpURLConnection.HTTP_OK) {
+                    recorder.record(System.nanoTime() - started);
+                } else {
+                    recorder.recordError();
+                }
+            } catch (IOException ex) {
+                recorder.recordError();
+            }
+        }
+        return recorders;
+    }
+}
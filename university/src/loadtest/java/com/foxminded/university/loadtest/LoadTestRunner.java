@@ -0,0 +1,63 @@
+package com.foxminded.university.loadtest;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class LoadTestRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+        
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(settings.getJdbcUrl());
+        config.setUsername(settings.getUsername());
+        config.setPassword(settings.getPassword());
+        config.setMaximumPoolSize(2);
+        try (HikariDataSource seedDataSource = new HikariDataSource(config)) {
+            DatasetSeeder seeder = new DatasetSeeder(seedDataSource);
+            if (settings.isH2()) {
+                seeder.createSchema(settings.getSchemaScript());
+            }
+            if (settings.isSeed()) {
+                seeder.seed(settings);
+            }
+            
+            EmbeddedServer server = new EmbeddedServer();
+            int port = server.start(settings);
+            try {
+                LoadDriver driver = new LoadDriver("http://localhost:" + port, settings.getPaths(), 
+                                                   settings.getConcurrency());
+                logger.info("Warm up for {} s with {} clients", settings.getWarmupSeconds(), settings.getConcurrency());
+                driver.run(settings.getWarmupSeconds());
+                logger.info("Measure for {} s with {} clients", settings.getDurationSeconds(), settings.getConcurrency());
+                report(driver.run(settings.getDurationSeconds()), settings.getDurationSeconds());
+            } finally {
+                server.stop();
+            }
+        }
+    }
+    
+    private static void report(Map<String, LatencyRecorder> results, int seconds) {
+        System.out.println(String.format("%-20s %10s %8s %10s %10s %10s %10s", 
+                                         "path", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms"));
+        LatencyRecorder total = new LatencyRecorder();
+        results.forEach((path, recorder) -> {
+            printRow(path, recorder, seconds);
+            total.add(recorder);
+        });
+        printRow("total", total, seconds);
+    }
+    
+    private static void printRow(String name, LatencyRecorder recorder, int seconds) {
+        System.out.println(String.format("%-20s %10d %8d %10.1f %10.2f %10.2f %10.2f", name, recorder.getCount(), 
+                                         recorder.getErrors(), (double) recorder.getCount() / seconds, 
+                                         recorder.getPercentileNanos(50) / 1e6, recorder.getPercentileNanos(99) / 1e6,
+                                         recorder.getPercentileNanos(99.9) / 1e6));
+    }
+}
@@ -0,0 +1,118 @@
+package com.foxminded.university.loadtest;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class LoadTestSettings {
+    private final String jdbcUrl = property("jdbcUrl", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+    private final String username = property("username", "sa");
+    private final String password = property("password", "sa");
+    private final int poolSize = Integer.parseInt(property("poolSize", "20"));
+    private final String schemaScript = property("schema", "src/test/resources/testDatabase.sql");
+    private final boolean seed = Boolean.parseBoolean(property("seed", "true"));
+    
+    private final int classrooms = Integer.parseInt(property("classrooms", "60"));
+    private final int groups = Integer.parseInt(property("groups", "200"));
+    private final int studentsPerGroup = Integer.parseInt(property("studentsPerGroup", "25"));
+    private final int teachers = Integer.parseInt(property("teachers", "300"));
+    private final int courses = Integer.parseInt(property("courses", "1200"));
+    private final int coursesPerGroup = Integer.parseInt(property("coursesPerGroup", "8"));
+    private final int lessonsPerSlot = Integer.parseInt(property("lessonsPerSlot", "40"));
+    private final LocalDate startDate = LocalDate.parse(property("startDate", "2020-01-01"));
+    private final int days = Integer.parseInt(property("days", "365"));
+    
+    private final int port = Integer.parseInt(property("port", "0"));
+    private final int concurrency = Integer.parseInt(property("concurrency", "16"));
+    private final int warmupSeconds = Integer.parseInt(property("warmup", "10"));
+    private final int durationSeconds = Integer.parseInt(property("duration", "30"));
+    private final List<String> paths = Arrays.asList(property("paths", "/timetable,/teacher,/student,/admin").split(","));
+    
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+    
+    public boolean isH2() {
+        return jdbcUrl.startsWith("jdbc:h2:");
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public String getSchemaScript() {
+        return schemaScript;
+    }
+
+    public boolean isSeed() {
+        return seed;
+    }
+
+    public int getClassrooms() {
+        return classrooms;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    public int getStudentsPerGroup() {
+        return studentsPerGroup;
+    }
+
+    public int getTeachers() {
+        return teachers;
+    }
+
+    public int getCourses() {
+        return courses;
+    }
+
+    public int getCoursesPerGroup() {
+        return coursesPerGroup;
+    }
+
+    public int getLessonsPerSlot() {
+        return lessonsPerSlot;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+}
@@ -9,14 +9,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.foxminded.university.controller.metrics.MeteredJdbcTemplate;
+import com.foxminded.university.controller.metrics.QueryMetrics;
+import com.foxminded.university.controller.metrics.SlowQueryLog;
 
 @Configuration
 public class JdbcTemplateConfig {
     @Autowired
     DataSource dataSource;
     
+    @Autowired
+    QueryMetrics queryMetrics;
+    
+    @Autowired
+    SlowQueryLog slowQueryLog;
+    
     @Bean
     public JdbcTemplate jdbcTemplate() throws NamingException, SQLException {
-        return new JdbcTemplate(dataSource);
+        return new MeteredJdbcTemplate(dataSource, queryMetrics, slowQueryLog);
+    }
+    
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new DataSourceTransactionManager(dataSource);
+    }
+    
+    @Bean
+    public TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager());
     }
 }
@@ -1,5 +1,10 @@
 package com.foxminded.university.config;
 
+import java.util.EnumSet;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterRegistration;
+import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRegistration;
@@ -7,9 +12,13 @@ import javax.servlet.ServletRegistration;
 import org.springframework.web.WebApplicationInitializer;
 import org.springframework.web.context.ContextLoaderListener;
 import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.filter.DelegatingFilterProxy;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
 import org.springframework.web.servlet.DispatcherServlet;
 
 public class MainWebAppInitializer implements WebApplicationInitializer {
+    private static final long MAX_UPLOAD_SIZE = 50L * 1024 * 1024;
+    private static final int UPLOAD_SIZE_THRESHOLD = 1024 * 1024;
 
     @Override
     public void onStartup(ServletContext container) throws ServletException {
@@ -18,9 +27,22 @@ public class MainWebAppInitializer implements WebApplicationInitializer {
         context.scan("com.foxminded");
 
         container.addListener(new ContextLoaderListener(context));
+        
+        DelegatingFilterProxy httpMetricsFilter = new DelegatingFilterProxy("httpMetricsFilter", context);
+        FilterRegistration.Dynamic httpMetrics = container.addFilter("httpMetricsFilter", httpMetricsFilter);
+        httpMetrics.setAsyncSupported(true);
+        httpMetrics.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+        
+        FilterRegistration.Dynamic resourceUrls = container.addFilter("resourceUrlEncodingFilter", 
+                                                                      new ResourceUrlEncodingFilter());
+        resourceUrls.setAsyncSupported(true);
+        resourceUrls.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
 
         ServletRegistration.Dynamic dispatcher = container.addServlet("mvc", new DispatcherServlet(context));
         dispatcher.setLoadOnStartup(1);
+        dispatcher.setAsyncSupported(true);
         dispatcher.addMapping("/");
+        dispatcher.setMultipartConfig(new MultipartConfigElement("", MAX_UPLOAD_SIZE, MAX_UPLOAD_SIZE, 
+                                                                 UPLOAD_SIZE_THRESHOLD));
     }
 }
@@ -1,25 +1,48 @@
 package com.foxminded.university.config;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 import org.thymeleaf.extras.java8time.dialect.Java8TimeDialect;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.spring5.templateresolver.SpringResourceTemplateResolver;
 import org.thymeleaf.spring5.view.ThymeleafViewResolver;
 import org.thymeleaf.templatemode.TemplateMode;
 
+import com.foxminded.university.controller.cache.FragmentCache;
+import com.foxminded.university.controller.cache.FragmentCacheDialect;
+import com.foxminded.university.controller.metrics.ConnectionHoldInterceptor;
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
+
 @Configuration
 @EnableWebMvc
 @ComponentScan(basePackages = { "com.foxminded" })
 @Import({DataSourceConfiguration.class, JdbcTemplateConfig.class})
 public class WebConfig implements WebMvcConfigurer {    
+    private static final long STATIC_RESOURCES_MAX_AGE_DAYS = 365;
+    private static final long FONT_RESOURCES_MAX_AGE_DAYS = 1;
+    
     private ApplicationContext applicationContext;
+    
+    @Autowired
+    private ConnectionMetrics connectionMetrics;
+    
+    @Autowired
+    private FragmentCache fragmentCache;
 
     public void setApplicationContext(final ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
@@ -27,11 +50,43 @@ public class WebConfig implements WebMvcConfigurer {
     
     @Override
     public void addResourceHandlers(final ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/img/**").addResourceLocations("/WEB-INF/img/");
-        registry.addResourceHandler("/css/**").addResourceLocations("/WEB-INF/css/");
-        registry.addResourceHandler("/js/**").addResourceLocations("/WEB-INF/js/");
-        registry.addResourceHandler("/fonts/**").addResourceLocations("/WEB-INF/fonts/");
-        registry.addResourceHandler("/webfonts/**").addResourceLocations("/WEB-INF/webfonts/");
+        CacheControl versioned = immutable(CacheControl.maxAge(STATIC_RESOURCES_MAX_AGE_DAYS, TimeUnit.DAYS)
+                                                       .cachePublic());
+        addStaticResources(registry, "img", versioned);
+        addStaticResources(registry, "css", versioned);
+        addStaticResources(registry, "js", versioned);
+        // fonts are referenced by plain url() from the stylesheets, so they are never fingerprinted
+        CacheControl unversioned = CacheControl.maxAge(FONT_RESOURCES_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic();
+        addStaticResources(registry, "fonts", unversioned);
+        addStaticResources(registry, "webfonts", unversioned);
+    }
+    
+    private void addStaticResources(ResourceHandlerRegistry registry, String directory, CacheControl cacheControl) {
+        registry.addResourceHandler("/" + directory + "/**")
+                .addResourceLocations("/WEB-INF/" + directory + "/")
+                .setCacheControl(cacheControl)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+    
+    private static CacheControl immutable(CacheControl cacheControl) {
+        return new CacheControl() {
+            @Override
+            public String getHeaderValue() {
+                return cacheControl.getHeaderValue() + ", immutable";
+            }
+        };
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConnectionHoldInterceptor(connectionMetrics));
+    }
+    
+    @Bean
+    public MultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver();
     }
     
     @Bean
@@ -51,6 +106,7 @@ public class WebConfig implements WebMvcConfigurer {
         templateEngine.setTemplateResolver(templateResolver());
         templateEngine.setEnableSpringELCompiler(true);
         templateEngine.addDialect(new Java8TimeDialect());
+        templateEngine.addDialect(new FragmentCacheDialect(fragmentCache));
         return templateEngine;
     }
     
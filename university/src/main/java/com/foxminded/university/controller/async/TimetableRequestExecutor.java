@@ -0,0 +1,220 @@
+package com.foxminded.university.controller.async;
+
+import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.foxminded.university.controller.metrics.ConnectionHoldInterceptor;
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
+import com.foxminded.university.controller.metrics.LatencyHistogram;
+
+@Component
+public class TimetableRequestExecutor implements DisposableBean {
+    private static final long NO_TIMEOUT = -1;
+    
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    private final ConnectionMetrics connectionMetrics;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor timer;
+    private final long timeoutMillis;
+    
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    
+    @Autowired
+    public TimetableRequestExecutor(ConnectionMetrics connectionMetrics,
+                                    @Value("${timetable.async.poolSize:16}") int poolSize,
+                                    @Value("${timetable.async.queueCapacity:200}") int queueCapacity,
+                                    @Value("${timetable.async.timeoutMillis:10000}") long timeoutMillis) {
+        this.connectionMetrics = connectionMetrics;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, 
+                                               new ArrayBlockingQueue<>(queueCapacity), 
+                                               newThreadFactory("timetable-request-"), 
+                                               new ThreadPoolExecutor.AbortPolicy());
+        this.timer = new ScheduledThreadPoolExecutor(1, newThreadFactory("timetable-request-timer-"));
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+    
+    public <T> DeferredResult<T> submit(Callable<T> task) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        Future<?> future = execute(task, result, new AtomicBoolean());
+        result.onTimeout(() -> {
+            timeouts.increment();
+            future.cancel(false);
+        });
+        return result;
+    }
+    
+    public <T> DeferredResult<T> submitStreaming(Callable<T> task) {
+        // the task writes the response itself, so the request must not time out under a running task:
+        // the timeout only covers the wait for a thread
+        DeferredResult<T> result = new DeferredResult<>(NO_TIMEOUT);
+        AtomicBoolean started = new AtomicBoolean();
+        Future<?> future = execute(task, result, started);
+        ScheduledFuture<?> deadline = timer.schedule(() -> {
+            if (started.compareAndSet(false, true)) {
+                timeouts.increment();
+                future.cancel(false);
+                result.setErrorResult(new AsyncRequestTimeoutException());
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        result.onCompletion(() -> deadline.cancel(false));
+        return result;
+    }
+    
+    private <T> Future<?> execute(Callable<T> task, DeferredResult<T> result, AtomicBoolean started) {
+        HttpServletRequest request = currentRequest();
+        String endpoint = endpoint(request);
+        LongConsumer holdTimeRecorder = request == null ? null : ConnectionHoldInterceptor.holdTimeRecorder(request);
+        long queuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> run(task, result, started, holdTimeRecorder, endpoint, queuedAt));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            if (logger.isWarnEnabled()) {
+                logger.warn("Rejected {}: {} tasks queued", endpoint, executor.getQueue().size());
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timetable service is busy", ex);
+        }
+    }
+    
+    private <T> void run(Callable<T> task, DeferredResult<T> result, AtomicBoolean started, 
+                         LongConsumer holdTimeRecorder, String endpoint, long queuedAt) {
+        long startedAt = System.nanoTime();
+        queueWait.record(startedAt - queuedAt);
+        if (!started.compareAndSet(false, true) || result.isSetOrExpired()) {
+            return;
+        }
+        
+        connectionMetrics.startRequest();
+        T value = null;
+        Exception failure = null;
+        try {
+            value = task.call();
+        } catch (Exception ex) {
+            failure = ex;
+        } finally {
+            execution.record(System.nanoTime() - startedAt);
+            // the hold time goes back to the request before the result dispatches it, 
+            // an expired request is already finished and gets its own sample
+            if (holdTimeRecorder == null || result.isSetOrExpired()) {
+                connectionMetrics.finishRequest(endpoint);
+            } else {
+                holdTimeRecorder.accept(connectionMetrics.takeRequestHoldTime());
+            }
+        }
+        
+        if (failure == null) {
+            completed.increment();
+            result.setResult(value);
+        } else {
+            failures.increment();
+            result.setErrorResult(failure);
+        }
+    }
+    
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        return ((ServletRequestAttributes) attributes).getRequest();
+    }
+    
+    private static String endpoint(HttpServletRequest request) {
+        if (request == null) {
+            return "unknown";
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern == null ? "unmatched" : pattern);
+    }
+    
+    public long getRejected() {
+        return rejected.sum();
+    }
+    
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+    
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+    
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+    
+    public void writePrometheus(PrintWriter writer) {
+        writer.println("# HELP university_timetable_executor_threads Timetable request executor threads by state.");
+        writer.println("# TYPE university_timetable_executor_threads gauge");
+        writer.println("university_timetable_executor_threads{state=\"active\"} " + executor.getActiveCount());
+        writer.println("university_timetable_executor_threads{state=\"total\"} " + executor.getPoolSize());
+        writer.println("# HELP university_timetable_executor_queued_tasks Timetable requests waiting for a thread.");
+        writer.println("# TYPE university_timetable_executor_queued_tasks gauge");
+        writer.println("university_timetable_executor_queued_tasks " + executor.getQueue().size());
+        
+        writer.println("# HELP university_timetable_executor_queue_wait_seconds Time a timetable request waits for a thread.");
+        writer.println("# TYPE university_timetable_executor_queue_wait_seconds summary");
+        queueWait.writePrometheus(writer, "university_timetable_executor_queue_wait_seconds", "");
+        writer.println("# HELP university_timetable_executor_execution_seconds Time a timetable request runs on the executor.");
+        writer.println("# TYPE university_timetable_executor_execution_seconds summary");
+        execution.writePrometheus(writer, "university_timetable_executor_execution_seconds", "");
+        
+        writer.println("# HELP university_timetable_executor_tasks_total Timetable requests by outcome.");
+        writer.println("# TYPE university_timetable_executor_tasks_total counter");
+        writer.println("university_timetable_executor_tasks_total{outcome=\"completed\"} " + completed.sum());
+        writer.println("university_timetable_executor_tasks_total{outcome=\"failed\"} " + failures.sum());
+        writer.println("university_timetable_executor_tasks_total{outcome=\"rejected\"} " + rejected.sum());
+        writer.println("university_timetable_executor_tasks_total{outcome=\"timeout\"} " + timeouts.sum());
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        timer.shutdownNow();
+    }
+    
+    private static ThreadFactory newThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
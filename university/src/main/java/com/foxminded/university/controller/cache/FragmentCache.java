@@ -0,0 +1,55 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class FragmentCache {
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public String get(String key, Object version, Supplier<String> renderer) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return entry.html;
+        }
+        
+        misses.increment();
+        String html = renderer.get();
+        entries.put(key, new Entry(version, html));
+        return html;
+    }
+    
+    public void invalidateAll() {
+        entries.clear();
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    private static class Entry {
+        private final Object version;
+        private final String html;
+        
+        Entry(Object version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.processor.IProcessor;
+
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+    public static final String PREFIX = "cache";
+    
+    private final FragmentCache fragmentCache;
+    
+    public FragmentCacheDialect(FragmentCache fragmentCache) {
+        super("Fragment cache", PREFIX, 1000);
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        return Collections.singleton(new FragmentCacheProcessor(dialectPrefix, fragmentCache));
+    }
+}
@@ -0,0 +1,67 @@
+package com.foxminded.university.controller.cache;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+class FragmentCacheProcessor extends AbstractAttributeModelProcessor {
+    private static final String ATTRIBUTE_NAME = "fragment";
+    private static final int PRECEDENCE = 10;
+    
+    private final FragmentCache fragmentCache;
+    
+    FragmentCacheProcessor(String dialectPrefix, FragmentCache fragmentCache) {
+        super(TemplateMode.HTML, dialectPrefix, null, false, ATTRIBUTE_NAME, true, PRECEDENCE, true);
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName, 
+                             String attributeValue, IElementModelStructureHandler structureHandler) {
+        Object version = StandardExpressions.getExpressionParser(context.getConfiguration())
+                                            .parseExpression(context, attributeValue)
+                                            .execute(context);
+        if (version == null) {
+            return;
+        }
+        
+        IModelFactory modelFactory = context.getModelFactory();
+        IProcessableElementTag tag = (IProcessableElementTag) model.get(0);
+        model.replace(0, modelFactory.removeAttribute(tag, attributeName));
+        String key = tag.getTemplateName() + ":" + tag.getLine() + ":" + tag.getCol();
+        String html = fragmentCache.get(key, version, () -> render(context, model, tag));
+        
+        model.reset();
+        model.add(modelFactory.createText(html));
+        structureHandler.setInliner(NoOpInliner.INSTANCE);
+    }
+    
+    private String render(ITemplateContext context, IModel model, IProcessableElementTag tag) {
+        StringWriter markup = new StringWriter();
+        StringWriter html = new StringWriter();
+        try {
+            model.write(markup);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TemplateManager templateManager = context.getConfiguration().getTemplateManager();
+        TemplateModel fragment = templateManager.parseString(context.getTemplateData(), markup.toString(), 
+                                                             tag.getLine(), tag.getCol(), getTemplateMode(), 
+                                                             false);
+        templateManager.process(fragment, context, html);
+        return html.toString();
+    }
+}
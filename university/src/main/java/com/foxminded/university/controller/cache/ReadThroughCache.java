@@ -0,0 +1,67 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class ReadThroughCache<T> {
+    private final String name;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    
+    private volatile List<T> value;
+    private long generation;
+    
+    public ReadThroughCache(String name) {
+        this.name = name;
+    }
+    
+    public List<T> get(Supplier<List<T>> loader) {
+        List<T> cached = value;
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        
+        misses.increment();
+        long loadGeneration = currentGeneration();
+        List<T> loaded = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        store(loadGeneration, loaded);
+        return loaded;
+    }
+    
+    public synchronized void invalidate() {
+        generation++;
+        value = null;
+        invalidations.increment();
+    }
+    
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+    
+    private synchronized void store(long loadGeneration, List<T> loaded) {
+        if (loadGeneration == generation) {
+            value = loaded;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+}
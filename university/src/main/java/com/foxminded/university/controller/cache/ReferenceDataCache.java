@@ -0,0 +1,37 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.Timeslot;
+
+@Component
+public class ReferenceDataCache {
+    private final ReadThroughCache<Timeslot> timeslots = new ReadThroughCache<>("timeslots");
+    private final ReadThroughCache<Classroom> classrooms = new ReadThroughCache<>("classrooms");
+    private final ReadThroughCache<Faculty> faculties = new ReadThroughCache<>("faculties");
+
+    public ReadThroughCache<Timeslot> getTimeslots() {
+        return timeslots;
+    }
+
+    public ReadThroughCache<Classroom> getClassrooms() {
+        return classrooms;
+    }
+
+    public ReadThroughCache<Faculty> getFaculties() {
+        return faculties;
+    }
+    
+    public List<ReadThroughCache<?>> getAll() {
+        return Arrays.asList(timeslots, classrooms, faculties);
+    }
+    
+    public void invalidateAll() {
+        getAll().forEach(ReadThroughCache::invalidate);
+    }
+}
@@ -0,0 +1,44 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.model.DateInterval;
+
+@Component
+public class ScheduleVersion {
+    private final LongSupplier clock;
+    private final String epoch;
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified;
+    
+    public ScheduleVersion() {
+        this(System::currentTimeMillis);
+    }
+    
+    ScheduleVersion(LongSupplier clock) {
+        this.clock = clock;
+        this.lastModified = clock.getAsLong();
+        this.epoch = Long.toString(lastModified, Character.MAX_RADIX);
+    }
+    
+    public void increment() {
+        version.incrementAndGet();
+        lastModified = clock.getAsLong();
+    }
+    
+    public long getVersion() {
+        return version.get();
+    }
+    
+    public long getLastModified() {
+        return lastModified;
+    }
+    
+    public String getETag(String entity, int id, DateInterval dateInterval) {
+        return "W/\"" + epoch + "-" + version.get() + "-" + entity + "-" + id + "-" 
+             + dateInterval.getStartDate() + "-" + dateInterval.getEndDate() + "\"";
+    }
+}
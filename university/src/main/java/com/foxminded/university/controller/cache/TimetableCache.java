@@ -0,0 +1,262 @@
+package com.foxminded.university.controller.cache;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Timetable;
+
+@Component
+public class TimetableCache {
+    public enum Owner { GROUP, TEACHER }
+    
+    private static final int ACCESS_BUFFER_SIZE = 256;
+    
+    private final int maxSize;
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    // lookups only read the concurrent maps, every change to them and the LRU order happens under the lock
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Key, CompletableFuture<Timetable>> loads = new ConcurrentHashMap<>();
+    private final Map<Key, Boolean> accessOrder;
+    private final ReentrantLock lock = new ReentrantLock();
+    // hits are queued for the LRU order and replayed by whoever holds the lock next
+    private final Queue<Key> accesses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedAccesses = new AtomicInteger();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    
+    @Autowired
+    public TimetableCache(@Value("${timetable.cache.maxSize:2000}") int maxSize,
+                          @Value("${timetable.cache.timeToLiveSeconds:300}") long timeToLiveSeconds) {
+        this(maxSize, timeToLiveSeconds * 1000, System::currentTimeMillis);
+    }
+    
+    TimetableCache(int maxSize, long timeToLiveMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+        this.accessOrder = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                boolean overflow = size() > TimetableCache.this.maxSize;
+                if (overflow) {
+                    entries.remove(eldest.getKey());
+                    evictions.increment();
+                }
+                return overflow;
+            }
+        };
+    }
+    
+    public Timetable get(Owner owner, int ownerId, DateInterval dateInterval, Supplier<Timetable> loader) {
+        Key key = new Key(owner, ownerId, dateInterval.getStartDate(), dateInterval.getEndDate());
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > clock.getAsLong()) {
+            hits.increment();
+            recordAccess(key);
+            return entry.timetable;
+        }
+        if (entry != null) {
+            lock.lock();
+            try {
+                if (entries.remove(key, entry)) {
+                    accessOrder.remove(key);
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        CompletableFuture<Timetable> load = new CompletableFuture<>();
+        CompletableFuture<Timetable> running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        
+        misses.increment();
+        Timetable timetable;
+        try {
+            timetable = loader.get();
+        } catch (RuntimeException | Error ex) {
+            loads.remove(key, load);
+            load.completeExceptionally(ex);
+            throw ex;
+        }
+        lock.lock();
+        try {
+            drainAccesses();
+            // an eviction for this key during the load unregisters it, so only a load still in place is cached
+            if (loads.remove(key, load)) {
+                entries.put(key, new Entry(timetable, clock.getAsLong() + timeToLiveMillis));
+                accessOrder.put(key, Boolean.TRUE);
+            }
+        } finally {
+            lock.unlock();
+        }
+        load.complete(timetable);
+        return timetable;
+    }
+    
+    public void evict(Owner owner, int ownerId, LocalDate date) {
+        evictMatching(key -> key.owner == owner && key.ownerId == ownerId 
+                && !date.isBefore(key.startDate) && !date.isAfter(key.endDate));
+    }
+    
+    public void evictAll(Owner owner, int ownerId) {
+        evictMatching(key -> key.owner == owner && key.ownerId == ownerId);
+    }
+    
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            evictions.add(entries.size());
+            entries.clear();
+            accessOrder.clear();
+            loads.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+    
+    private void recordAccess(Key key) {
+        // under contention an access is dropped rather than waited for, the order stays approximate
+        if (bufferedAccesses.incrementAndGet() <= ACCESS_BUFFER_SIZE) {
+            accesses.offer(key);
+        } else {
+            bufferedAccesses.decrementAndGet();
+        }
+        if (lock.tryLock()) {
+            try {
+                drainAccesses();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    private void drainAccesses() {
+        Key key;
+        while ((key = accesses.poll()) != null) {
+            bufferedAccesses.decrementAndGet();
+            accessOrder.get(key);
+        }
+    }
+    
+    private void evictMatching(Predicate<Key> matches) {
+        lock.lock();
+        try {
+            Iterator<Key> iterator = accessOrder.keySet().iterator();
+            while (iterator.hasNext()) {
+                Key key = iterator.next();
+                if (matches.test(key)) {
+                    iterator.remove();
+                    entries.remove(key);
+                    evictions.increment();
+                }
+            }
+            loads.keySet().removeIf(matches);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static Timetable await(CompletableFuture<Timetable> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : ex;
+        }
+    }
+    
+    private static final class Key {
+        private final Owner owner;
+        private final int ownerId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        
+        private Key(Owner owner, int ownerId, LocalDate startDate, LocalDate endDate) {
+            this.owner = owner;
+            this.ownerId = ownerId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return owner == key.owner && ownerId == key.ownerId 
+                    && startDate.equals(key.startDate) && endDate.equals(key.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(owner, ownerId, startDate, endDate);
+        }
+    }
+    
+    private static final class Entry {
+        private final Timetable timetable;
+        private final long expiresAt;
+        
+        private Entry(Timetable timetable, long expiresAt) {
+            this.timetable = timetable;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.foxminded.university.controller.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class ConnectionHoldInterceptor implements AsyncHandlerInterceptor {
+    private static final String HOLD_TIME_ATTRIBUTE = ConnectionHoldInterceptor.class.getName() + ".holdTime";
+    
+    private final ConnectionMetrics connectionMetrics;
+    
+    public ConnectionHoldInterceptor(ConnectionMetrics connectionMetrics) {
+        this.connectionMetrics = connectionMetrics;
+    }
+    
+    // lets another thread add connection hold time to the request, null if the request is not tracked
+    public static LongConsumer holdTimeRecorder(HttpServletRequest request) {
+        Object holdTime = request.getAttribute(HOLD_TIME_ATTRIBUTE);
+        return holdTime instanceof AtomicLong ? ((AtomicLong) holdTime)::addAndGet : null;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        connectionMetrics.startRequest();
+        Object holdTime = request.getAttribute(HOLD_TIME_ATTRIBUTE);
+        if (holdTime instanceof AtomicLong) {
+            // async dispatch: continue with the time held by the first dispatch and the executor threads
+            connectionMetrics.addRequestHoldTime(((AtomicLong) holdTime).getAndSet(0));
+        } else {
+            request.setAttribute(HOLD_TIME_ATTRIBUTE, new AtomicLong());
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        Object holdTime = request.getAttribute(HOLD_TIME_ATTRIBUTE);
+        if (holdTime instanceof AtomicLong) {
+            ((AtomicLong) holdTime).addAndGet(connectionMetrics.takeRequestHoldTime());
+        }
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        connectionMetrics.finishRequest(request.getMethod() + " " + (pattern == null ? "unmatched" : pattern));
+    }
+}
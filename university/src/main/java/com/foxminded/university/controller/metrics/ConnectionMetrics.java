@@ -0,0 +1,130 @@
+package com.foxminded.university.controller.metrics;
+
+import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+@Component
+public class ConnectionMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionMetrics.class);
+    
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder acquireFailures = new LongAdder();
+    private final ConcurrentMap<String, LatencyHistogram> holdTimeByEndpoint = new ConcurrentHashMap<>();
+    private final ThreadLocal<long[]> requestHoldTime = ThreadLocal.withInitial(() -> new long[1]);
+    private volatile DataSource dataSource;
+    
+    public void monitor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    public void recordAcquire(long nanos) {
+        acquireLatency.record(nanos);
+    }
+    
+    public void recordAcquireFailure(long nanos, boolean timedOut) {
+        acquireLatency.record(nanos);
+        acquireFailures.increment();
+        if (timedOut) {
+            acquireTimeouts.increment();
+        }
+    }
+    
+    public void recordHold(long nanos) {
+        holdTime.record(nanos);
+        requestHoldTime.get()[0] += nanos;
+    }
+    
+    public void startRequest() {
+        requestHoldTime.get()[0] = 0;
+    }
+    
+    public void finishRequest(String endpoint) {
+        long[] held = requestHoldTime.get();
+        if (held[0] > 0) {
+            holdTimeByEndpoint.computeIfAbsent(endpoint, key -> new LatencyHistogram()).record(held[0]);
+        }
+        held[0] = 0;
+    }
+    
+    public long takeRequestHoldTime() {
+        long[] held = requestHoldTime.get();
+        long value = held[0];
+        held[0] = 0;
+        return value;
+    }
+    
+    public void addRequestHoldTime(long nanos) {
+        requestHoldTime.get()[0] += nanos;
+    }
+    
+    public LatencyHistogram getHoldTime(String endpoint) {
+        return holdTimeByEndpoint.get(endpoint);
+    }
+    
+    public void writePrometheus(PrintWriter writer) {
+        HikariPoolMXBean pool = getPool();
+        if (pool != null) {
+            writer.println("# HELP university_pool_connections Connections in the JDBC pool by state.");
+            writer.println("# TYPE university_pool_connections gauge");
+            writer.println("university_pool_connections{state=\"active\"} " + pool.getActiveConnections());
+            writer.println("university_pool_connections{state=\"idle\"} " + pool.getIdleConnections());
+            writer.println("university_pool_connections{state=\"total\"} " + pool.getTotalConnections());
+            writer.println("# HELP university_pool_threads_awaiting_connection Threads blocked waiting for a connection.");
+            writer.println("# TYPE university_pool_threads_awaiting_connection gauge");
+            writer.println("university_pool_threads_awaiting_connection " + pool.getThreadsAwaitingConnection());
+        }
+        
+        writer.println("# HELP university_pool_acquire_seconds Time spent waiting for a connection from the pool.");
+        writer.println("# TYPE university_pool_acquire_seconds summary");
+        acquireLatency.writePrometheus(writer, "university_pool_acquire_seconds", "");
+        writer.println("# HELP university_pool_acquire_failures_total Connection requests that failed.");
+        writer.println("# TYPE university_pool_acquire_failures_total counter");
+        writer.println("university_pool_acquire_failures_total " + acquireFailures.sum());
+        writer.println("# HELP university_pool_acquire_timeouts_total Connection requests that timed out.");
+        writer.println("# TYPE university_pool_acquire_timeouts_total counter");
+        writer.println("university_pool_acquire_timeouts_total " + acquireTimeouts.sum());
+        
+        writer.println("# HELP university_pool_connection_hold_seconds Time a connection is held before it is closed.");
+        writer.println("# TYPE university_pool_connection_hold_seconds summary");
+        holdTime.writePrometheus(writer, "university_pool_connection_hold_seconds", "");
+        
+        writer.println("# HELP university_request_connection_hold_seconds Total connection hold time per request.");
+        writer.println("# TYPE university_request_connection_hold_seconds summary");
+        Map<String, LatencyHistogram> sorted = new TreeMap<>(holdTimeByEndpoint);
+        sorted.forEach((endpoint, histogram) -> histogram.writePrometheus(
+                writer, "university_request_connection_hold_seconds", "endpoint=\"" + endpoint + "\""));
+    }
+    
+    private HikariPoolMXBean getPool() {
+        DataSource monitored = dataSource;
+        if (monitored == null) {
+            return null;
+        }
+        try {
+            if (monitored.isWrapperFor(HikariDataSource.class)) {
+                return monitored.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException ex) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Cannot unwrap pool statistics from data source", ex);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.foxminded.university.controller.metrics;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+class CountingResponseWrapper extends HttpServletResponseWrapper {
+    private CountingOutputStream outputStream;
+    private PrintWriter writer;
+    
+    CountingResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+    
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        return getCountingOutputStream();
+    }
+    
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(getCountingOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+    
+    @Override
+    public void flushBuffer() throws IOException {
+        flushWriter();
+        super.flushBuffer();
+    }
+    
+    void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+    
+    long getBytesWritten() {
+        return outputStream == null ? 0 : outputStream.bytesWritten;
+    }
+    
+    private CountingOutputStream getCountingOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CountingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+    
+    private static class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream target;
+        private long bytesWritten;
+        
+        CountingOutputStream(ServletOutputStream target) {
+            this.target = target;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            bytesWritten++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            bytesWritten += len;
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+}
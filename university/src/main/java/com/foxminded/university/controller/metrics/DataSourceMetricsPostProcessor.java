@@ -0,0 +1,27 @@
+package com.foxminded.university.controller.metrics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DataSourceMetricsPostProcessor implements BeanPostProcessor {
+    private final ConnectionMetrics connectionMetrics;
+    
+    @Autowired
+    public DataSourceMetricsPostProcessor(ConnectionMetrics connectionMetrics) {
+        this.connectionMetrics = connectionMetrics;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof MeteredDataSource) {
+            return bean;
+        }
+        MeteredDataSource dataSource = new MeteredDataSource((DataSource) bean, connectionMetrics);
+        connectionMetrics.monitor(dataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,59 @@
+package com.foxminded.university.controller.metrics;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class HttpMetrics {
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    
+    public void record(String endpoint, int status, long nanos, long responseBytes) {
+        Endpoint metrics = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        metrics.latency.record(nanos);
+        metrics.responseBytes.add(responseBytes);
+        metrics.responses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+    
+    public LatencyHistogram getLatency(String endpoint) {
+        Endpoint metrics = endpoints.get(endpoint);
+        return metrics == null ? null : metrics.latency;
+    }
+    
+    public long getResponseBytes(String endpoint) {
+        Endpoint metrics = endpoints.get(endpoint);
+        return metrics == null ? 0 : metrics.responseBytes.sum();
+    }
+    
+    public void writePrometheus(PrintWriter writer) {
+        Map<String, Endpoint> sorted = new TreeMap<>(endpoints);
+        
+        writer.println("# HELP university_http_request_duration_seconds HTTP request latency by handler mapping.");
+        writer.println("# TYPE university_http_request_duration_seconds summary");
+        sorted.forEach((endpoint, metrics) -> metrics.latency.writePrometheus(
+                writer, "university_http_request_duration_seconds", "endpoint=\"" + endpoint + "\""));
+        
+        writer.println("# HELP university_http_responses_total HTTP responses by handler mapping and status.");
+        writer.println("# TYPE university_http_responses_total counter");
+        sorted.forEach((endpoint, metrics) -> new TreeMap<>(metrics.responses).forEach((status, count) -> 
+            writer.println("university_http_responses_total{endpoint=\"" + endpoint + "\",status=\"" + status 
+                         + "\"} " + count.sum())));
+        
+        writer.println("# HELP university_http_response_bytes_total HTTP response body bytes by handler mapping.");
+        writer.println("# TYPE university_http_response_bytes_total counter");
+        sorted.forEach((endpoint, metrics) -> 
+            writer.println("university_http_response_bytes_total{endpoint=\"" + endpoint + "\"} " 
+                         + metrics.responseBytes.sum()));
+    }
+    
+    private static class Endpoint {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder responseBytes = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> responses = new ConcurrentHashMap<>();
+    }
+}
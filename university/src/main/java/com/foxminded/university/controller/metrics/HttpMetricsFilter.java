@@ -0,0 +1,87 @@
+package com.foxminded.university.controller.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Component
+public class HttpMetricsFilter extends OncePerRequestFilter {
+    private final HttpMetrics httpMetrics;
+    
+    @Autowired
+    public HttpMetricsFilter(HttpMetrics httpMetrics) {
+        this.httpMetrics = httpMetrics;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        boolean async = false;
+        boolean failed = true;
+        try {
+            chain.doFilter(request, countingResponse);
+            failed = false;
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new CompletionListener(request, countingResponse, start));
+            }
+        } finally {
+            if (!async) {
+                // the container turns an escaped exception into a 500 after this filter has returned
+                record(request, countingResponse, start, failed);
+            }
+        }
+    }
+    
+    private void record(HttpServletRequest request, CountingResponseWrapper response, long start, boolean failed) {
+        response.flushWriter();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern == null ? "unmatched" : pattern);
+        int status = failed && response.getStatus() < HttpServletResponse.SC_BAD_REQUEST 
+                     ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+        httpMetrics.record(endpoint, status, System.nanoTime() - start, response.getBytesWritten());
+    }
+    
+    private class CompletionListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final CountingResponseWrapper response;
+        private final long start;
+        private volatile boolean failed;
+        
+        CompletionListener(HttpServletRequest request, CountingResponseWrapper response, long start) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, response, start, failed);
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.foxminded.university.controller.metrics;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class LatencyHistogram {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int FIRST_EXPONENT = 4;
+    private static final int BUCKETS = LINEAR_BUCKETS + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+    private static final int SLICES = 6;
+    private static final long DEFAULT_WINDOW_MILLIS = 60_000;
+    
+    private final long sliceMillis;
+    private final LongSupplier clock;
+    private final Slice[] slices = new Slice[SLICES];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    
+    public LatencyHistogram() {
+        this(DEFAULT_WINDOW_MILLIS, System::currentTimeMillis);
+    }
+    
+    LatencyHistogram(long windowMillis, LongSupplier clock) {
+        this.sliceMillis = Math.max(1, windowMillis / SLICES);
+        this.clock = clock;
+        for (int i = 0; i < SLICES; i++) {
+            slices[i] = new Slice();
+        }
+    }
+    
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        currentSlice().counts.incrementAndGet(bucketOf(micros));
+        count.increment();
+        sumMicros.add(micros);
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public double getSumSeconds() {
+        return sumMicros.sum() / 1e6;
+    }
+    
+    // quantiles cover the last window only, sum and count stay cumulative as Prometheus summaries expect
+    public double getQuantileSeconds(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        long oldest = clock.getAsLong() / sliceMillis - SLICES + 1;
+        for (Slice slice : slices) {
+            if (slice.index < oldest) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = slice.counts.get(i);
+                snapshot[i] += bucketCount;
+                total += bucketCount;
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundOf(i) / 1e6;
+            }
+        }
+        return upperBoundOf(BUCKETS - 1) / 1e6;
+    }
+    
+    public void writePrometheus(PrintWriter writer, String name, String labels) {
+        String prefix = labels.isEmpty() ? "{" : "{" + labels + ",";
+        for (double quantile : QUANTILES) {
+            writer.println(name + prefix + "quantile=\"" + quantile + "\"} " + getQuantileSeconds(quantile));
+        }
+        String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+        writer.println(name + "_sum" + suffix + getSumSeconds());
+        writer.println(name + "_count" + suffix + getCount());
+    }
+    
+    private Slice currentSlice() {
+        long index = clock.getAsLong() / sliceMillis;
+        Slice slice = slices[(int) (index % SLICES)];
+        if (slice.index != index) {
+            synchronized (slice) {
+                if (slice.index != index) {
+                    for (int i = 0; i < BUCKETS; i++) {
+                        slice.counts.set(i, 0);
+                    }
+                    slice.index = index;
+                }
+            }
+        }
+        return slice;
+    }
+    
+    static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + FIRST_EXPONENT;
+        long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * width + width - 1;
+    }
+    
+    private static final class Slice {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private volatile long index = Long.MIN_VALUE;
+    }
+}
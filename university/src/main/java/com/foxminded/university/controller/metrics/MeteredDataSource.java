@@ -0,0 +1,63 @@
+package com.foxminded.university.controller.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+public class MeteredDataSource extends DelegatingDataSource {
+    private final ConnectionMetrics connectionMetrics;
+    
+    public MeteredDataSource(DataSource targetDataSource, ConnectionMetrics connectionMetrics) {
+        super(targetDataSource);
+        this.connectionMetrics = connectionMetrics;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return metered(super.getConnection(), start);
+        } catch (SQLException ex) {
+            connectionMetrics.recordAcquireFailure(System.nanoTime() - start, 
+                                                   ex instanceof SQLTransientConnectionException);
+            throw ex;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return metered(super.getConnection(username, password), start);
+        } catch (SQLException ex) {
+            connectionMetrics.recordAcquireFailure(System.nanoTime() - start, 
+                                                   ex instanceof SQLTransientConnectionException);
+            throw ex;
+        }
+    }
+    
+    private Connection metered(Connection connection, long requested) {
+        long acquired = System.nanoTime();
+        connectionMetrics.recordAcquire(acquired - requested);
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), 
+                                                   new Class<?>[] {Connection.class}, 
+                                                   (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && !closed[0]) {
+                closed[0] = true;
+                connectionMetrics.recordHold(System.nanoTime() - acquired);
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package com.foxminded.university.controller.metrics;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.StatementCallback;
+
+public class MeteredJdbcTemplate extends JdbcTemplate {
+    private final QueryMetrics queryMetrics;
+    private final SlowQueryLog slowQueryLog;
+    private final ThreadLocal<long[]> handledRows = ThreadLocal.withInitial(() -> new long[1]);
+    private final ThreadLocal<Object[]> boundArguments = new ThreadLocal<>();
+    
+    public MeteredJdbcTemplate(DataSource dataSource, QueryMetrics queryMetrics, SlowQueryLog slowQueryLog) {
+        super(dataSource);
+        this.queryMetrics = queryMetrics;
+        this.slowQueryLog = slowQueryLog;
+    }
+    
+    @Override
+    public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) 
+            throws DataAccessException {
+        return timed(psc, () -> super.execute(psc, action));
+    }
+    
+    @Override
+    public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+        return timed(action, () -> super.execute(action));
+    }
+    
+    @Override
+    public <T> T execute(CallableStatementCreator csc, CallableStatementCallback<T> action) 
+            throws DataAccessException {
+        return timed(csc, () -> super.execute(csc, action));
+    }
+    
+    @Override
+    public void query(String sql, RowCallbackHandler rch) throws DataAccessException {
+        super.query(sql, countingRows(rch));
+    }
+    
+    @Override
+    public void query(PreparedStatementCreator psc, RowCallbackHandler rch) throws DataAccessException {
+        super.query(psc, countingRows(rch));
+    }
+    
+    @Override
+    public void query(String sql, PreparedStatementSetter pss, RowCallbackHandler rch) throws DataAccessException {
+        super.query(sql, pss, countingRows(rch));
+    }
+    
+    @Override
+    protected PreparedStatementSetter newArgPreparedStatementSetter(Object[] args) {
+        boundArguments.set(args);
+        return super.newArgPreparedStatementSetter(args);
+    }
+    
+    @Override
+    protected PreparedStatementSetter newArgTypePreparedStatementSetter(Object[] args, int[] argTypes) {
+        boundArguments.set(args);
+        return super.newArgTypePreparedStatementSetter(args, argTypes);
+    }
+    
+    @Override
+    protected void applyStatementSettings(Statement statement) throws SQLException {
+        super.applyStatementSettings(statement);
+        int remaining = QueryDeadline.remainingSeconds();
+        if (remaining != QueryDeadline.NONE 
+                && (statement.getQueryTimeout() == 0 || remaining < statement.getQueryTimeout())) {
+            statement.setQueryTimeout(remaining);
+        }
+    }
+    
+    private RowCallbackHandler countingRows(RowCallbackHandler handler) {
+        long[] counter = handledRows.get();
+        return resultSet -> {
+            handler.processRow(resultSet);
+            counter[0]++;
+        };
+    }
+    
+    private <T> T timed(Object sqlSource, Supplier<T> statement) {
+        String name = StatementNames.current();
+        Object[] arguments = sqlSource instanceof StreamingStatementCreator 
+                             ? ((StreamingStatementCreator) sqlSource).getArguments() : boundArguments.get();
+        boundArguments.remove();
+        long[] counter = handledRows.get();
+        long handledBefore = counter[0];
+        long start = System.nanoTime();
+        boolean failed = true;
+        T result = null;
+        try {
+            result = statement.get();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long rows = (failed ? 0 : rowsOf(result)) + counter[0] - handledBefore;
+            queryMetrics.record(name, elapsed, rows, failed);
+            if (slowQueryLog.isSlow(elapsed)) {
+                slowQueryLog.record(name, elapsed, sqlOf(sqlSource), arguments);
+            }
+        }
+    }
+    
+    private static String sqlOf(Object sqlSource) {
+        return sqlSource instanceof SqlProvider ? ((SqlProvider) sqlSource).getSql() : null;
+    }
+    
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof int[]) {
+            long rows = 0;
+            for (int count : (int[]) result) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        }
+        return result == null ? 0 : 1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.foxminded.university.controller.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.dao.QueryTimeoutException;
+
+public final class QueryDeadline {
+    public static final int NONE = 0;
+    
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+    
+    private QueryDeadline() {
+    }
+    
+    public static Long enter(long deadlineNanos) {
+        Long previous = CURRENT.get();
+        CURRENT.set(deadlineNanos);
+        return previous;
+    }
+    
+    public static void exit(Long previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+    
+    public static int remainingSeconds() {
+        Long deadline = CURRENT.get();
+        if (deadline == null) {
+            return NONE;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new QueryTimeoutException("Query deadline has passed before the statement was executed");
+        }
+        // statement timeouts have a resolution of one second, so the rest of the deadline is rounded up
+        return (int) Math.min(Integer.MAX_VALUE, (remaining + TimeUnit.SECONDS.toNanos(1) - 1) 
+                                                 / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,59 @@
+package com.foxminded.university.controller.metrics;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class QueryMetrics {
+    private final ConcurrentMap<String, Statement> statements = new ConcurrentHashMap<>();
+    
+    public void record(String name, long nanos, long rows, boolean failed) {
+        Statement statement = statements.computeIfAbsent(name, key -> new Statement());
+        statement.latency.record(nanos);
+        statement.rows.add(rows);
+        if (failed) {
+            statement.errors.increment();
+        }
+    }
+    
+    public LatencyHistogram getLatency(String name) {
+        Statement statement = statements.get(name);
+        return statement == null ? null : statement.latency;
+    }
+    
+    public long getRows(String name) {
+        Statement statement = statements.get(name);
+        return statement == null ? 0 : statement.rows.sum();
+    }
+    
+    public void writePrometheus(PrintWriter writer) {
+        Map<String, Statement> sorted = new TreeMap<>(statements);
+        
+        writer.println("# HELP university_query_duration_seconds Repository SQL statement latency.");
+        writer.println("# TYPE university_query_duration_seconds summary");
+        sorted.forEach((name, statement) -> statement.latency.writePrometheus(
+                writer, "university_query_duration_seconds", "statement=\"" + name + "\""));
+        
+        writer.println("# HELP university_query_rows_total Rows returned or affected by repository SQL statements.");
+        writer.println("# TYPE university_query_rows_total counter");
+        sorted.forEach((name, statement) -> 
+            writer.println("university_query_rows_total{statement=\"" + name + "\"} " + statement.rows.sum()));
+        
+        writer.println("# HELP university_query_errors_total Repository SQL statements that threw an exception.");
+        writer.println("# TYPE university_query_errors_total counter");
+        sorted.forEach((name, statement) -> 
+            writer.println("university_query_errors_total{statement=\"" + name + "\"} " + statement.errors.sum()));
+    }
+    
+    private static class Statement {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
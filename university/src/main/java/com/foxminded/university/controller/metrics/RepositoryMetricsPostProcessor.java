@@ -0,0 +1,48 @@
+package com.foxminded.university.controller.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!bean.getClass().isAnnotationPresent(Repository.class)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new StatementNameInterceptor(bean.getClass().getSimpleName()));
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+    
+    private static class StatementNameInterceptor implements MethodInterceptor {
+        private final String repositoryName;
+        private final Map<Method, String> names = new ConcurrentHashMap<>();
+        
+        StatementNameInterceptor(String repositoryName) {
+            this.repositoryName = repositoryName;
+        }
+        
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String name = names.computeIfAbsent(invocation.getMethod(), 
+                                                method -> repositoryName + "." + method.getName());
+            String previous = StatementNames.enter(name);
+            try {
+                return invocation.proceed();
+            } finally {
+                StatementNames.exit(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.foxminded.university.controller.metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.model.SlowQuery;
+
+@Component
+public class SlowQueryLog implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final String SERVICE_PACKAGE = "com.foxminded.university.controller.service.";
+    private static final String WEB_PACKAGE = "com.foxminded.university.controller.web.";
+    private static final int EXPLAIN_QUEUE_SIZE = 16;
+    
+    private final DataSource dataSource;
+    private final long thresholdNanos;
+    private final double explainSampleRate;
+    private final boolean explainAnalyze;
+    private final AtomicReferenceArray<SlowQuery> entries;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor explainExecutor;
+    
+    @Autowired
+    public SlowQueryLog(DataSource dataSource,
+                        @Value("${slowquery.thresholdMillis:500}") long thresholdMillis,
+                        @Value("${slowquery.explain.sampleRate:0.1}") double explainSampleRate,
+                        @Value("${slowquery.explain.analyze:false}") boolean explainAnalyze,
+                        @Value("${slowquery.capacity:100}") int capacity) {
+        this.dataSource = dataSource;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explainSampleRate = explainSampleRate;
+        this.explainAnalyze = explainAnalyze;
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, 
+                                                      new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE), 
+                                                      SlowQueryLog::newExplainThread, 
+                                                      new ThreadPoolExecutor.DiscardPolicy());
+    }
+    
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+    
+    public SlowQuery record(String statement, long nanos, String sql, Object[] parameters) {
+        SlowQuery slowQuery = new SlowQuery();
+        slowQuery.setRecordedAt(LocalDateTime.now());
+        slowQuery.setStatement(statement);
+        slowQuery.setDurationMillis(nanos / 1e6);
+        slowQuery.setSql(sql);
+        slowQuery.setParameters(parameters == null ? "" : Arrays.deepToString(parameters));
+        slowQuery.setCaller(findCaller());
+        
+        if (logger.isWarnEnabled()) {
+            logger.warn("Slow query {} took {} ms, called from {}: {} with parameters {}", statement, 
+                        slowQuery.getDurationMillis(), slowQuery.getCaller(), sql, slowQuery.getParameters());
+        }
+        entries.set((int) (sequence.getAndIncrement() % entries.length()), slowQuery);
+        
+        if (isExplainable(sql) && ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+            explainExecutor.execute(() -> explain(slowQuery, parameters));
+        }
+        return slowQuery;
+    }
+    
+    public List<SlowQuery> getRecent() {
+        long last = sequence.get();
+        int size = (int) Math.min(last, entries.length());
+        List<SlowQuery> recent = new ArrayList<>(size);
+        for (long i = last - 1; i >= last - size; i--) {
+            SlowQuery slowQuery = entries.get((int) (i % entries.length()));
+            if (slowQuery != null) {
+                recent.add(slowQuery);
+            }
+        }
+        return recent;
+    }
+    
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+    
+    void explain(SlowQuery slowQuery, Object[] parameters) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean readOnly = connection.isReadOnly();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            boolean analyze = explainAnalyze 
+                              && connection.getMetaData().getDatabaseProductName().contains("PostgreSQL");
+            try (PreparedStatement statement = connection.prepareStatement(
+                    (analyze ? "EXPLAIN ANALYZE " : "EXPLAIN ") + slowQuery.getSql())) {
+                if (parameters != null) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setObject(i + 1, parameters[i]);
+                    }
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+                slowQuery.setPlan(plan.toString());
+            } finally {
+                // the connection goes back to the pool, which must not hand out a read-only transaction
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+                connection.setReadOnly(readOnly);
+            }
+        } catch (SQLException ex) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Cannot explain slow query {}", slowQuery.getStatement(), ex);
+            }
+        }
+    }
+    
+    private boolean isExplainable(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String statement = sql.trim().toUpperCase(Locale.ROOT);
+        return statement.startsWith("SELECT") || statement.startsWith("WITH");
+    }
+    
+    private String findCaller() {
+        String service = null;
+        String controller = null;
+        for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+            String className = frame.getClassName();
+            if (service == null && className.startsWith(SERVICE_PACKAGE)) {
+                service = describe(frame, SERVICE_PACKAGE);
+            } else if (controller == null && className.startsWith(WEB_PACKAGE)) {
+                controller = describe(frame, WEB_PACKAGE);
+            }
+        }
+        if (service == null && controller == null) {
+            return "unknown";
+        }
+        if (controller == null) {
+            return service;
+        }
+        return service == null ? controller : service + " <- " + controller;
+    }
+    
+    private static Thread newExplainThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private String describe(StackTraceElement frame, String packageName) {
+        return frame.getClassName().substring(packageName.length()) + "." + frame.getMethodName();
+    }
+}
@@ -0,0 +1,29 @@
+package com.foxminded.university.controller.metrics;
+
+public final class StatementNames {
+    public static final String UNNAMED = "unnamed";
+    
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    
+    private StatementNames() {
+    }
+    
+    public static String enter(String name) {
+        String previous = CURRENT.get();
+        CURRENT.set(name);
+        return previous;
+    }
+    
+    public static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+    
+    public static String current() {
+        String name = CURRENT.get();
+        return name == null ? UNNAMED : name;
+    }
+}
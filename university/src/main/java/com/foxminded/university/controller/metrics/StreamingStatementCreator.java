@@ -0,0 +1,40 @@
+package com.foxminded.university.controller.metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+
+public class StreamingStatementCreator implements PreparedStatementCreator, SqlProvider {
+    private final String sql;
+    private final int fetchSize;
+    private final Object[] arguments;
+    
+    public StreamingStatementCreator(String sql, int fetchSize, Object... arguments) {
+        this.sql = sql;
+        this.fetchSize = fetchSize;
+        this.arguments = arguments;
+    }
+    
+    @Override
+    public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, 
+                                                                  ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        new ArgumentPreparedStatementSetter(arguments).setValues(statement);
+        return statement;
+    }
+    
+    @Override
+    public String getSql() {
+        return sql;
+    }
+    
+    public Object[] getArguments() {
+        return arguments;
+    }
+}
@@ -11,6 +11,11 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.foxminded.university.controller.cache.ReadThroughCache;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.model.Classroom;
 
 
@@ -19,10 +24,20 @@ public class ClassroomRepository {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final JdbcTemplate jdbcTemplate;
+    private final ReadThroughCache<Classroom> cache;
+    private final TimetableCache timetableCache;
+    private final ScheduleConflictEngine scheduleConflictEngine;
+    private final ScheduleVersion scheduleVersion;
 
     @Autowired
-    public ClassroomRepository(JdbcTemplate jdbcTemplate) {
+    public ClassroomRepository(JdbcTemplate jdbcTemplate, ReferenceDataCache referenceDataCache, 
+                               TimetableCache timetableCache, ScheduleConflictEngine scheduleConflictEngine, 
+                               ScheduleVersion scheduleVersion) {
         this.jdbcTemplate = jdbcTemplate;
+        this.cache = referenceDataCache.getClassrooms();
+        this.timetableCache = timetableCache;
+        this.scheduleConflictEngine = scheduleConflictEngine;
+        this.scheduleVersion = scheduleVersion;
     }
     
     public void add(Classroom classroom) {        
@@ -38,6 +53,8 @@ public class ClassroomRepository {
                 logger.error("Error while creating classroom", ex);
             }
         }
+        cache.invalidate();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     public void delete(Classroom classroom) {
@@ -52,6 +69,10 @@ public class ClassroomRepository {
                 logger.error("Error while deleting classroom", ex);
             }
         }
+        cache.invalidate();
+        timetableCache.invalidateAll();
+        scheduleVersion.increment();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     public void update(Classroom classroom) {
@@ -69,13 +90,17 @@ public class ClassroomRepository {
                 logger.error("Error while updating classroom", ex);
             }
         }
+        cache.invalidate();
+        timetableCache.invalidateAll();
+        scheduleVersion.increment();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     public List<Classroom> getAll() {
         if (logger.isDebugEnabled()) { logger.debug("Get all classrooms"); }
         
         String query = "SELECT * FROM classrooms";
-        return jdbcTemplate.query(query, this::mapRow);
+        return cache.get(() -> jdbcTemplate.query(query, this::mapRow));
     }
     
     public Classroom getById(int id) {
@@ -9,6 +9,9 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Teacher;
@@ -18,10 +21,17 @@ public class CourseRepository {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final JdbcTemplate jdbcTemplate;
+    private final TimetableCache timetableCache;
+    private final ScheduleConflictEngine scheduleConflictEngine;
+    private final ScheduleVersion scheduleVersion;
 
     @Autowired
-    public CourseRepository(JdbcTemplate jdbcTemplate) {
+    public CourseRepository(JdbcTemplate jdbcTemplate, TimetableCache timetableCache, 
+                            ScheduleConflictEngine scheduleConflictEngine, ScheduleVersion scheduleVersion) {
         this.jdbcTemplate = jdbcTemplate;
+        this.timetableCache = timetableCache;
+        this.scheduleConflictEngine = scheduleConflictEngine;
+        this.scheduleVersion = scheduleVersion;
     }
     
     public void add(Course course) {        
@@ -32,6 +42,7 @@ public class CourseRepository {
             if (logger.isDebugEnabled()) {
                 logger.debug("Inset new course ({}, {}, {})", course.getName(), course.getDescription(), course.getTeacher().getId());
             }
+            scheduleConflictEngine.invalidateReferenceData();
         } catch (DataAccessException ex) {
             if (logger.isErrorEnabled()) {
                 logger.error("Error while creating new course", ex);
@@ -124,6 +135,8 @@ public class CourseRepository {
         }
         String query = "DELETE FROM courses WHERE course_id = ?";
         jdbcTemplate.update(query, course.getId());
+        scheduleVersion.increment();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     public void update(Course course) {
@@ -137,6 +150,9 @@ public class CourseRepository {
                      + "WHERE course_id = ?";
         jdbcTemplate.update(query, course.getName(), course.getDescription(), 
                                    course.getTeacher().getId(), course.getId());
+        timetableCache.invalidateAll();
+        scheduleVersion.increment();
+        scheduleConflictEngine.invalidateReferenceData();
     }
 
     private List<Group> getGroupsByCourseId(int id) {
@@ -11,6 +11,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.foxminded.university.controller.cache.ReadThroughCache;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
 import com.foxminded.university.model.Faculty;
 
 @Repository
@@ -18,10 +20,12 @@ public class FacultyRepository {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final JdbcTemplate jdbcTemplate;
+    private final ReadThroughCache<Faculty> cache;
     
     @Autowired
-    public FacultyRepository(JdbcTemplate jdbcTemplate) {
+    public FacultyRepository(JdbcTemplate jdbcTemplate, ReferenceDataCache referenceDataCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.cache = referenceDataCache.getFaculties();
     }
     
     public void add(Faculty faculty) {        
@@ -37,6 +41,7 @@ public class FacultyRepository {
                 logger.error("Error while creating new faculty", ex);
             }
         }
+        cache.invalidate();
     }
     
     public List<Faculty> getAll() {
@@ -44,7 +49,7 @@ public class FacultyRepository {
             logger.debug("Get all faculties");
         }
         String query = "SELECT * FROM faculties";
-        return jdbcTemplate.query(query, this::mapRow);
+        return cache.get(() -> jdbcTemplate.query(query, this::mapRow));
     }
     
     public Faculty getById(int id) {
@@ -70,6 +75,7 @@ public class FacultyRepository {
         
         String query = "DELETE FROM faculties WHERE faculty_id = ?";
         jdbcTemplate.update(query, faculty.getId());
+        cache.invalidate();
     }
     
     public void update(Faculty faculty) {
@@ -81,5 +87,6 @@ public class FacultyRepository {
                 + "faculty_full_name = ? "
                 + "WHERE faculty_id = ?";
         jdbcTemplate.update(query, faculty.getShortName(), faculty.getFullName(), faculty.getId());
+        cache.invalidate();
     }
 }
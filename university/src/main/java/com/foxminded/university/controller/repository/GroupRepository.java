@@ -1,5 +1,9 @@
 package com.foxminded.university.controller.repository;
 
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.cache.TimetableCache.Owner;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Group;
@@ -7,13 +11,18 @@ import com.foxminded.university.model.Student;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
@@ -22,10 +31,17 @@ public class GroupRepository {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final JdbcTemplate jdbcTemplate;
+    private final TimetableCache timetableCache;
+    private final ScheduleConflictEngine scheduleConflictEngine;
+    private final ScheduleVersion scheduleVersion;
 
     @Autowired
-    public GroupRepository(JdbcTemplate jdbcTemplate) {
+    public GroupRepository(JdbcTemplate jdbcTemplate, TimetableCache timetableCache, 
+                           ScheduleConflictEngine scheduleConflictEngine, ScheduleVersion scheduleVersion) {
         this.jdbcTemplate = jdbcTemplate;
+        this.timetableCache = timetableCache;
+        this.scheduleConflictEngine = scheduleConflictEngine;
+        this.scheduleVersion = scheduleVersion;
     }
     
     public void add(Group group) {
@@ -50,6 +66,112 @@ public class GroupRepository {
         return jdbcTemplate.query(query, new LazyLoadGroupRowMapper());
     }
     
+    public Map<String, Integer> getIdsByName() {
+        logger.debug("Get group ids by name");
+        
+        Map<String, Integer> idsByName = new HashMap<>();
+        String query = "SELECT group_id, group_name FROM groups";
+        jdbcTemplate.query(query, (RowCallbackHandler) resultSet -> {
+            String name = resultSet.getString("group_name");
+            if (name != null) {
+                idsByName.putIfAbsent(name, resultSet.getInt("group_id"));
+            }
+        });
+        return idsByName;
+    }
+    
+    public List<Group> getAllWithDetails() {
+        logger.debug("Get all groups with faculties, courses and students");
+        
+        String groupsQuery = "SELECT group_id, group_name, groups.faculty_id, faculty_short_name, faculty_full_name " + 
+                             "FROM groups " + 
+                             "JOIN faculties ON groups.faculty_id = faculties.faculty_id " + 
+                             "ORDER BY group_id";
+        Map<Integer, Group> groups = new LinkedHashMap<>();
+        jdbcTemplate.query(groupsQuery, resultSet -> {
+            Group group = new Group();
+            group.setId(resultSet.getInt("group_id"));
+            group.setGroupName(resultSet.getString("group_name"));
+            group.setCourses(new ArrayList<>());
+            group.setStudents(new ArrayList<>());
+
+            Faculty faculty = new Faculty();
+            faculty.setId(resultSet.getInt("faculty_id"));
+            faculty.setShortName(resultSet.getString("faculty_short_name"));
+            faculty.setFullName(resultSet.getString("faculty_full_name"));
+            group.setFaculty(faculty);
+            
+            groups.put(group.getId(), group);
+        });
+        
+        String coursesQuery = "SELECT groups_courses.group_id, courses.course_id, courses.course_name, courses.course_description " + 
+                              "FROM groups_courses " + 
+                              "JOIN courses ON groups_courses.course_id = courses.course_id " + 
+                              "ORDER BY groups_courses.group_id, courses.course_id";
+        jdbcTemplate.query(coursesQuery, resultSet -> {
+            Group group = groups.get(resultSet.getInt("group_id"));
+            if (group != null) {
+                Course course = new Course();
+                course.setId(resultSet.getInt("course_id"));
+                course.setName(resultSet.getString("course_name"));
+                course.setDescription(resultSet.getString("course_description"));
+                group.getCourses().add(course);
+            }
+        });
+        
+        String studentsQuery = "SELECT student_id, first_name, last_name, group_id FROM students " + 
+                               "ORDER BY group_id, student_id";
+        jdbcTemplate.query(studentsQuery, resultSet -> {
+            Group group = groups.get(resultSet.getInt("group_id"));
+            if (group != null) {
+                Student student = new Student();
+                student.setId(resultSet.getInt("student_id"));
+                student.setFirstName(resultSet.getString("first_name"));
+                student.setLastName(resultSet.getString("last_name"));
+                group.getStudents().add(student);
+            }
+        });
+        
+        return new ArrayList<>(groups.values());
+    }
+    
+    public List<Group> getAllWithCourses() {
+        logger.debug("Get all groups with courses");
+        
+        String query = "SELECT groups.group_id, group_name, faculty_id, " + 
+                       "courses.course_id, courses.course_name, courses.course_description " + 
+                       "FROM groups " + 
+                       "LEFT JOIN groups_courses ON groups.group_id = groups_courses.group_id " + 
+                       "LEFT JOIN courses ON groups_courses.course_id = courses.course_id " + 
+                       "ORDER BY groups.group_id, courses.course_id";
+        Map<Integer, Group> groups = new LinkedHashMap<>();
+        jdbcTemplate.query(query, resultSet -> {
+            int groupId = resultSet.getInt("group_id");
+            Group group = groups.get(groupId);
+            if (group == null) {
+                group = new Group();
+                group.setId(groupId);
+                group.setGroupName(resultSet.getString("group_name"));
+                group.setCourses(new ArrayList<>());
+                
+                Faculty faculty = new Faculty();
+                faculty.setId(resultSet.getInt("faculty_id"));
+                group.setFaculty(faculty);
+                groups.put(groupId, group);
+            }
+            
+            int courseId = resultSet.getInt("course_id");
+            if (!resultSet.wasNull()) {
+                Course course = new Course();
+                course.setId(courseId);
+                course.setName(resultSet.getString("course_name"));
+                course.setDescription(resultSet.getString("course_description"));
+                group.getCourses().add(course);
+            }
+        });
+        return new ArrayList<>(groups.values());
+    }
+    
     public List<Group> getByFaculty(Faculty faculty) {
         if (logger.isDebugEnabled()) {
             logger.debug("Get froup by faculty (id = {})", faculty.getId());
@@ -67,6 +189,9 @@ public class GroupRepository {
             if (logger.isDebugEnabled()) {
                 logger.debug("Assign course (id = {}) to group (id = {})", course.getId(), group.getId());
             }
+            timetableCache.evictAll(Owner.GROUP, group.getId());
+            scheduleVersion.increment();
+            scheduleConflictEngine.invalidateReferenceData();
         } catch (DataAccessException ex) {
             if (logger.isErrorEnabled()) {
                 logger.error("Error assigning course to group", ex);
@@ -119,6 +244,7 @@ public class GroupRepository {
         
         String query = "DELETE FROM groups WHERE group_id = ?";
         jdbcTemplate.update(query, group.getId());
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     public void update(Group group) {
@@ -154,6 +280,9 @@ public class GroupRepository {
         String query = "DELETE FROM groups_courses WHERE "
                      + "group_id = ? AND course_id = ?";
         jdbcTemplate.update(query, groupId, courseId);
+        timetableCache.evictAll(Owner.GROUP, groupId);
+        scheduleVersion.increment();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     private List<Student> getStudentsByGroup(Group group) {
@@ -1,15 +1,36 @@
 package com.foxminded.university.controller.repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.cache.TimetableCache.Owner;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.model.Classroom;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Lesson;
@@ -17,25 +38,56 @@ import com.foxminded.university.model.Timeslot;
 
 @Repository
 public class LessonRepository {
+    private static final String BATCH_INSERT_ON_CONFLICT_QUERY = 
+            "INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) "
+          + "VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String BATCH_INSERT_NOT_EXISTS_QUERY = 
+            "INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) "
+          + "SELECT CAST(? AS DATE), CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS INTEGER) "
+          + "WHERE NOT EXISTS (SELECT 1 FROM lessons "
+          + "WHERE lesson_date = ? AND timeslot_id = ? AND (course_id = ? OR classroom_id = ?))";
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final JdbcTemplate jdbcTemplate;
+    private final TimetableCache timetableCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduleConflictEngine scheduleConflictEngine;
+    private final ScheduleVersion scheduleVersion;
+    private volatile Boolean onConflictSupported;
 
     @Autowired
-    public LessonRepository(JdbcTemplate jdbcTemplate) {
+    public LessonRepository(JdbcTemplate jdbcTemplate, TimetableCache timetableCache, 
+                            TransactionTemplate transactionTemplate, ScheduleConflictEngine scheduleConflictEngine,
+                            ScheduleVersion scheduleVersion) {
         this.jdbcTemplate = jdbcTemplate;
+        this.timetableCache = timetableCache;
+        this.transactionTemplate = transactionTemplate;
+        this.scheduleConflictEngine = scheduleConflictEngine;
+        this.scheduleVersion = scheduleVersion;
     }
     
     public void add(Lesson lesson) {
         String query = "INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) "
                      + "VALUES (?, ?, ?, ?)";
         try {
-            jdbcTemplate.update(query, lesson.getDate(), lesson.getTime().getId(),
-                                lesson.getCourse().getId(), lesson.getClassroom().getId());
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(query, new String[] {"lesson_id"});
+                statement.setObject(1, lesson.getDate());
+                statement.setInt(2, lesson.getTime().getId());
+                statement.setInt(3, lesson.getCourse().getId());
+                statement.setInt(4, lesson.getClassroom().getId());
+                return statement;
+            }, keyHolder);
+            lesson.setId(keyHolder.getKey().intValue());
             if (logger.isDebugEnabled()) {
                 logger.debug("Insert new lesson({}, {}, {}, {})", lesson.getDate(), lesson.getTime().getId(),
                             lesson.getCourse().getId(), lesson.getClassroom().getId());
             }
+            evictTimetables(lesson.getCourse().getId(), lesson.getDate());
+            scheduleVersion.increment();
+            scheduleConflictEngine.lessonSaved(lesson);
         } catch (DataAccessException ex) {
             if (logger.isErrorEnabled()) {
                 logger.error("Error while creating new lesson", ex);
@@ -44,6 +96,145 @@ public class LessonRepository {
         }                    
     } 
     
+    public List<Lesson> addAll(List<Lesson> lessons) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Insert {} lessons in batch", lessons.size());
+        }
+        boolean onConflict = supportsOnConflict();
+        String query = onConflict ? BATCH_INSERT_ON_CONFLICT_QUERY : BATCH_INSERT_NOT_EXISTS_QUERY;
+        List<Object[]> batchArgs = new ArrayList<>(lessons.size());
+        for (Lesson lesson : lessons) {
+            if (onConflict) {
+                batchArgs.add(new Object[] {lesson.getDate(), lesson.getTime().getId(), 
+                                            lesson.getCourse().getId(), lesson.getClassroom().getId()});
+            } else {
+                batchArgs.add(new Object[] {lesson.getDate(), lesson.getTime().getId(), 
+                                            lesson.getCourse().getId(), lesson.getClassroom().getId(),
+                                            lesson.getDate(), lesson.getTime().getId(), 
+                                            lesson.getCourse().getId(), lesson.getClassroom().getId()});
+            }
+        }
+        
+        List<Integer> generatedIds = new ArrayList<>(lessons.size());
+        int[] updateCounts;
+        try {
+            updateCounts = transactionTemplate.execute(status -> {
+                Object savepoint = status.createSavepoint();
+                try {
+                    int[] counts = batchInsert(query, batchArgs, generatedIds);
+                    if (Arrays.stream(counts).noneMatch(count -> count == Statement.SUCCESS_NO_INFO)) {
+                        return counts;
+                    }
+                    // the driver did not tell which rows were skipped
+                } catch (DataIntegrityViolationException ex) {
+                    if (logger.isWarnEnabled()) {
+                        logger.warn("Batch of lessons conflicts with a concurrent change, insert lessons one by one", 
+                                    ex);
+                    }
+                }
+                // undo the batch and retry row by row, still in the same transaction
+                status.rollbackToSavepoint(savepoint);
+                return insertOneByOne(status, query, batchArgs, generatedIds);
+            });
+        } catch (DataAccessException ex) {
+            if (logger.isErrorEnabled()) {
+                logger.error("Error while creating lessons in batch", ex);
+            }
+            throw ex;
+        }
+        
+        List<Lesson> conflicts = new ArrayList<>();
+        List<Lesson> created = new ArrayList<>();
+        Map<Integer, List<LocalDate>> createdDatesByCourse = new HashMap<>();
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            if (updateCounts[i] == 0) {
+                conflicts.add(lesson);
+            } else {
+                created.add(lesson);
+                createdDatesByCourse.computeIfAbsent(lesson.getCourse().getId(), id -> new ArrayList<>())
+                                    .add(lesson.getDate());
+            }
+        }
+        createdDatesByCourse.forEach(this::evictTimetables);
+        if (!created.isEmpty()) {
+            scheduleVersion.increment();
+            updateScheduleIndex(created, generatedIds);
+        }
+        return conflicts;
+    }
+    
+    private int[] batchInsert(String query, List<Object[]> batchArgs, List<Integer> generatedIds) {
+        generatedIds.clear();
+        return jdbcTemplate.execute(connection -> connection.prepareStatement(query, new String[] {"lesson_id"}), 
+                                    (PreparedStatementCallback<int[]>) statement -> {
+            for (Object[] args : batchArgs) {
+                new ArgumentPreparedStatementSetter(args).setValues(statement);
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                while (keys.next()) {
+                    generatedIds.add(keys.getInt(1));
+                }
+            }
+            return counts;
+        });
+    }
+    
+    private int[] insertOneByOne(TransactionStatus status, String query, List<Object[]> batchArgs, 
+                                 List<Integer> generatedIds) {
+        generatedIds.clear();
+        int[] updateCounts = new int[batchArgs.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            Object[] args = batchArgs.get(i);
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            // a failed statement aborts the whole transaction on PostgreSQL unless it is rolled back to a savepoint
+            Object savepoint = status.createSavepoint();
+            try {
+                updateCounts[i] = jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(query, new String[] {"lesson_id"});
+                    new ArgumentPreparedStatementSetter(args).setValues(statement);
+                    return statement;
+                }, keyHolder);
+                status.releaseSavepoint(savepoint);
+            } catch (DataIntegrityViolationException ex) {
+                status.rollbackToSavepoint(savepoint);
+                updateCounts[i] = 0;
+            }
+            if (updateCounts[i] > 0) {
+                generatedIds.add(keyHolder.getKey().intValue());
+            }
+        }
+        return updateCounts;
+    }
+    
+    private void updateScheduleIndex(List<Lesson> created, List<Integer> generatedIds) {
+        // keys come back in insertion order and only for rows that were actually inserted
+        if (generatedIds.size() != created.size()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Got {} generated keys for {} inserted lessons, rebuild the schedule index", 
+                            generatedIds.size(), created.size());
+            }
+            scheduleConflictEngine.invalidateLessons();
+            return;
+        }
+        for (int i = 0; i < created.size(); i++) {
+            created.get(i).setId(generatedIds.get(i));
+        }
+        scheduleConflictEngine.lessonsSaved(created);
+    }
+    
+    private boolean supportsOnConflict() {
+        Boolean supported = onConflictSupported;
+        if (supported == null) {
+            supported = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> 
+                    connection.getMetaData().getDatabaseProductName().contains("PostgreSQL"));
+            onConflictSupported = supported;
+        }
+        return supported;
+    }
+    
     public Lesson getById(int id) {
         if (logger.isDebugEnabled()) {
             logger.debug("Get lesson by id ({})", id);
@@ -71,9 +262,14 @@ public class LessonRepository {
                      + "timeslot_id = ?, "
                      + "classroom_id = ? "
                      + "WHERE lesson_id = ?";
+        List<Lesson> previous = getStoredState(lesson.getId());
         jdbcTemplate.update(query, lesson.getDate(), lesson.getCourse().getId(),
                                    lesson.getTime().getId(), lesson.getClassroom().getId(),
                                    lesson.getId());
+        previous.forEach(old -> evictTimetables(old.getCourse().getId(), old.getDate()));
+        evictTimetables(lesson.getCourse().getId(), lesson.getDate());
+        scheduleVersion.increment();
+        scheduleConflictEngine.lessonSaved(lesson);
     }
     
     public void delete(Lesson lesson) {
@@ -81,10 +277,47 @@ public class LessonRepository {
             logger.debug("Update lesson with id = {}", lesson.getId());
         }
         String query = "DELETE FROM lessons WHERE lesson_id = ?";
+        List<Lesson> previous = getStoredState(lesson.getId());
         jdbcTemplate.update(query, lesson.getId());
+        previous.forEach(old -> evictTimetables(old.getCourse().getId(), old.getDate()));
+        scheduleVersion.increment();
+        scheduleConflictEngine.lessonDeleted(lesson.getId());
+    }
+    
+    private List<Lesson> getStoredState(int lessonId) {
+        Lesson indexed = scheduleConflictEngine.findIndexedLesson(lessonId);
+        if (indexed != null) {
+            return Collections.singletonList(indexed);
+        }
+        String query = "SELECT lesson_date, course_id FROM lessons WHERE lesson_id = ?";
+        return jdbcTemplate.query(query, new Object[] {lessonId}, (resultSet, rowNum) -> {
+            Lesson lesson = new Lesson();
+            lesson.setDate(resultSet.getDate("lesson_date").toLocalDate());
+            Course course = new Course();
+            course.setId(resultSet.getInt("course_id"));
+            lesson.setCourse(course);
+            return lesson;
+        });
+    }
+    
+    private void evictTimetables(int courseId, LocalDate date) {
+        evictTimetables(courseId, Collections.singletonList(date));
+    }
+    
+    private void evictTimetables(int courseId, List<LocalDate> dates) {
+        // the conflict engine keeps course teachers and groups in memory, so writes do not query them
+        Integer teacherId = scheduleConflictEngine.getCourseTeacher(courseId);
+        List<Integer> groupIds = scheduleConflictEngine.getCourseGroups(courseId);
+        
+        for (LocalDate date : dates) {
+            if (teacherId != null) {
+                timetableCache.evict(Owner.TEACHER, teacherId, date);
+            }
+            groupIds.forEach(groupId -> timetableCache.evict(Owner.GROUP, groupId, date));
+        }
     }
     
-    private Lesson mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+    Lesson mapRow(ResultSet resultSet, int rowNum) throws SQLException {
         Lesson lesson = new Lesson();
         Timeslot timeslot = new Timeslot();
         Course course = new Course();
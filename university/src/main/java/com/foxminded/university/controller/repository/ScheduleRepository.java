@@ -0,0 +1,94 @@
+package com.foxminded.university.controller.repository;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.foxminded.university.controller.schedule.ScheduleIndex;
+import com.foxminded.university.controller.schedule.SchedulingProblem;
+
+@Repository
+public class ScheduleRepository {
+    private static final String COURSES_QUERY = "SELECT course_id, teacher_id FROM courses";
+    private static final String COURSE_GROUPS_QUERY = "SELECT group_id, course_id FROM groups_courses";
+    private static final String GROUP_SIZES_QUERY = "SELECT group_id, COUNT(*) AS students FROM students " 
+                                                  + "WHERE group_id IS NOT NULL GROUP BY group_id";
+    private static final String CLASSROOMS_QUERY = "SELECT classroom_id, capacity FROM classrooms";
+    
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public ScheduleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public void loadLessons(ScheduleIndex index, LocalDate startDate, LocalDate endDate) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Load lessons from {} to {} into schedule index", startDate, endDate);
+        }
+        
+        String query = "SELECT lesson_id, lesson_date, timeslot_id, course_id, classroom_id FROM lessons "
+                     + "WHERE lesson_date BETWEEN ? AND ?";
+        jdbcTemplate.query(query, (RowCallbackHandler) resultSet -> 
+            index.addLesson(resultSet.getInt("lesson_id"), resultSet.getDate("lesson_date").toLocalDate(),
+                            resultSet.getInt("timeslot_id"), resultSet.getInt("course_id"), 
+                            resultSet.getInt("classroom_id")), startDate, endDate);
+    }
+    
+    public void loadReferenceData(ScheduleIndex index) {
+        logger.debug("Load courses, groups and classrooms into schedule index");
+        
+        jdbcTemplate.query(COURSES_QUERY, (RowCallbackHandler) resultSet -> {
+            int teacherId = resultSet.getInt("teacher_id");
+            if (!resultSet.wasNull()) {
+                index.setCourseTeacher(resultSet.getInt("course_id"), teacherId);
+            }
+        });
+        jdbcTemplate.query(COURSE_GROUPS_QUERY, (RowCallbackHandler) resultSet -> 
+            index.addCourseGroup(resultSet.getInt("course_id"), resultSet.getInt("group_id")));
+        jdbcTemplate.query(GROUP_SIZES_QUERY, (RowCallbackHandler) resultSet -> 
+            index.setGroupSize(resultSet.getInt("group_id"), resultSet.getInt("students")));
+        jdbcTemplate.query(CLASSROOMS_QUERY, (RowCallbackHandler) resultSet -> {
+            int capacity = resultSet.getInt("capacity");
+            if (!resultSet.wasNull()) {
+                index.setClassroomCapacity(resultSet.getInt("classroom_id"), capacity);
+            }
+        });
+    }
+    
+    public void loadSchedulingProblem(SchedulingProblem problem, LocalDate startDate, LocalDate endDate) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Load scheduling problem with lessons from {} to {}", startDate, endDate);
+        }
+        
+        jdbcTemplate.query("SELECT timeslot_id FROM timeslots ORDER BY timeslot_id", (RowCallbackHandler) resultSet -> 
+            problem.addTimeslot(resultSet.getInt("timeslot_id")));
+        jdbcTemplate.query(CLASSROOMS_QUERY + " ORDER BY classroom_id", (RowCallbackHandler) resultSet -> {
+            int capacity = resultSet.getInt("capacity");
+            problem.addClassroom(resultSet.getInt("classroom_id"), resultSet.wasNull() ? Integer.MAX_VALUE : capacity);
+        });
+        jdbcTemplate.query(COURSES_QUERY + " ORDER BY course_id", (RowCallbackHandler) resultSet -> 
+            problem.addCourse(resultSet.getInt("course_id"), resultSet.getInt("teacher_id")));
+        jdbcTemplate.query(COURSE_GROUPS_QUERY, (RowCallbackHandler) resultSet -> 
+            problem.addCourseGroup(resultSet.getInt("course_id"), resultSet.getInt("group_id")));
+        jdbcTemplate.query(GROUP_SIZES_QUERY, (RowCallbackHandler) resultSet -> 
+            problem.setGroupSize(resultSet.getInt("group_id"), resultSet.getInt("students")));
+        
+        String query = "SELECT lesson_date, timeslot_id, course_id, classroom_id FROM lessons " 
+                     + "WHERE lesson_date BETWEEN ? AND ?";
+        jdbcTemplate.query(query, (RowCallbackHandler) resultSet -> {
+            LocalDate date = resultSet.getDate("lesson_date").toLocalDate();
+            problem.addFixedLesson(date.getDayOfWeek().getValue() - 1, resultSet.getInt("timeslot_id"), 
+                                   resultSet.getInt("course_id"), resultSet.getInt("classroom_id"), 
+                                   (int) (ChronoUnit.DAYS.between(startDate, date) / 7));
+        }, startDate, endDate);
+    }
+}
@@ -1,12 +1,32 @@
 package com.foxminded.university.controller.repository;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.postgresql.core.BaseConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Student;
 
@@ -15,10 +35,19 @@ public class StudentRepository {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduleConflictEngine scheduleConflictEngine;
+    private final ScheduleVersion scheduleVersion;
+    private final Map<Integer, Integer> groupIdsByStudent = new ConcurrentHashMap<>();
+    private final AtomicLong groupIdsVersion = new AtomicLong();
     
     @Autowired
-    public StudentRepository(JdbcTemplate jdbcTemplate) {
+    public StudentRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, 
+                             ScheduleConflictEngine scheduleConflictEngine, ScheduleVersion scheduleVersion) {
         this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.scheduleConflictEngine = scheduleConflictEngine;
+        this.scheduleVersion = scheduleVersion;
     }
 
     public int getCount() {
@@ -36,11 +65,68 @@ public class StudentRepository {
             if (logger.isDebugEnabled()) {
                 logger.debug("Insert new student ({}, {}, {})", student.getFirstName(), student.getLastName(), student.getGroup().getId());
             }
+            scheduleConflictEngine.invalidateReferenceData();
         } catch (DataAccessException ex) {
             logger.error("Error while creating new student", ex);
         }
     }
     
+    public void addAll(List<Student> students) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Insert {} students in bulk", students.size());
+        }
+        // the callback runs on the transaction's connection, so a chunk is inserted completely or not at all
+        transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(BaseConnection.class)) {
+                copyStudents(connection.unwrap(BaseConnection.class), students);
+            } else {
+                batchStudents(connection, students);
+            }
+            return null;
+        }));
+        scheduleConflictEngine.invalidateReferenceData();
+    }
+    
+    private void copyStudents(BaseConnection connection, List<Student> students) throws SQLException {
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection, 
+                "COPY students (first_name, last_name, group_id) FROM STDIN WITH (FORMAT csv)");
+        try {
+            Writer rows = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8));
+            for (Student student : students) {
+                rows.append(quote(student.getFirstName())).append(',')
+                    .append(quote(student.getLastName())).append(',')
+                    .append(String.valueOf(student.getGroup().getId())).append('\n');
+            }
+            rows.close();
+        } catch (IOException ex) {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            throw new SQLException("Error while copying students", ex);
+        }
+    }
+    
+    private void batchStudents(Connection connection, List<Student> students) throws SQLException {
+        String query = "INSERT INTO students (first_name, last_name, group_id) "
+                     + "VALUES (?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            for (Student student : students) {
+                statement.setString(1, student.getFirstName());
+                statement.setString(2, student.getLastName());
+                statement.setInt(3, student.getGroup().getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+    
+    private String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
     public Student getById(int id) {
         if (logger.isDebugEnabled()) {
             logger.debug("Get student by id ({})", id);
@@ -64,12 +150,39 @@ public class StudentRepository {
         });
     }
     
+    public Integer getGroupId(int studentId) {
+        Integer cached = groupIdsByStudent.get(studentId);
+        if (cached != null) {
+            return cached;
+        }
+        
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get group id by student id ({})", studentId);
+        }
+        long version = groupIdsVersion.get();
+        String query = "SELECT group_id FROM students WHERE student_id = ?";
+        List<Integer> groupIds = jdbcTemplate.queryForList(query, Integer.class, studentId);
+        if (groupIds.isEmpty() || groupIds.get(0) == null) {
+            return null;
+        }
+        groupIdsByStudent.put(studentId, groupIds.get(0));
+        // a student changed since the select may have been read before the change, its group id is not kept
+        if (groupIdsVersion.get() != version) {
+            groupIdsByStudent.remove(studentId, groupIds.get(0));
+        }
+        return groupIds.get(0);
+    }
+    
     public void delete(Student student) {
         if (logger.isDebugEnabled()) {
             logger.debug("Delete student with id = {}", student.getId());
         }
         String query = "DELETE FROM students WHERE student_id = ?";
         jdbcTemplate.update(query, student.getId());
+        groupIdsVersion.incrementAndGet();
+        groupIdsByStudent.remove(student.getId());
+        scheduleVersion.increment();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     public void update(Student student) {
@@ -83,5 +196,9 @@ public class StudentRepository {
                      + "WHERE student_id = ?";
         jdbcTemplate.update(query, student.getFirstName(), student.getLastName(), 
                                    student.getGroup().getId(), student.getId());
+        groupIdsVersion.incrementAndGet();
+        groupIdsByStudent.remove(student.getId());
+        scheduleVersion.increment();
+        scheduleConflictEngine.invalidateReferenceData();
     }
 }
@@ -1,6 +1,9 @@
 package com.foxminded.university.controller.repository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +79,46 @@ public class TeacherRepository {
         });
     }
     
+    public List<Teacher> getAllWithCourses() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get all teachers with courses");
+        }
+        
+        String query = "SELECT teachers.teacher_id, first_name, last_name, faculty_id, "
+                     + "course_id, course_name, course_description "
+                     + "FROM teachers "
+                     + "LEFT JOIN courses ON teachers.teacher_id = courses.teacher_id "
+                     + "ORDER BY teachers.teacher_id, course_id";
+        Map<Integer, Teacher> teachers = new LinkedHashMap<>();
+        jdbcTemplate.query(query, resultSet -> {
+            int teacherId = resultSet.getInt("teacher_id");
+            Teacher teacher = teachers.get(teacherId);
+            if (teacher == null) {
+                teacher = new Teacher();
+                teacher.setId(teacherId);
+                teacher.setFirstName(resultSet.getString("first_name"));
+                teacher.setLastName(resultSet.getString("last_name"));
+                teacher.setCourses(new ArrayList<>());
+                
+                Faculty faculty = new Faculty();
+                faculty.setId(resultSet.getInt("faculty_id"));
+                teacher.setFaculty(faculty);
+                teachers.put(teacherId, teacher);
+            }
+            
+            int courseId = resultSet.getInt("course_id");
+            if (!resultSet.wasNull()) {
+                Course course = new Course();
+                course.setId(courseId);
+                course.setName(resultSet.getString("course_name"));
+                course.setDescription(resultSet.getString("course_description"));
+                course.setTeacher(teacher);
+                teacher.getCourses().add(course);
+            }
+        });
+        return new ArrayList<>(teachers.values());
+    }
+    
     public Teacher getById(int id) {
         if (logger.isDebugEnabled()) {
             logger.debug("Get teacher by id ({})", id);
@@ -11,6 +11,10 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import com.foxminded.university.controller.cache.ReadThroughCache;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
 import com.foxminded.university.model.Timeslot;
 
 @Repository
@@ -18,10 +22,17 @@ public class TimeslotRepository {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final JdbcTemplate jdbcTemplate;
+    private final ReadThroughCache<Timeslot> cache;
+    private final TimetableCache timetableCache;
+    private final ScheduleVersion scheduleVersion;
 
     @Autowired
-    public TimeslotRepository(JdbcTemplate jdbcTemplate) {
+    public TimeslotRepository(JdbcTemplate jdbcTemplate, ReferenceDataCache referenceDataCache, 
+                              TimetableCache timetableCache, ScheduleVersion scheduleVersion) {
         this.jdbcTemplate = jdbcTemplate;
+        this.cache = referenceDataCache.getTimeslots();
+        this.timetableCache = timetableCache;
+        this.scheduleVersion = scheduleVersion;
     }
     
     public List<Timeslot> getAll() {
@@ -30,7 +41,7 @@ public class TimeslotRepository {
         }
         
         String query = "SELECT * FROM timeslots ORDER BY timeslot_description";
-        return jdbcTemplate.query(query, new TimeslotRowMapper());
+        return cache.get(() -> jdbcTemplate.query(query, new TimeslotRowMapper()));
     }
     
     public void add(Timeslot timeslot) {
@@ -40,6 +51,8 @@ public class TimeslotRepository {
         
         String query = "INSERT INTO timeslots (timeslot_description) VALUES (?)";
         jdbcTemplate.update(query, timeslot.getDescription());
+        cache.invalidate();
+        scheduleVersion.increment();
     }
     
     public void delete(Timeslot timeslot) {
@@ -49,6 +62,9 @@ public class TimeslotRepository {
         
         String query = "DELETE FROM timeslots WHERE timeslot_id = ?";
         jdbcTemplate.update(query, timeslot.getId());
+        cache.invalidate();
+        timetableCache.invalidateAll();
+        scheduleVersion.increment();
     }
     
     public void update(Timeslot timeslot) {
@@ -59,6 +75,9 @@ public class TimeslotRepository {
         String query = "UPDATE timeslots SET timeslot_description = ? "
                      + "WHERE timeslot_id = ?";
         jdbcTemplate.update(query, timeslot.getDescription(), timeslot.getId());
+        cache.invalidate();
+        timetableCache.invalidateAll();
+        scheduleVersion.increment();
     }
     
     public Timeslot getById(int id) {
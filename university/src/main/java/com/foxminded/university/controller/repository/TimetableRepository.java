@@ -1,44 +1,80 @@
 package com.foxminded.university.controller.repository;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.foxminded.university.controller.metrics.StreamingStatementCreator;
 import com.foxminded.university.model.Classroom;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Lesson;
-import com.foxminded.university.model.Student;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Timeslot;
 import com.foxminded.university.model.Timetable;
 
 @Repository
 public class TimetableRepository {
+    private static final String GROUP_LESSONS_QUERY = "SELECT lessons.lesson_id, lessons.lesson_date, " +
+            "lessons.timeslot_id, timeslots.timeslot_description, " +
+            "lessons.classroom_id, classrooms.classroom_number, " +
+            "lessons.course_id, courses.course_name " +
+            "FROM lessons " +
+            "JOIN groups_courses ON lessons.course_id = groups_courses.course_id " +
+            "JOIN timeslots ON lessons.timeslot_id = timeslots.timeslot_id " +
+            "JOIN classrooms ON lessons.classroom_id = classrooms.classroom_id " +
+            "JOIN courses ON lessons.course_id = courses.course_id " +
+            "WHERE groups_courses.group_id = ? " +
+            "AND lesson_date BETWEEN ? AND ? " +
+            "ORDER BY lessons.lesson_date, lessons.timeslot_id";
+    private static final String TEACHER_LESSONS_QUERY = "SELECT lessons.lesson_id, lessons.lesson_date, " +
+            "lessons.timeslot_id, timeslots.timeslot_description, " +
+            "lessons.classroom_id, classrooms.classroom_number, " +
+            "lessons.course_id, courses.course_name " +
+            "FROM lessons " +
+            "JOIN timeslots ON lessons.timeslot_id = timeslots.timeslot_id " +
+            "JOIN classrooms ON lessons.classroom_id = classrooms.classroom_id " +
+            "JOIN courses ON lessons.course_id = courses.course_id " +
+            "WHERE lesson_date BETWEEN ? AND ? " +
+            "AND lessons.course_id IN (SELECT course_id FROM courses where teacher_id = ?) " +
+            "ORDER BY lessons.lesson_date, lessons.timeslot_id";
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
     
     @Autowired
-    public TimetableRepository(JdbcTemplate jdbcTemplate) {
+    public TimetableRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               @Value("${timetable.stream.fetchSize:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(), 
+                                                           transactionTemplate);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
     }
     
-    public Timetable getByStudent(Student student, DateInterval dateInterval) {
+    public Timetable getByGroup(Group group, DateInterval dateInterval) {
         if (logger.isDebugEnabled()) {
-            logger.debug("Get timetable by student ({}, {}, {})", 
-                     student.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
+            logger.debug("Get timetable by group ({}, {}, {})", 
+                     group.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
         }
         
         Timetable timetable = new Timetable();
         timetable.setDateInterval(dateInterval);
-        timetable.setLessons(getLessonsByStudent(student, dateInterval));
+        timetable.setLessons(getLessonsByGroup(group, dateInterval));
         return timetable;
     }
     
@@ -54,47 +90,56 @@ public class TimetableRepository {
         return timetable;
     }
     
-    private List<Lesson> getLessonsByStudent(Student student, DateInterval dateInterval) {
-        String query = "SELECT  lessons.lesson_id, lessons.lesson_date, " + 
-                       "lessons.timeslot_id, timeslots.timeslot_description, " + 
-                       "lessons.classroom_id, classrooms.classroom_number, " + 
-                       "lessons.course_id, courses.course_name " + 
-                       "FROM lessons " + 
-                       "JOIN timeslots ON lessons.timeslot_id = timeslots.timeslot_id " + 
-                       "JOIN classrooms ON lessons.classroom_id = classrooms.classroom_id " + 
-                       "JOIN courses ON lessons.course_id = courses.course_id " + 
-                       "WHERE lesson_date BETWEEN ? AND ? " + 
-                       "AND lessons.course_id IN (" +
-                       "    SELECT course_id FROM groups_courses WHERE group_id = (" + 
-                       "         SELECT group_id FROM students WHERE student_id = ? ))" + 
-                       "ORDER BY lessons.lesson_date, lessons.timeslot_id;";
-        return jdbcTemplate.query(query, 
-                                  new Object[] {dateInterval.getStartDate(), 
-                                                dateInterval.getEndDate(), 
-                                                student.getId()}, 
+    public void streamByGroup(Group group, DateInterval dateInterval, Consumer<Lesson> consumer) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Stream lessons by group ({}, {}, {})", 
+                     group.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
+        }
+        
+        streamLessons(GROUP_LESSONS_QUERY, 
+                      new Object[] {group.getId(),
+                                    dateInterval.getStartDate(), 
+                                    dateInterval.getEndDate()}, 
+                      consumer);
+    }
+    
+    public void streamByTeacher(Teacher teacher, DateInterval dateInterval, Consumer<Lesson> consumer) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Stream lessons by teacher ({}, {}, {})", 
+                     teacher.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
+        }
+        
+        streamLessons(TEACHER_LESSONS_QUERY, 
+                      new Object[] {dateInterval.getStartDate(), 
+                                    dateInterval.getEndDate(), 
+                                    teacher.getId()}, 
+                      consumer);
+    }
+    
+    private void streamLessons(String query, Object[] args, Consumer<Lesson> consumer) {
+        // PostgreSQL only honours the fetch size with autocommit off, otherwise it buffers the whole result
+        readOnlyTransaction.executeWithoutResult(status -> 
+            jdbcTemplate.query(new StreamingStatementCreator(query, fetchSize, args),
+                               (RowCallbackHandler) resultSet -> consumer.accept(mapRow(resultSet, resultSet.getRow()))));
+    }
+    
+    private List<Lesson> getLessonsByGroup(Group group, DateInterval dateInterval) {
+        return jdbcTemplate.query(GROUP_LESSONS_QUERY, 
+                                  new Object[] {group.getId(),
+                                                dateInterval.getStartDate(), 
+                                                dateInterval.getEndDate()}, 
                                   this::mapRow);
     }
     
     private List<Lesson> getLessonsByTeacher(Teacher teacher, DateInterval dateInterval) {
-        String query = "SELECT  lessons.lesson_id, lessons.lesson_date, " + 
-                "lessons.timeslot_id, timeslots.timeslot_description, " + 
-                "lessons.classroom_id, classrooms.classroom_number, " + 
-                "lessons.course_id, courses.course_name " + 
-                "FROM lessons " + 
-                "JOIN timeslots ON lessons.timeslot_id = timeslots.timeslot_id " + 
-                "JOIN classrooms ON lessons.classroom_id = classrooms.classroom_id " + 
-                "JOIN courses ON lessons.course_id = courses.course_id " + 
-                "WHERE lesson_date BETWEEN ? AND ? " + 
-                "AND lessons.course_id IN (SELECT course_id FROM courses where teacher_id = ?) " + 
-                "ORDER BY lessons.lesson_date, lessons.timeslot_id";
-        return jdbcTemplate.query(query, 
+        return jdbcTemplate.query(TEACHER_LESSONS_QUERY, 
                                   new Object[] {dateInterval.getStartDate(), 
                                                 dateInterval.getEndDate(), 
                                                 teacher.getId()}, 
                                   this::mapRow);
     }
     
-    private Lesson mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+    Lesson mapRow(ResultSet resultSet, int rowNum) throws SQLException {
         Lesson lesson = new Lesson();
         Timeslot timeslot = new Timeslot();
         Course course = new Course();
@@ -0,0 +1,328 @@
+package com.foxminded.university.controller.schedule;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.controller.repository.ScheduleRepository;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.ScheduleConflict;
+
+@Component
+public class ScheduleConflictEngine {
+    private static final int DAYS_IN_WEEK = 7;
+    
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleIndex index = new ScheduleIndex();
+    private final int maxWeeks;
+    private final Map<Long, Boolean> loadedWeeks;
+    private final Map<Long, CompletableFuture<Void>> loadingWeeks = new HashMap<>();
+    private final List<LessonsLoad> lessonsLoads = new ArrayList<>();
+    private long lessonsGeneration;
+    private boolean referenceDataLoaded;
+    private CompletableFuture<Void> referenceDataLoad;
+    private long referenceDataGeneration;
+    
+    @Autowired
+    public ScheduleConflictEngine(ScheduleRepository scheduleRepository, 
+                                  @Value("${schedule.index.maxWeeks:26}") int maxWeeks) {
+        this.scheduleRepository = scheduleRepository;
+        this.maxWeeks = Math.max(1, maxWeeks);
+        // only the most recently used weeks stay indexed, the rest of the lessons table is never loaded
+        this.loadedWeeks = new LinkedHashMap<Long, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                if (size() <= ScheduleConflictEngine.this.maxWeeks) {
+                    return false;
+                }
+                index.removeLessonsBetween(weekStart(eldest.getKey()), weekStart(eldest.getKey() + 1).minusDays(1));
+                return true;
+            }
+        };
+    }
+    
+    public List<ScheduleConflict> findConflicts(Lesson lesson) {
+        long week = weekOf(lesson.getDate());
+        return read(week, week, () -> index.findConflicts(lesson));
+    }
+    
+    public synchronized Lesson findIndexedLesson(int lessonId) {
+        return index.findLesson(lessonId);
+    }
+    
+    public Integer getCourseTeacher(int courseId) {
+        return readReferenceData(() -> index.getCourseTeacher(courseId));
+    }
+    
+    public List<Integer> getCourseGroups(int courseId) {
+        return readReferenceData(() -> new ArrayList<>(index.getCourseGroups(courseId)));
+    }
+    
+    public BitSet getOccupiedClassrooms(LocalDate startDate, LocalDate endDate, int timeslotId) {
+        BitSet occupied = new BitSet();
+        long lastWeek = weekOf(endDate);
+        // a range longer than the window is collected chunk by chunk, so no week is dropped before it is read
+        for (long week = weekOf(startDate); week <= lastWeek; week += maxWeeks) {
+            long chunkEnd = Math.min(lastWeek, week + maxWeeks - 1);
+            LocalDate from = max(startDate, weekStart(week));
+            LocalDate to = min(endDate, weekStart(chunkEnd + 1).minusDays(1));
+            read(week, chunkEnd, () -> {
+                for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                    index.collectOccupiedClassrooms(date, timeslotId, occupied);
+                }
+                return occupied;
+            });
+        }
+        return occupied;
+    }
+    
+    public synchronized void lessonSaved(Lesson lesson) {
+        lessonDeleted(lesson.getId());
+        long week = weekOf(lesson.getDate());
+        // a lesson saved while its week is loading is kept here, the load skips its stale copy
+        if (loadedWeeks.containsKey(week) || loadingWeeks.containsKey(week)) {
+            index.addLesson(lesson.getId(), lesson.getDate(), lesson.getTime().getId(), 
+                            lesson.getCourse().getId(), lesson.getClassroom().getId());
+        }
+    }
+    
+    public synchronized void lessonsSaved(Collection<Lesson> lessons) {
+        lessons.forEach(this::lessonSaved);
+    }
+    
+    public synchronized void lessonDeleted(int lessonId) {
+        index.removeLesson(lessonId);
+        for (LessonsLoad load : lessonsLoads) {
+            load.changedIds.add(lessonId);
+        }
+    }
+    
+    public synchronized void invalidateLessons() {
+        index.clearLessons();
+        loadedWeeks.clear();
+        lessonsGeneration++;
+    }
+    
+    public synchronized void invalidateReferenceData() {
+        index.clearReferenceData();
+        referenceDataLoaded = false;
+        referenceDataGeneration++;
+    }
+    
+    // loads run without the lock, so a reader only retries if its weeks were evicted or invalidated meanwhile
+    private <T> T read(long firstWeek, long lastWeek, Supplier<T> reader) {
+        while (true) {
+            ensureReferenceDataLoaded();
+            ensureLessonsLoaded(firstWeek, lastWeek);
+            synchronized (this) {
+                if (referenceDataLoaded && areLessonsLoaded(firstWeek, lastWeek)) {
+                    return reader.get();
+                }
+            }
+        }
+    }
+    
+    private <T> T readReferenceData(Supplier<T> reader) {
+        while (true) {
+            ensureReferenceDataLoaded();
+            synchronized (this) {
+                if (referenceDataLoaded) {
+                    return reader.get();
+                }
+            }
+        }
+    }
+    
+    private boolean areLessonsLoaded(long firstWeek, long lastWeek) {
+        for (long week = firstWeek; week <= lastWeek; week++) {
+            if (!loadedWeeks.containsKey(week)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void ensureReferenceDataLoaded() {
+        CompletableFuture<Void> pending;
+        CompletableFuture<Void> load = null;
+        long generation;
+        synchronized (this) {
+            if (referenceDataLoaded) {
+                return;
+            }
+            pending = referenceDataLoad;
+            generation = referenceDataGeneration;
+            if (pending == null) {
+                load = referenceDataLoad = new CompletableFuture<>();
+            }
+        }
+        if (pending != null) {
+            await(pending);
+            return;
+        }
+        
+        try {
+            ScheduleIndex loaded = new ScheduleIndex();
+            scheduleRepository.loadReferenceData(loaded);
+            synchronized (this) {
+                if (generation == referenceDataGeneration) {
+                    index.setReferenceData(loaded);
+                    referenceDataLoaded = true;
+                }
+            }
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            synchronized (this) {
+                referenceDataLoad = null;
+            }
+            load.complete(null);
+        }
+    }
+    
+    private void ensureLessonsLoaded(long firstWeek, long lastWeek) {
+        List<LessonsLoad> claimed = new ArrayList<>();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        synchronized (this) {
+            long week = firstWeek;
+            while (week <= lastWeek) {
+                CompletableFuture<Void> loading = loadingWeeks.get(week);
+                if (loading != null) {
+                    pending.add(loading);
+                    week++;
+                    continue;
+                }
+                if (loadedWeeks.get(week) != null) {
+                    week++;
+                    continue;
+                }
+                long runEnd = week;
+                while (runEnd < lastWeek && !loadedWeeks.containsKey(runEnd + 1) 
+                        && !loadingWeeks.containsKey(runEnd + 1)) {
+                    runEnd++;
+                }
+                LessonsLoad load = new LessonsLoad(week, runEnd, lessonsGeneration);
+                for (long claimedWeek = week; claimedWeek <= runEnd; claimedWeek++) {
+                    loadingWeeks.put(claimedWeek, load.done);
+                }
+                lessonsLoads.add(load);
+                claimed.add(load);
+                week = runEnd + 1;
+            }
+        }
+        
+        RuntimeException failure = null;
+        for (LessonsLoad load : claimed) {
+            try {
+                loadLessons(load);
+            } catch (RuntimeException ex) {
+                failure = failure == null ? ex : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        pending.forEach(ScheduleConflictEngine::await);
+    }
+    
+    private void loadLessons(LessonsLoad load) {
+        LocalDate startDate = weekStart(load.firstWeek);
+        LocalDate endDate = weekStart(load.lastWeek + 1).minusDays(1);
+        boolean installed = false;
+        try {
+            ScheduleIndex loaded = new ScheduleIndex();
+            scheduleRepository.loadLessons(loaded, startDate, endDate);
+            synchronized (this) {
+                if (load.generation == lessonsGeneration) {
+                    index.addLessons(loaded, load.changedIds);
+                    for (long week = load.firstWeek; week <= load.lastWeek; week++) {
+                        loadedWeeks.put(week, Boolean.TRUE);
+                    }
+                    installed = true;
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Schedule index loaded weeks from {} to {} ({} lessons loaded)", 
+                             startDate, endDate, loaded.getLessonsCount());
+            }
+        } catch (RuntimeException ex) {
+            load.done.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            synchronized (this) {
+                lessonsLoads.remove(load);
+                for (long week = load.firstWeek; week <= load.lastWeek; week++) {
+                    loadingWeeks.remove(week);
+                }
+                if (!installed) {
+                    index.removeLessonsBetween(startDate, endDate);
+                }
+            }
+            load.done.complete(null);
+        }
+    }
+    
+    private static void await(CompletableFuture<Void> load) {
+        try {
+            load.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : ex;
+        }
+    }
+    
+    private static long weekOf(LocalDate date) {
+        // epoch day 0 is a Thursday, the shift makes weeks start on Monday
+        return Math.floorDiv(date.toEpochDay() + 3, DAYS_IN_WEEK);
+    }
+    
+    private static LocalDate weekStart(long week) {
+        return LocalDate.ofEpochDay(week * DAYS_IN_WEEK - 3);
+    }
+    
+    private static LocalDate max(LocalDate first, LocalDate second) {
+        return first.isAfter(second) ? first : second;
+    }
+    
+    private static LocalDate min(LocalDate first, LocalDate second) {
+        return first.isBefore(second) ? first : second;
+    }
+    
+    private static final class LessonsLoad {
+        private final long firstWeek;
+        private final long lastWeek;
+        private final long generation;
+        private final Set<Integer> changedIds = new HashSet<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        
+        private LessonsLoad(long firstWeek, long lastWeek, long generation) {
+            this.firstWeek = firstWeek;
+            this.lastWeek = lastWeek;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.foxminded.university.controller.schedule;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.ScheduleConflict;
+import com.foxminded.university.model.ScheduleConflict.Type;
+import com.foxminded.university.model.Timeslot;
+
+public class ScheduleIndex {
+    private final Map<Long, List<IndexedLesson>> lessonsBySlot = new HashMap<>();
+    private final Map<Integer, IndexedLesson> lessonsById = new HashMap<>();
+    private final Map<Long, BitSet> classroomsBySlot = new HashMap<>();
+    
+    private final Map<Integer, Integer> teacherByCourse = new HashMap<>();
+    private final Map<Integer, List<Integer>> groupsByCourse = new HashMap<>();
+    private final Map<Integer, Integer> sizeByGroup = new HashMap<>();
+    private final Map<Integer, Integer> capacityByClassroom = new HashMap<>();
+    
+    public void addLesson(int lessonId, LocalDate date, int timeslotId, int courseId, int classroomId) {
+        removeLesson(lessonId);
+        IndexedLesson lesson = new IndexedLesson(lessonId, slotKey(date, timeslotId), courseId, classroomId);
+        lessonsById.put(lessonId, lesson);
+        lessonsBySlot.computeIfAbsent(lesson.slot, slot -> new ArrayList<>(2)).add(lesson);
+        classroomsBySlot.computeIfAbsent(lesson.slot, slot -> new BitSet()).set(classroomId);
+    }
+    
+    public void addLessons(ScheduleIndex loaded, Set<Integer> skippedIds) {
+        for (IndexedLesson lesson : loaded.lessonsById.values()) {
+            if (!skippedIds.contains(lesson.id)) {
+                addLesson(lesson.id, LocalDate.ofEpochDay(lesson.slot >> 32), (int) lesson.slot, 
+                          lesson.courseId, lesson.classroomId);
+            }
+        }
+    }
+    
+    public void removeLesson(int lessonId) {
+        IndexedLesson lesson = lessonsById.remove(lessonId);
+        if (lesson == null) {
+            return;
+        }
+        List<IndexedLesson> slotLessons = lessonsBySlot.get(lesson.slot);
+        slotLessons.remove(lesson);
+        if (slotLessons.isEmpty()) {
+            lessonsBySlot.remove(lesson.slot);
+            classroomsBySlot.remove(lesson.slot);
+            return;
+        }
+        for (IndexedLesson other : slotLessons) {
+            if (other.classroomId == lesson.classroomId) {
+                return;
+            }
+        }
+        classroomsBySlot.get(lesson.slot).clear(lesson.classroomId);
+    }
+    
+    public void removeLessonsBetween(LocalDate startDate, LocalDate endDate) {
+        long first = slotKey(startDate, 0);
+        long last = slotKey(endDate.plusDays(1), 0);
+        List<Integer> removed = new ArrayList<>();
+        for (IndexedLesson lesson : lessonsById.values()) {
+            if (lesson.slot >= first && lesson.slot < last) {
+                removed.add(lesson.id);
+            }
+        }
+        removed.forEach(this::removeLesson);
+    }
+    
+    public void clearLessons() {
+        lessonsBySlot.clear();
+        lessonsById.clear();
+        classroomsBySlot.clear();
+    }
+    
+    public void collectOccupiedClassrooms(LocalDate date, int timeslotId, BitSet occupied) {
+        BitSet classrooms = classroomsBySlot.get(slotKey(date, timeslotId));
+        if (classrooms != null) {
+            occupied.or(classrooms);
+        }
+    }
+    
+    public int getLessonsCount() {
+        return lessonsById.size();
+    }
+    
+    public Lesson findLesson(int lessonId) {
+        IndexedLesson indexed = lessonsById.get(lessonId);
+        if (indexed == null) {
+            return null;
+        }
+        Lesson lesson = new Lesson();
+        lesson.setId(lessonId);
+        lesson.setDate(LocalDate.ofEpochDay(indexed.slot >> 32));
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId((int) indexed.slot);
+        lesson.setTime(timeslot);
+        Course course = new Course();
+        course.setId(indexed.courseId);
+        lesson.setCourse(course);
+        Classroom classroom = new Classroom();
+        classroom.setId(indexed.classroomId);
+        lesson.setClassroom(classroom);
+        return lesson;
+    }
+    
+    public Integer getCourseTeacher(int courseId) {
+        return teacherByCourse.get(courseId);
+    }
+    
+    public List<Integer> getCourseGroups(int courseId) {
+        return groupsByCourse.getOrDefault(courseId, Collections.emptyList());
+    }
+    
+    public void setCourseTeacher(int courseId, int teacherId) {
+        teacherByCourse.put(courseId, teacherId);
+    }
+    
+    public void addCourseGroup(int courseId, int groupId) {
+        groupsByCourse.computeIfAbsent(courseId, id -> new ArrayList<>(2)).add(groupId);
+    }
+    
+    public void setGroupSize(int groupId, int size) {
+        sizeByGroup.put(groupId, size);
+    }
+    
+    public void setClassroomCapacity(int classroomId, int capacity) {
+        capacityByClassroom.put(classroomId, capacity);
+    }
+    
+    public void setReferenceData(ScheduleIndex loaded) {
+        clearReferenceData();
+        teacherByCourse.putAll(loaded.teacherByCourse);
+        groupsByCourse.putAll(loaded.groupsByCourse);
+        sizeByGroup.putAll(loaded.sizeByGroup);
+        capacityByClassroom.putAll(loaded.capacityByClassroom);
+    }
+    
+    public void clearReferenceData() {
+        teacherByCourse.clear();
+        groupsByCourse.clear();
+        sizeByGroup.clear();
+        capacityByClassroom.clear();
+    }
+    
+    public List<ScheduleConflict> findConflicts(Lesson lesson) {
+        int courseId = lesson.getCourse().getId();
+        int classroomId = lesson.getClassroom().getId();
+        Integer teacherId = teacherByCourse.get(courseId);
+        List<Integer> groups = groupsByCourse.getOrDefault(courseId, Collections.emptyList());
+        
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        long slot = slotKey(lesson.getDate(), lesson.getTime().getId());
+        for (IndexedLesson other : lessonsBySlot.getOrDefault(slot, Collections.emptyList())) {
+            if (other.id == lesson.getId()) {
+                continue;
+            }
+            if (other.classroomId == classroomId) {
+                conflicts.add(conflict(Type.CLASSROOM, other.id, "classroom is taken by lesson " + other.id));
+            }
+            if (other.courseId == courseId) {
+                conflicts.add(conflict(Type.COURSE, other.id, "course already has lesson " + other.id + " in this timeslot"));
+                continue;
+            }
+            if (teacherId != null && teacherId.equals(teacherByCourse.get(other.courseId))) {
+                conflicts.add(conflict(Type.TEACHER, other.id, "teacher " + teacherId + " gives lesson " + other.id));
+            }
+            Integer sharedGroup = findSharedGroup(groups, other.courseId);
+            if (sharedGroup != null) {
+                conflicts.add(conflict(Type.GROUP, other.id, "group " + sharedGroup + " attends lesson " + other.id));
+            }
+        }
+        
+        Integer capacity = capacityByClassroom.get(classroomId);
+        int students = 0;
+        for (Integer groupId : groups) {
+            students += sizeByGroup.getOrDefault(groupId, 0);
+        }
+        if (capacity != null && students > capacity) {
+            conflicts.add(conflict(Type.CAPACITY, 0, 
+                    students + " students do not fit into classroom with capacity " + capacity));
+        }
+        return conflicts;
+    }
+    
+    private Integer findSharedGroup(List<Integer> groups, int otherCourseId) {
+        List<Integer> otherGroups = groupsByCourse.get(otherCourseId);
+        if (otherGroups == null) {
+            return null;
+        }
+        for (Integer groupId : groups) {
+            if (otherGroups.contains(groupId)) {
+                return groupId;
+            }
+        }
+        return null;
+    }
+    
+    private ScheduleConflict conflict(Type type, int lessonId, String description) {
+        ScheduleConflict conflict = new ScheduleConflict();
+        conflict.setType(type);
+        conflict.setLessonId(lessonId);
+        conflict.setDescription(description);
+        return conflict;
+    }
+    
+    private static long slotKey(LocalDate date, int timeslotId) {
+        return date.toEpochDay() << 32 | (timeslotId & 0xFFFFFFFFL);
+    }
+    
+    private static class IndexedLesson {
+        private final int id;
+        private final long slot;
+        private final int courseId;
+        private final int classroomId;
+        
+        IndexedLesson(int id, long slot, int courseId, int classroomId) {
+            this.id = id;
+            this.slot = slot;
+            this.courseId = courseId;
+            this.classroomId = classroomId;
+        }
+    }
+}
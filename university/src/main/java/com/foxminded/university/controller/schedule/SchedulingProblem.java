@@ -0,0 +1,74 @@
+package com.foxminded.university.controller.schedule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SchedulingProblem {
+    private final List<Integer> timeslotIds = new ArrayList<>();
+    private final Map<Integer, Integer> capacityByClassroom = new LinkedHashMap<>();
+    private final Map<Integer, Integer> teacherByCourse = new LinkedHashMap<>();
+    private final Map<Integer, List<Integer>> groupsByCourse = new HashMap<>();
+    private final Map<Integer, Integer> sizeByGroup = new HashMap<>();
+    private final List<int[]> fixedLessons = new ArrayList<>();
+    private int weeks = 1;
+
+    public void addTimeslot(int timeslotId) {
+        timeslotIds.add(timeslotId);
+    }
+
+    public void addClassroom(int classroomId, int capacity) {
+        capacityByClassroom.put(classroomId, capacity);
+    }
+
+    public void addCourse(int courseId, int teacherId) {
+        teacherByCourse.put(courseId, teacherId);
+    }
+
+    public void addCourseGroup(int courseId, int groupId) {
+        groupsByCourse.computeIfAbsent(courseId, id -> new ArrayList<>(2)).add(groupId);
+    }
+
+    public void setGroupSize(int groupId, int size) {
+        sizeByGroup.put(groupId, size);
+    }
+
+    public void addFixedLesson(int day, int timeslotId, int courseId, int classroomId, int week) {
+        fixedLessons.add(new int[] {day, timeslotId, courseId, classroomId, week});
+    }
+    
+    public void setWeeks(int weeks) {
+        this.weeks = weeks;
+    }
+
+    public List<Integer> getTimeslotIds() {
+        return timeslotIds;
+    }
+
+    public Map<Integer, Integer> getCapacityByClassroom() {
+        return capacityByClassroom;
+    }
+
+    public Map<Integer, Integer> getTeacherByCourse() {
+        return teacherByCourse;
+    }
+
+    public List<Integer> getCourseGroups(int courseId) {
+        return groupsByCourse.getOrDefault(courseId, Collections.emptyList());
+    }
+
+    public int getGroupSize(int groupId) {
+        return sizeByGroup.getOrDefault(groupId, 0);
+    }
+
+    public List<int[]> getFixedLessons() {
+        return fixedLessons;
+    }
+    
+    public int getWeeks() {
+        return weeks;
+    }
+}
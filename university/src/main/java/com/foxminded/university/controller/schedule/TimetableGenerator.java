@@ -0,0 +1,432 @@
+package com.foxminded.university.controller.schedule;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.controller.repository.ScheduleRepository;
+
+@Component
+public class TimetableGenerator implements DisposableBean {
+    public static final int WORKING_DAYS = 5;
+    private static final int HARD_WEIGHT = 1000;
+    private static final int CANDIDATE_MOVES = 24;
+    private static final double RANDOM_WALK = 0.02;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ScheduleRepository scheduleRepository;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public TimetableGenerator(ScheduleRepository scheduleRepository,
+                              @Value("${timetable.generator.parallelism:0}") int parallelism) {
+        this.scheduleRepository = scheduleRepository;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    public WeeklyPlan generate(LocalDate weekStart, int weeks, int lessonsPerWeek, long timeBudgetMillis) {
+        SchedulingProblem problem = new SchedulingProblem();
+        problem.setWeeks(weeks);
+        scheduleRepository.loadSchedulingProblem(problem, weekStart, weekStart.plusWeeks(weeks).minusDays(1));
+        return solve(problem, lessonsPerWeek, timeBudgetMillis);
+    }
+
+    public WeeklyPlan solve(SchedulingProblem problem, int lessonsPerWeek, long timeBudgetMillis) {
+        long started = System.nanoTime();
+        Model model = new Model(problem, lessonsPerWeek);
+
+        Search best = null;
+        if (model.lessonCourse.length > 0) {
+            long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+            best = pool.invoke(new SearchTask(model, 0, parallelism, deadline, new AtomicBoolean()));
+        }
+
+        WeeklyPlan plan = new WeeklyPlan();
+        plan.setRequiredLessons(model.requiredLessons);
+        int unplaced = model.requiredLessons - model.lessonCourse.length;
+        int objective = 0;
+        if (best != null) {
+            objective = best.commitBest(plan);
+            unplaced += model.lessonCourse.length - plan.getLessons().size();
+            plan.setIterations(best.totalIterations);
+        }
+        plan.setUnplacedLessons(unplaced);
+        plan.setObjective(objective + unplaced * HARD_WEIGHT);
+        plan.setSolveTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Weekly plan solved in {} ms with {} workers: {} of {} lessons placed, objective {}, {} moves",
+                        plan.getSolveTimeMillis(), parallelism, plan.getLessons().size(), plan.getRequiredLessons(),
+                        plan.getObjective(), plan.getIterations());
+        }
+        return plan;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static class Model {
+        private final int[] timeslotIds;
+        private final int[] classroomIds;
+        private final int[] courseIds;
+        private final int[] courseTeacher;
+        private final int[][] courseGroups;
+        private final int[][] suitableRooms;
+        private final int[] lessonCourse;
+        private final int requiredLessons;
+        private final int teachersCount;
+        private final int groupsCount;
+        private final int slots;
+
+        private final int[] teacherBusy;
+        private final int[] groupBusy;
+        private final int[] roomBusy;
+        private final int[] courseBusy;
+        private final int[] courseDay;
+
+        Model(SchedulingProblem problem, int lessonsPerWeek) {
+            timeslotIds = toArray(problem.getTimeslotIds());
+            slots = WORKING_DAYS * timeslotIds.length;
+            Map<Integer, Integer> timeslotIndex = indexOf(timeslotIds);
+
+            classroomIds = toArray(new ArrayList<>(problem.getCapacityByClassroom().keySet()));
+            Map<Integer, Integer> classroomIndex = indexOf(classroomIds);
+
+            courseIds = toArray(new ArrayList<>(problem.getTeacherByCourse().keySet()));
+            Map<Integer, Integer> courseIndex = indexOf(courseIds);
+            Map<Integer, Integer> teacherIndex = new HashMap<>();
+            Map<Integer, Integer> groupIndex = new HashMap<>();
+            courseTeacher = new int[courseIds.length];
+            courseGroups = new int[courseIds.length][];
+            suitableRooms = new int[courseIds.length][];
+            int[] fixedEveryWeek = countFixedEveryWeek(problem, courseIndex);
+
+            List<Integer> lessons = new ArrayList<>();
+            int required = 0;
+            for (int c = 0; c < courseIds.length; c++) {
+                int teacherId = problem.getTeacherByCourse().get(courseIds[c]);
+                courseTeacher[c] = teacherId > 0 ? teacherIndex.computeIfAbsent(teacherId, id -> teacherIndex.size()) : -1;
+
+                List<Integer> groups = problem.getCourseGroups(courseIds[c]);
+                courseGroups[c] = new int[groups.size()];
+                int students = 0;
+                for (int i = 0; i < groups.size(); i++) {
+                    courseGroups[c][i] = groupIndex.computeIfAbsent(groups.get(i), id -> groupIndex.size());
+                    students += problem.getGroupSize(groups.get(i));
+                }
+
+                List<Integer> rooms = new ArrayList<>();
+                for (int r = 0; r < classroomIds.length; r++) {
+                    if (problem.getCapacityByClassroom().get(classroomIds[r]) >= students) {
+                        rooms.add(r);
+                    }
+                }
+                suitableRooms[c] = toArray(rooms);
+
+                if (groups.isEmpty()) {
+                    continue;
+                }
+                int missing = Math.max(0, lessonsPerWeek - fixedEveryWeek[c]);
+                required += missing;
+                if (!rooms.isEmpty() && slots > 0) {
+                    for (int i = 0; i < missing; i++) {
+                        lessons.add(c);
+                    }
+                }
+            }
+            lessonCourse = toArray(lessons);
+            requiredLessons = required;
+            teachersCount = teacherIndex.size();
+            groupsCount = groupIndex.size();
+
+            teacherBusy = new int[teachersCount * slots];
+            groupBusy = new int[groupsCount * slots];
+            roomBusy = new int[classroomIds.length * slots];
+            courseBusy = new int[courseIds.length * slots];
+            courseDay = new int[courseIds.length * WORKING_DAYS];
+            for (int[] fixed : problem.getFixedLessons()) {
+                Integer timeslot = timeslotIndex.get(fixed[1]);
+                if (fixed[0] >= WORKING_DAYS || timeslot == null) {
+                    continue;
+                }
+                int slot = fixed[0] * timeslotIds.length + timeslot;
+                Integer room = classroomIndex.get(fixed[3]);
+                if (room != null) {
+                    roomBusy[room * slots + slot]++;
+                }
+                Integer course = courseIndex.get(fixed[2]);
+                if (course != null) {
+                    courseBusy[course * slots + slot]++;
+                    courseDay[course * WORKING_DAYS + fixed[0]]++;
+                    if (courseTeacher[course] >= 0) {
+                        teacherBusy[courseTeacher[course] * slots + slot]++;
+                    }
+                    for (int group : courseGroups[course]) {
+                        groupBusy[group * slots + slot]++;
+                    }
+                }
+            }
+        }
+
+        // the plan repeats every week, so only lessons fixed in each of the weeks reduce the weekly target
+        private static int[] countFixedEveryWeek(SchedulingProblem problem, Map<Integer, Integer> courseIndex) {
+            int weeks = Math.max(1, problem.getWeeks());
+            int[] fixedByWeek = new int[courseIndex.size() * weeks];
+            for (int[] fixed : problem.getFixedLessons()) {
+                Integer course = courseIndex.get(fixed[2]);
+                if (course != null && fixed[4] >= 0 && fixed[4] < weeks) {
+                    fixedByWeek[course * weeks + fixed[4]]++;
+                }
+            }
+            int[] fixedEveryWeek = new int[courseIndex.size()];
+            for (int course = 0; course < fixedEveryWeek.length; course++) {
+                int min = Integer.MAX_VALUE;
+                for (int week = 0; week < weeks; week++) {
+                    min = Math.min(min, fixedByWeek[course * weeks + week]);
+                }
+                fixedEveryWeek[course] = min;
+            }
+            return fixedEveryWeek;
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            int[] array = new int[values.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = values.get(i);
+            }
+            return array;
+        }
+
+        private static Map<Integer, Integer> indexOf(int[] ids) {
+            Map<Integer, Integer> index = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                index.put(ids[i], i);
+            }
+            return index;
+        }
+    }
+
+    private static class Search {
+        private final Model model;
+        private final SplittableRandom random;
+        private final int[] slot;
+        private final int[] room;
+        private final int[] bestSlot;
+        private final int[] bestRoom;
+        private int[] teacherBusy;
+        private int[] groupBusy;
+        private int[] roomBusy;
+        private int[] courseBusy;
+        private int[] courseDay;
+        private int cost;
+        private int bestCost;
+        private long totalIterations;
+
+        Search(Model model, long seed) {
+            this.model = model;
+            this.random = new SplittableRandom(seed);
+            int lessons = model.lessonCourse.length;
+            slot = new int[lessons];
+            room = new int[lessons];
+            bestSlot = new int[lessons];
+            bestRoom = new int[lessons];
+            resetOccupancy();
+        }
+
+        void run(long deadline, AtomicBoolean solved) {
+            for (int lesson = 0; lesson < slot.length; lesson++) {
+                int best = Integer.MAX_VALUE;
+                for (int i = 0; i < CANDIDATE_MOVES; i++) {
+                    int s = random.nextInt(model.slots);
+                    int r = randomRoom(lesson);
+                    int candidate = costAt(lesson, s, r);
+                    if (candidate < best) {
+                        best = candidate;
+                        slot[lesson] = s;
+                        room[lesson] = r;
+                    }
+                }
+                place(lesson, 1);
+                cost += best;
+            }
+            saveBest();
+
+            while (cost > 0) {
+                if ((totalIterations & 0xFF) == 0 && (System.nanoTime() >= deadline || solved.get())) {
+                    break;
+                }
+                totalIterations++;
+
+                int lesson = random.nextInt(slot.length);
+                place(lesson, -1);
+                int current = costAt(lesson, slot[lesson], room[lesson]);
+                if (current == 0 && random.nextInt(8) != 0) {
+                    place(lesson, 1);
+                    continue;
+                }
+
+                int best = current;
+                int bestS = slot[lesson];
+                int bestR = room[lesson];
+                if (random.nextDouble() < RANDOM_WALK) {
+                    bestS = random.nextInt(model.slots);
+                    bestR = randomRoom(lesson);
+                    best = costAt(lesson, bestS, bestR);
+                } else {
+                    for (int i = 0; i < CANDIDATE_MOVES; i++) {
+                        int s = random.nextInt(model.slots);
+                        int r = randomRoom(lesson);
+                        int candidate = costAt(lesson, s, r);
+                        if (candidate <= best) {
+                            best = candidate;
+                            bestS = s;
+                            bestR = r;
+                        }
+                    }
+                }
+                slot[lesson] = bestS;
+                room[lesson] = bestR;
+                place(lesson, 1);
+                cost += best - current;
+                if (cost < bestCost) {
+                    saveBest();
+                }
+            }
+            if (bestCost == 0) {
+                solved.set(true);
+            }
+        }
+
+        int commitBest(WeeklyPlan plan) {
+            resetOccupancy();
+            int objective = 0;
+            int timeslots = model.timeslotIds.length;
+            for (int lesson = 0; lesson < slot.length; lesson++) {
+                slot[lesson] = bestSlot[lesson];
+                room[lesson] = bestRoom[lesson];
+                if (hardCostAt(lesson, slot[lesson], room[lesson]) > 0) {
+                    continue;
+                }
+                objective += softCostAt(lesson, slot[lesson]);
+                place(lesson, 1);
+                plan.addLesson(slot[lesson] / timeslots, model.timeslotIds[slot[lesson] % timeslots],
+                               model.courseIds[model.lessonCourse[lesson]], model.classroomIds[room[lesson]]);
+            }
+            return objective;
+        }
+
+        private int costAt(int lesson, int s, int r) {
+            return hardCostAt(lesson, s, r) * HARD_WEIGHT + softCostAt(lesson, s);
+        }
+
+        private int hardCostAt(int lesson, int s, int r) {
+            int course = model.lessonCourse[lesson];
+            int slots = model.slots;
+            int conflicts = roomBusy[r * slots + s] + courseBusy[course * slots + s];
+            int teacher = model.courseTeacher[course];
+            if (teacher >= 0) {
+                conflicts += teacherBusy[teacher * slots + s];
+            }
+            for (int group : model.courseGroups[course]) {
+                conflicts += groupBusy[group * slots + s];
+            }
+            return conflicts;
+        }
+
+        private int softCostAt(int lesson, int s) {
+            return courseDay[model.lessonCourse[lesson] * WORKING_DAYS + s / model.timeslotIds.length];
+        }
+
+        private void place(int lesson, int delta) {
+            int course = model.lessonCourse[lesson];
+            int slots = model.slots;
+            int s = slot[lesson];
+            roomBusy[room[lesson] * slots + s] += delta;
+            courseBusy[course * slots + s] += delta;
+            courseDay[course * WORKING_DAYS + s / model.timeslotIds.length] += delta;
+            int teacher = model.courseTeacher[course];
+            if (teacher >= 0) {
+                teacherBusy[teacher * slots + s] += delta;
+            }
+            for (int group : model.courseGroups[course]) {
+                groupBusy[group * slots + s] += delta;
+            }
+        }
+
+        private int randomRoom(int lesson) {
+            int[] rooms = model.suitableRooms[model.lessonCourse[lesson]];
+            return rooms[random.nextInt(rooms.length)];
+        }
+
+        private void saveBest() {
+            bestCost = cost;
+            System.arraycopy(slot, 0, bestSlot, 0, slot.length);
+            System.arraycopy(room, 0, bestRoom, 0, room.length);
+        }
+
+        private void resetOccupancy() {
+            teacherBusy = model.teacherBusy.clone();
+            groupBusy = model.groupBusy.clone();
+            roomBusy = model.roomBusy.clone();
+            courseBusy = model.courseBusy.clone();
+            courseDay = model.courseDay.clone();
+        }
+    }
+
+    private static class SearchTask extends RecursiveTask<Search> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Model model;
+        private final int fromWorker;
+        private final int toWorker;
+        private final long deadline;
+        private final AtomicBoolean solved;
+
+        SearchTask(Model model, int fromWorker, int toWorker, long deadline, AtomicBoolean solved) {
+            this.model = model;
+            this.fromWorker = fromWorker;
+            this.toWorker = toWorker;
+            this.deadline = deadline;
+            this.solved = solved;
+        }
+
+        @Override
+        protected Search compute() {
+            if (toWorker - fromWorker == 1) {
+                Search search = new Search(model, 0x9E3779B97F4A7C15L * (fromWorker + 1));
+                search.run(deadline, solved);
+                return search;
+            }
+            int middle = (fromWorker + toWorker) >>> 1;
+            SearchTask left = new SearchTask(model, fromWorker, middle, deadline, solved);
+            left.fork();
+            Search right = new SearchTask(model, middle, toWorker, deadline, solved).compute();
+            Search best = left.join();
+            long iterations = best.totalIterations + right.totalIterations;
+            if (right.bestCost < best.bestCost) {
+                best = right;
+            }
+            best.totalIterations = iterations;
+            return best;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.foxminded.university.controller.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WeeklyPlan {
+    private final List<PlannedLesson> lessons = new ArrayList<>();
+    private int requiredLessons;
+    private int unplacedLessons;
+    private int objective;
+    private long iterations;
+    private long solveTimeMillis;
+
+    public void addLesson(int day, int timeslotId, int courseId, int classroomId) {
+        lessons.add(new PlannedLesson(day, timeslotId, courseId, classroomId));
+    }
+
+    public List<PlannedLesson> getLessons() {
+        return lessons;
+    }
+
+    public int getRequiredLessons() {
+        return requiredLessons;
+    }
+
+    public void setRequiredLessons(int requiredLessons) {
+        this.requiredLessons = requiredLessons;
+    }
+
+    public int getUnplacedLessons() {
+        return unplacedLessons;
+    }
+
+    public void setUnplacedLessons(int unplacedLessons) {
+        this.unplacedLessons = unplacedLessons;
+    }
+
+    public int getObjective() {
+        return objective;
+    }
+
+    public void setObjective(int objective) {
+        this.objective = objective;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(long iterations) {
+        this.iterations = iterations;
+    }
+
+    public long getSolveTimeMillis() {
+        return solveTimeMillis;
+    }
+
+    public void setSolveTimeMillis(long solveTimeMillis) {
+        this.solveTimeMillis = solveTimeMillis;
+    }
+
+    public static class PlannedLesson {
+        private final int day;
+        private final int timeslotId;
+        private final int courseId;
+        private final int classroomId;
+
+        PlannedLesson(int day, int timeslotId, int courseId, int classroomId) {
+            this.day = day;
+            this.timeslotId = timeslotId;
+            this.courseId = courseId;
+            this.classroomId = classroomId;
+        }
+
+        public int getDay() {
+            return day;
+        }
+
+        public int getTimeslotId() {
+            return timeslotId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public int getClassroomId() {
+            return classroomId;
+        }
+    }
+}
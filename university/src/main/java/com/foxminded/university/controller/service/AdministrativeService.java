@@ -1,6 +1,10 @@
 package com.foxminded.university.controller.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +17,7 @@ import com.foxminded.university.controller.repository.FacultyRepository;
 import com.foxminded.university.controller.repository.GroupRepository;
 import com.foxminded.university.controller.repository.StudentRepository;
 import com.foxminded.university.controller.repository.TeacherRepository;
+import com.foxminded.university.model.AdministrativeOverview;
 import com.foxminded.university.model.Classroom;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Faculty;
@@ -30,16 +35,19 @@ public class AdministrativeService {
     private final TeacherRepository teacherRepository;
     private final ClassroomRepository classroomRepository;
     private final CourseRepository courseRepository;
+    private final QueryFanOut queryFanOut;
     
     @Autowired
     public AdministrativeService(FacultyRepository facultyRepository, GroupRepository groupRepository, StudentRepository studentRepository,
-            TeacherRepository teacherRepository, ClassroomRepository classroomRepository, CourseRepository courseRepository) {
+            TeacherRepository teacherRepository, ClassroomRepository classroomRepository, CourseRepository courseRepository,
+            QueryFanOut queryFanOut) {
         this.facultyRepository = facultyRepository;
         this.groupRepository = groupRepository;
         this.studentRepository = studentRepository;
         this.teacherRepository = teacherRepository;
         this.classroomRepository = classroomRepository;
         this.courseRepository = courseRepository;
+        this.queryFanOut = queryFanOut;
     }
     
     public void createFaculty(String shortName, String fullName) {
@@ -159,15 +167,15 @@ public class AdministrativeService {
     }
     
     public List<Faculty> getAllFaculties() {
-        if (logger.isInfoEnabled()) {
-            logger.info("Get all faculties");
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get all faculties");
         }
         return facultyRepository.getAll();
     }
     
     public List<Group> getGroupsByFaculty(int facultyId) {
-        if (logger.isInfoEnabled()) {
-            logger.info("Get groups by faculty ({})", facultyId);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get groups by faculty ({})", facultyId);
         }
         Faculty faculty = new Faculty();
         faculty.setId(facultyId);
@@ -175,8 +183,8 @@ public class AdministrativeService {
     }
     
     public List<Teacher> getTeachersByFaculty(int facultyId) {
-        if (logger.isInfoEnabled()) {
-            logger.info("Get teachers by faculty ({})", facultyId);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get teachers by faculty ({})", facultyId);
         }
         Faculty faculty = new Faculty();
         faculty.setId(facultyId);
@@ -184,11 +192,37 @@ public class AdministrativeService {
     }
     
     public List<Course> getCourses(int teacherId) {
-        if (logger.isInfoEnabled()) {
-            logger.info("Get courses by teacher ({})", teacherId);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get courses by teacher ({})", teacherId);
         }
         Teacher teacher = new Teacher();
         teacher.setId(teacherId);
         return courseRepository.getByTeacher(teacher);
     }
+    
+    public AdministrativeOverview getOverview() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get administrative overview");
+        }
+        QueryFanOut.Batch batch = queryFanOut.begin();
+        CompletableFuture<List<Group>> groups = batch.fork(groupRepository::getAll);
+        CompletableFuture<List<Teacher>> teachers = batch.fork(teacherRepository::getAll);
+        List<Faculty> faculties = facultyRepository.getAll();
+        
+        Map<Integer, List<Group>> groupsByFaculty = new HashMap<>();
+        for (Group group : batch.join(groups)) {
+            groupsByFaculty.computeIfAbsent(group.getFaculty().getId(), id -> new ArrayList<>()).add(group);
+        }
+        
+        Map<Integer, List<Teacher>> teachersByFaculty = new HashMap<>();
+        for (Teacher teacher : batch.join(teachers)) {
+            teachersByFaculty.computeIfAbsent(teacher.getFaculty().getId(), id -> new ArrayList<>()).add(teacher);
+        }
+        
+        AdministrativeOverview overview = new AdministrativeOverview();
+        overview.setFaculties(faculties);
+        overview.setGroupsByFaculty(groupsByFaculty);
+        overview.setTeachersByFaculty(teachersByFaculty);
+        return overview;
+    }
 }
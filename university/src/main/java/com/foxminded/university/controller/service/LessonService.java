@@ -1,8 +1,19 @@
 package com.foxminded.university.controller.service;
 
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,28 +24,55 @@ import com.foxminded.university.controller.repository.ClassroomRepository;
 import com.foxminded.university.controller.repository.CourseRepository;
 import com.foxminded.university.controller.repository.LessonRepository;
 import com.foxminded.university.controller.repository.TimeslotRepository;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
+import com.foxminded.university.controller.schedule.TimetableGenerator;
+import com.foxminded.university.controller.schedule.WeeklyPlan;
+import com.foxminded.university.controller.schedule.WeeklyPlan.PlannedLesson;
 import com.foxminded.university.model.Classroom;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonFormOptions;
+import com.foxminded.university.model.LessonSeriesResult;
+import com.foxminded.university.model.ScheduleConflict;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimetableGenerationResult;
 
 @Service
 public class LessonService {
+    private static final int MAX_GENERATION_SECONDS = 300;
+    private static final int MAX_GENERATION_WEEKS = 52;
+    private static final int MAX_FREE_CLASSROOMS_DAYS = 366;
+    private static final int MAX_SERIES_DAYS = 366;
+    private static final int SLOT_LOCK_STRIPES = 64;
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final ClassroomRepository classroomRepository;
     private final LessonRepository lessonRepository;
     private final TimeslotRepository timeslotRepository;
     private final CourseRepository courseRepository;
+    private final ScheduleConflictEngine scheduleConflictEngine;
+    private final TimetableGenerator timetableGenerator;
+    private final QueryFanOut queryFanOut;
+    private final ReentrantLock generationLock = new ReentrantLock();
+    private final ReentrantLock[] slotLocks = new ReentrantLock[SLOT_LOCK_STRIPES];
     
     @Autowired
     public LessonService(ClassroomRepository classroomRepository, LessonRepository lessonRepository,
-            TimeslotRepository timeslotRepository, CourseRepository courseRepository) {
+            TimeslotRepository timeslotRepository, CourseRepository courseRepository,
+            ScheduleConflictEngine scheduleConflictEngine, TimetableGenerator timetableGenerator,
+            QueryFanOut queryFanOut) {
         this.classroomRepository = classroomRepository;
         this.lessonRepository = lessonRepository;
         this.timeslotRepository = timeslotRepository;
         this.courseRepository = courseRepository;
+        this.scheduleConflictEngine = scheduleConflictEngine;
+        this.timetableGenerator = timetableGenerator;
+        this.queryFanOut = queryFanOut;
+        for (int i = 0; i < slotLocks.length; i++) {
+            slotLocks[i] = new ReentrantLock();
+        }
     }
       
     public List<Classroom> getAllClassrooms() {
@@ -44,6 +82,24 @@ public class LessonService {
         return classroomRepository.getAll();
     }
     
+    public LessonFormOptions getLessonFormOptions() {
+        LessonFormOptions options = new LessonFormOptions();
+        options.setTimeslots(getAllTimeslots());
+        options.setClassrooms(getAllClassrooms());
+        return options;
+    }
+    
+    public LessonFormOptions getLessonFormOptions(int teacherId) {
+        // classrooms and timeslots come from the reference data cache, only the courses lookup hits the database
+        QueryFanOut.Batch batch = queryFanOut.begin();
+        CompletableFuture<List<Course>> courses = batch.fork(() -> getCoursesByTeacher(teacherId));
+        LessonFormOptions options = new LessonFormOptions();
+        options.setClassrooms(getAllClassrooms());
+        options.setTimeslots(getAllTimeslots());
+        options.setCourses(batch.join(courses));
+        return options;
+    }
+    
     public Classroom getClassroomById(int id) {
         return classroomRepository.getById(id);
     }
@@ -69,6 +125,26 @@ public class LessonService {
         return timeslotRepository.getAll();
     }
     
+    public List<Classroom> findFreeClassrooms(String startDate, String endDate, int timeslotId, int minCapacity) {
+        try {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = endDate == null || endDate.isEmpty() ? start : LocalDate.parse(endDate);
+            if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_FREE_CLASSROOMS_DAYS) {
+                return Collections.emptyList();
+            }
+            BitSet occupied = scheduleConflictEngine.getOccupiedClassrooms(start, end, timeslotId);
+            return classroomRepository.getAll().stream()
+                                      .filter(classroom -> !occupied.get(classroom.getId()))
+                                      .filter(classroom -> classroom.getCapacity() >= minCapacity)
+                                      .collect(Collectors.toList());
+        } catch (DateTimeParseException ex) {
+            if (logger.isErrorEnabled()) {
+                logger.error("Error while searching free classrooms", ex);
+            }
+            return Collections.emptyList();
+        }
+    }
+    
     public Timeslot getTimeslotById(int id) {
         return timeslotRepository.getById(id);
     }
@@ -94,7 +170,7 @@ public class LessonService {
         return courseRepository.getByTeacher(teacher);
     }
     
-    public void createLesson(String date, int timeslotId, int classroomId, int courseId) {
+    public List<ScheduleConflict> createLesson(String date, int timeslotId, int classroomId, int courseId) {
         try {
             if (logger.isInfoEnabled()) {
                 logger.info("Try to create lesson ({}, {}, {}, {})", date, timeslotId, classroomId, courseId);
@@ -116,7 +192,20 @@ public class LessonService {
             lesson.setClassroom(classroom);
             lesson.setCourse(course);
             
-            lessonRepository.add(lesson);
+            List<ReentrantLock> locks = lockSlots(Collections.singletonList(lesson));
+            try {
+                List<ScheduleConflict> conflicts = scheduleConflictEngine.findConflicts(lesson);
+                if (!conflicts.isEmpty()) {
+                    if (logger.isWarnEnabled()) {
+                        logger.warn("Lesson is not created because of conflicts {}", conflicts);
+                    }
+                    return conflicts;
+                }
+                
+                lessonRepository.add(lesson);
+            } finally {
+                unlock(locks);
+            }
             if (logger.isInfoEnabled()) {
                 logger.info("Lesson created");
             }
@@ -125,14 +214,189 @@ public class LessonService {
                 logger.error("Error while creating new lesson", ex);
             }
         }  
+        return Collections.emptyList();
+    }
+    
+    public LessonSeriesResult createLessonSeries(String startDate, String endDate, int weekday,
+                                                 int timeslotId, int classroomId, int courseId) {
+        LessonSeriesResult result = new LessonSeriesResult();
+        result.setCreatedDates(new ArrayList<>());
+        result.setConflictingDates(new ArrayList<>());
+        try {
+            if (logger.isInfoEnabled()) {
+                logger.info("Try to create lesson series ({}, {}, {}, {}, {}, {})", 
+                            startDate, endDate, weekday, timeslotId, classroomId, courseId);
+            }
+            LocalDate end = LocalDate.parse(endDate);
+            LocalDate start = LocalDate.parse(startDate);
+            if (ChronoUnit.DAYS.between(start, end) >= MAX_SERIES_DAYS) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Lesson series from {} to {} is longer than {} days", start, end, MAX_SERIES_DAYS);
+                }
+                return result;
+            }
+            LocalDate date = start.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(weekday)));
+            
+            Timeslot timeslot = new Timeslot();
+            timeslot.setId(timeslotId);
+            
+            Classroom classroom = new Classroom();
+            classroom.setId(classroomId);
+            
+            Course course = new Course();
+            course.setId(courseId);
+            
+            List<Lesson> candidates = new ArrayList<>();
+            for (; !date.isAfter(end); date = date.plusWeeks(1)) {
+                Lesson lesson = new Lesson();
+                lesson.setDate(date);
+                lesson.setTime(timeslot);
+                lesson.setClassroom(classroom);
+                lesson.setCourse(course);
+                candidates.add(lesson);
+            }
+            
+            List<Lesson> lessons = new ArrayList<>();
+            List<Lesson> conflicts;
+            List<ReentrantLock> locks = lockSlots(candidates);
+            try {
+                for (Lesson lesson : candidates) {
+                    if (scheduleConflictEngine.findConflicts(lesson).isEmpty()) {
+                        lessons.add(lesson);
+                    } else {
+                        result.getConflictingDates().add(lesson.getDate());
+                    }
+                }
+                if (lessons.isEmpty()) {
+                    return result;
+                }
+                conflicts = lessonRepository.addAll(lessons);
+            } finally {
+                unlock(locks);
+            }
+            for (Lesson lesson : lessons) {
+                if (conflicts.contains(lesson)) {
+                    result.getConflictingDates().add(lesson.getDate());
+                } else {
+                    result.getCreatedDates().add(lesson.getDate());
+                }
+            }
+            Collections.sort(result.getConflictingDates());
+            if (logger.isInfoEnabled()) {
+                logger.info("Lesson series created ({} lessons, {} conflicts)", 
+                            result.getCreatedDates().size(), result.getConflictingDates().size());
+            }
+        } catch (DateTimeException ex) {
+            if (logger.isErrorEnabled()) {
+                logger.error("Error while creating lesson series", ex);
+            }
+        }
+        return result;
+    }
+    
+    public TimetableGenerationResult generateTimetable(String startDate, int weeks, int lessonsPerWeek, 
+                                                       int timeBudgetSeconds) {
+        TimetableGenerationResult result = new TimetableGenerationResult();
+        if (weeks < 1 || lessonsPerWeek < 1) {
+            return result;
+        }
+        if (!generationLock.tryLock()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Timetable generation ({}, {} weeks) is rejected, another one is running", startDate, weeks);
+            }
+            result.setBusy(true);
+            return result;
+        }
+        try {
+            weeks = Math.min(weeks, MAX_GENERATION_WEEKS);
+            if (logger.isInfoEnabled()) {
+                logger.info("Try to generate timetable ({}, {} weeks, {} lessons per week, {} s)", 
+                            startDate, weeks, lessonsPerWeek, timeBudgetSeconds);
+            }
+            LocalDate weekStart = LocalDate.parse(startDate).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+            long timeBudget = TimeUnit.SECONDS.toMillis(Math.max(1, Math.min(timeBudgetSeconds, MAX_GENERATION_SECONDS)));
+            WeeklyPlan plan = timetableGenerator.generate(weekStart, weeks, lessonsPerWeek, timeBudget);
+            
+            List<Lesson> candidates = new ArrayList<>();
+            for (int week = 0; week < weeks; week++) {
+                for (PlannedLesson planned : plan.getLessons()) {
+                    Timeslot timeslot = new Timeslot();
+                    timeslot.setId(planned.getTimeslotId());
+                    
+                    Classroom classroom = new Classroom();
+                    classroom.setId(planned.getClassroomId());
+                    
+                    Course course = new Course();
+                    course.setId(planned.getCourseId());
+                    
+                    Lesson lesson = new Lesson();
+                    lesson.setDate(weekStart.plusWeeks(week).plusDays(planned.getDay()));
+                    lesson.setTime(timeslot);
+                    lesson.setClassroom(classroom);
+                    lesson.setCourse(course);
+                    candidates.add(lesson);
+                }
+            }
+            
+            List<Lesson> lessons = new ArrayList<>();
+            int rejected = 0;
+            List<Lesson> conflicts;
+            List<ReentrantLock> locks = lockSlots(candidates);
+            try {
+                for (Lesson lesson : candidates) {
+                    if (scheduleConflictEngine.findConflicts(lesson).isEmpty()) {
+                        lessons.add(lesson);
+                    } else {
+                        rejected++;
+                    }
+                }
+                conflicts = lessons.isEmpty() ? Collections.emptyList() : lessonRepository.addAll(lessons);
+            } finally {
+                unlock(locks);
+            }
+            
+            result.setWeeks(weeks);
+            result.setRequiredLessons(plan.getRequiredLessons());
+            result.setPlacedLessons(plan.getLessons().size());
+            result.setUnplacedLessons(plan.getUnplacedLessons());
+            result.setCreatedLessons(lessons.size() - conflicts.size());
+            result.setRejectedLessons(rejected + conflicts.size());
+            result.setObjective(plan.getObjective());
+            result.setIterations(plan.getIterations());
+            result.setSolveTimeMillis(plan.getSolveTimeMillis());
+            if (logger.isInfoEnabled()) {
+                logger.info("Timetable generated ({} lessons created, {} rejected)", 
+                            result.getCreatedLessons(), result.getRejectedLessons());
+            }
+        } catch (DateTimeException ex) {
+            if (logger.isErrorEnabled()) {
+                logger.error("Error while generating timetable", ex);
+            }
+        } finally {
+            generationLock.unlock();
+        }
+        return result;
     }
     
     public Lesson getLessonById(int id) {
         return lessonRepository.getById(id);
     }
     
-    public void updateLesson(Lesson lesson) {
-        lessonRepository.update(lesson);
+    public List<ScheduleConflict> updateLesson(Lesson lesson) {
+        List<ReentrantLock> locks = lockSlots(Collections.singletonList(lesson));
+        try {
+            List<ScheduleConflict> conflicts = scheduleConflictEngine.findConflicts(lesson);
+            if (!conflicts.isEmpty()) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Lesson with id = {} is not updated because of conflicts {}", lesson.getId(), conflicts);
+                }
+                return conflicts;
+            }
+            lessonRepository.update(lesson);
+            return conflicts;
+        } finally {
+            unlock(locks);
+        }
     }
     
     public void deleteLesson(int id) {
@@ -140,4 +404,25 @@ public class LessonService {
         lesson.setId(id);
         lessonRepository.delete(lesson);
     }
+    
+    // conflicts are only possible within one date and timeslot, so the check and the write of a slot 
+    // are serialized by its stripe; stripes are taken in index order to avoid deadlocks between batches
+    private List<ReentrantLock> lockSlots(List<Lesson> lessons) {
+        int[] stripes = lessons.stream()
+                               .mapToInt(lesson -> Math.floorMod(31 * Long.hashCode(lesson.getDate().toEpochDay()) 
+                                                                 + lesson.getTime().getId(), SLOT_LOCK_STRIPES))
+                               .distinct()
+                               .sorted()
+                               .toArray();
+        List<ReentrantLock> locks = new ArrayList<>(stripes.length);
+        for (int stripe : stripes) {
+            slotLocks[stripe].lock();
+            locks.add(slotLocks[stripe]);
+        }
+        return locks;
+    }
+    
+    private static void unlock(List<ReentrantLock> locks) {
+        locks.forEach(ReentrantLock::unlock);
+    }
 }
@@ -0,0 +1,135 @@
+package com.foxminded.university.controller.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
+import com.foxminded.university.controller.metrics.QueryDeadline;
+
+@Component
+public class QueryFanOut implements DisposableBean {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    private final ConnectionMetrics connectionMetrics;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    
+    private final LongAdder forks = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    
+    @Autowired
+    public QueryFanOut(ConnectionMetrics connectionMetrics,
+                       @Value("${query.fanout.poolSize:8}") int poolSize,
+                       @Value("${query.fanout.timeoutMillis:5000}") long timeoutMillis) {
+        this.connectionMetrics = connectionMetrics;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, 
+                                               new ArrayBlockingQueue<>(poolSize * 4), newThreadFactory(), 
+                                               new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    public Batch begin() {
+        return new Batch(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+    
+    public long getForks() {
+        return forks.sum();
+    }
+    
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+    
+    private static ThreadFactory newThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "query-fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    public class Batch {
+        private final long deadline;
+        private final List<CompletableFuture<?>> futures = new ArrayList<>();
+        private final LongAdder holdTime = new LongAdder();
+        
+        private Batch(long deadline) {
+            this.deadline = deadline;
+        }
+        
+        public <T> CompletableFuture<T> fork(Supplier<T> query) {
+            forks.increment();
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+                long callerHoldTime = connectionMetrics.takeRequestHoldTime();
+                // cancelling the future does not stop a running statement, the query timeout does
+                Long previousDeadline = QueryDeadline.enter(deadline);
+                try {
+                    return query.get();
+                } finally {
+                    QueryDeadline.exit(previousDeadline);
+                    holdTime.add(connectionMetrics.takeRequestHoldTime());
+                    connectionMetrics.addRequestHoldTime(callerHoldTime);
+                }
+            }, executor);
+            futures.add(future);
+            return future;
+        }
+        
+        public <T> T join(CompletableFuture<T> future) {
+            try {
+                return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                timeouts.increment();
+                cancel();
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Lookups did not finish within {} ms", timeoutMillis);
+                }
+                throw new QueryTimeoutException("Lookups did not finish within " + timeoutMillis + " ms", ex);
+            } catch (ExecutionException ex) {
+                cancel();
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new IllegalStateException("Interrupted while waiting for lookups", ex);
+            } finally {
+                connectionMetrics.addRequestHoldTime(holdTime.sumThenReset());
+            }
+        }
+        
+        private void cancel() {
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+}
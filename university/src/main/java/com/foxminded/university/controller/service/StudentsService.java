@@ -1,20 +1,29 @@
 package com.foxminded.university.controller.service;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 import com.foxminded.university.controller.repository.GroupRepository;
 import com.foxminded.university.controller.repository.StudentRepository;
+import com.foxminded.university.controller.util.CsvReader;
 import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Student;
+import com.foxminded.university.model.StudentImportResult;
 
 @Service
 public class StudentsService {
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_REJECTIONS = 500;
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final GroupRepository groupRepository;
@@ -48,12 +57,8 @@ public class StudentsService {
     }
     
     public List<Group> getAllGroups() {
-        List<Group> output = new ArrayList<>();
-        output = groupRepository.getAll();
-        for (int i = 0; i < output.size(); i++) {
-            output.set(i, groupRepository.getById(output.get(i).getId()));
-        }
-        return output;
+        if (logger.isInfoEnabled()) {logger.info("Get all groups with students");}
+        return groupRepository.getAllWithDetails();
     }
     
     public void addStudent(String firstName, String lastName, int groupId) {
@@ -66,6 +71,83 @@ public class StudentsService {
         studentRepository.add(student);
     }
     
+    public StudentImportResult importStudents(Reader input) throws IOException {
+        if (logger.isInfoEnabled()) {
+            logger.info("Import students from CSV");
+        }
+        StudentImportResult result = new StudentImportResult();
+        result.setRejectedRows(new ArrayList<>());
+        Map<String, Integer> groupIds = groupRepository.getIdsByName();
+        
+        CsvReader reader = new CsvReader(input);
+        List<Student> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            int lineNumber = reader.getLineNumber();
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            if (lineNumber == 1 && "first_name".equalsIgnoreCase(record.get(0))) {
+                continue;
+            }
+            
+            String rejection = null;
+            Integer groupId = null;
+            if (record.size() != 3) {
+                rejection = "expected 3 fields but found " + record.size();
+            } else if (record.get(0).isEmpty() || record.get(1).isEmpty()) {
+                rejection = "first and last name are required";
+            } else if ((groupId = groupIds.get(record.get(2))) == null) {
+                rejection = "unknown group '" + record.get(2) + "'";
+            }
+            if (rejection != null) {
+                reject(result, 1, "line " + lineNumber + ": " + rejection);
+                continue;
+            }
+            
+            Group group = new Group();
+            group.setId(groupId);
+            Student student = new Student();
+            student.setFirstName(record.get(0));
+            student.setLastName(record.get(1));
+            student.setGroup(group);
+            chunk.add(student);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                flushImportChunk(chunk, lineNumber, result);
+            }
+        }
+        flushImportChunk(chunk, reader.getLineNumber(), result);
+        
+        if (logger.isInfoEnabled()) {
+            logger.info("Students imported ({} rows, {} rejected)", result.getImportedCount(), result.getRejectedCount());
+        }
+        return result;
+    }
+    
+    private void flushImportChunk(List<Student> chunk, int lastLineNumber, StudentImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            studentRepository.addAll(chunk);
+            result.setImportedCount(result.getImportedCount() + chunk.size());
+        } catch (DataAccessException ex) {
+            if (logger.isErrorEnabled()) {
+                logger.error("Error while importing students", ex);
+            }
+            reject(result, chunk.size(), 
+                   chunk.size() + " rows up to line " + lastLineNumber + ": " + ex.getMostSpecificCause().getMessage());
+        }
+        chunk.clear();
+    }
+    
+    private void reject(StudentImportResult result, int rows, String reason) {
+        result.setRejectedCount(result.getRejectedCount() + rows);
+        if (result.getRejectedRows().size() < MAX_REPORTED_REJECTIONS) {
+            result.getRejectedRows().add(reason);
+        }
+    }
+    
     public void deleteStudent(int id) {
         Student student = new Student();
         student.setId(id);
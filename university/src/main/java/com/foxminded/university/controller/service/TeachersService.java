@@ -81,15 +81,15 @@ public class TeachersService {
     }
     
     public List<Teacher> getAll() {
-        List<Teacher> teachers = teacherRepository.getAll();
-        teachers.forEach(t -> t.setCourses(courseRepository.getByTeacher(t)));
-        return teachers;
+        return teacherRepository.getAllWithCourses();
+    }
+    
+    public List<Teacher> getTeachersList() {
+        return teacherRepository.getAll();
     }
     
     public List<Group> getAllGroups() {
-        List<Group> allGroups = groupRepository.getAll();
-        allGroups.forEach(group -> group.setCourses(courseRepository.getByGroup(group)));
-        return allGroups;
+        return groupRepository.getAllWithCourses();
     }
     
     public void deleteGroupsCourse(int groupId, int courseId) {
@@ -1,52 +1,186 @@
 package com.foxminded.university.controller.service;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.cache.TimetableCache.Owner;
+import com.foxminded.university.controller.repository.StudentRepository;
 import com.foxminded.university.controller.repository.TimetableRepository;
 import com.foxminded.university.controller.util.DateIntervalGenerator;
+import com.foxminded.university.controller.util.TimetableFormatter;
 import com.foxminded.university.model.DateInterval;
-import com.foxminded.university.model.Student;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.Lesson;
 import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.Timeslot;
 import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
 
 @Service
 public class TimetableService {
+    private static final int FEED_MONTHS = 6;
+    private static final int STREAMING_THRESHOLD_DAYS = 31;
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final TimetableRepository timetableRepository;
+    private final StudentRepository studentRepository;
     private final DateIntervalGenerator dateIntervalGenerator;
+    private final TimetableCache timetableCache;
+    private final TimetableFormatter timetableFormatter;
+    private final ScheduleVersion scheduleVersion;
     
     @Autowired
-    public TimetableService(TimetableRepository timetableRepository, DateIntervalGenerator dateIntervalGenerator) {
+    public TimetableService(TimetableRepository timetableRepository, StudentRepository studentRepository,
+                            DateIntervalGenerator dateIntervalGenerator, TimetableCache timetableCache,
+                            TimetableFormatter timetableFormatter, ScheduleVersion scheduleVersion) {
         this.timetableRepository = timetableRepository;
+        this.studentRepository = studentRepository;
         this.dateIntervalGenerator = dateIntervalGenerator;
+        this.timetableCache = timetableCache;
+        this.timetableFormatter = timetableFormatter;
+        this.scheduleVersion = scheduleVersion;
     }
     
     public Timetable getTeacherTimetable(String startDate, String endDate, int teacherId) {
         if (logger.isInfoEnabled()) {
             logger.info("Get timetable for teacher ({}, {}, {})", startDate, endDate, teacherId);
         }
-        Teacher teacher = new Teacher();
-        teacher.setId(teacherId);
-        
+        return getTeacherTimetable(teacherId, generateDateInterval(startDate, endDate));
+    }
+    
+    public TimetableGrid getTeacherTimetableGrid(String startDate, String endDate, int teacherId, 
+                                                 List<Timeslot> timeslots) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Get timetable grid for teacher ({}, {}, {})", startDate, endDate, teacherId);
+        }
         DateInterval dateInterval = generateDateInterval(startDate, endDate);
         
-        return timetableRepository.getByTeacher(teacher, dateInterval);
+        if (isLongRange(dateInterval)) {
+            Teacher teacher = new Teacher();
+            teacher.setId(teacherId);
+            return timetableFormatter.generateFormattedTable(dateInterval, timeslots, 
+                    consumer -> timetableRepository.streamByTeacher(teacher, dateInterval, consumer));
+        }
+        return timetableFormatter.generateFormattedTable(getTeacherTimetable(teacherId, dateInterval), timeslots);
+    }
+    
+    private Timetable getTeacherTimetable(int teacherId, DateInterval dateInterval) {
+        Teacher teacher = new Teacher();
+        teacher.setId(teacherId);
+        return timetableCache.get(Owner.TEACHER, teacherId, dateInterval, 
+                                  () -> timetableRepository.getByTeacher(teacher, dateInterval));
     }
 
     public Timetable getStudentTimetable(String startDate, String endDate, int studentId) {
         if (logger.isInfoEnabled()) {
             logger.info("Get timetable for student ({}, {}, {})", startDate, endDate, studentId);
         }
-        Student student = new Student();
-        student.setId(studentId);
+        DateInterval dateInterval = generateDateInterval(startDate, endDate);
         
+        Integer groupId = studentRepository.getGroupId(studentId);
+        if (groupId == null) {
+            Timetable timetable = new Timetable();
+            timetable.setDateInterval(dateInterval);
+            timetable.setLessons(new ArrayList<>());
+            return timetable;
+        }
+        return getGroupTimetable(groupId, dateInterval);
+    }
+    
+    public TimetableGrid getStudentTimetableGrid(String startDate, String endDate, int studentId, 
+                                                 List<Timeslot> timeslots) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Get timetable grid for student ({}, {}, {})", startDate, endDate, studentId);
+        }
         DateInterval dateInterval = generateDateInterval(startDate, endDate);
         
-        return timetableRepository.getByStudent(student, dateInterval);
+        Integer groupId = studentRepository.getGroupId(studentId);
+        if (groupId == null) {
+            return timetableFormatter.generateFormattedTable(dateInterval, timeslots, consumer -> { });
+        }
+        if (isLongRange(dateInterval)) {
+            Group group = new Group();
+            group.setId(groupId);
+            return timetableFormatter.generateFormattedTable(dateInterval, timeslots, 
+                    consumer -> timetableRepository.streamByGroup(group, dateInterval, consumer));
+        }
+        return timetableFormatter.generateFormattedTable(getGroupTimetable(groupId, dateInterval), timeslots);
+    }
+    
+    private Timetable getGroupTimetable(int groupId, DateInterval dateInterval) {
+        Group group = new Group();
+        group.setId(groupId);
+        return timetableCache.get(Owner.GROUP, groupId, dateInterval, 
+                                  () -> timetableRepository.getByGroup(group, dateInterval));
+    }
+    
+    public void streamTeacherTimetable(String startDate, String endDate, int teacherId, Consumer<Lesson> consumer) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Stream timetable for teacher ({}, {}, {})", startDate, endDate, teacherId);
+        }
+        Teacher teacher = new Teacher();
+        teacher.setId(teacherId);
+        timetableRepository.streamByTeacher(teacher, generateFeedInterval(startDate, endDate), consumer);
+    }
+    
+    public void streamStudentTimetable(String startDate, String endDate, int studentId, Consumer<Lesson> consumer) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Stream timetable for student ({}, {}, {})", startDate, endDate, studentId);
+        }
+        Integer groupId = studentRepository.getGroupId(studentId);
+        if (groupId == null) {
+            return;
+        }
+        Group group = new Group();
+        group.setId(groupId);
+        timetableRepository.streamByGroup(group, generateFeedInterval(startDate, endDate), consumer);
+    }
+    
+    public String getTeacherTimetableETag(String startDate, String endDate, int teacherId) {
+        return scheduleVersion.getETag("teacher", teacherId, generateDateInterval(startDate, endDate));
+    }
+    
+    public String getStudentTimetableETag(String startDate, String endDate, int studentId) {
+        return scheduleVersion.getETag("student", studentId, generateDateInterval(startDate, endDate));
+    }
+    
+    public String getTeacherFeedETag(String startDate, String endDate, int teacherId) {
+        return scheduleVersion.getETag("teacher-feed", teacherId, generateFeedInterval(startDate, endDate));
+    }
+    
+    public String getStudentFeedETag(String startDate, String endDate, int studentId) {
+        return scheduleVersion.getETag("student-feed", studentId, generateFeedInterval(startDate, endDate));
+    }
+    
+    public long getScheduleLastModified() {
+        return scheduleVersion.getLastModified();
+    }
+    
+    private boolean isLongRange(DateInterval dateInterval) {
+        return ChronoUnit.DAYS.between(dateInterval.getStartDate(), dateInterval.getEndDate()) 
+                >= STREAMING_THRESHOLD_DAYS;
+    }
+    
+    private DateInterval generateFeedInterval(String startDate, String endDate) {
+        DateInterval dateInterval = null;
+        if (startDate != null && endDate != null) {
+            dateInterval = dateIntervalGenerator.getFromString(startDate, endDate);
+        }
+        if (dateInterval == null) {
+            dateInterval = dateIntervalGenerator.getMonthsByDate(LocalDate.now(), FEED_MONTHS);
+        }
+        return dateInterval;
     }
     
     private DateInterval generateDateInterval(String startDate, String endDate) {
@@ -0,0 +1,54 @@
+package com.foxminded.university.controller.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvReader {
+    private final BufferedReader reader;
+    private int lineNumber;
+    
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+    
+    public List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char symbol = line.charAt(i);
+            if (quoted) {
+                if (symbol == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (symbol == '"') {
+                    quoted = false;
+                } else {
+                    field.append(symbol);
+                }
+            } else if (symbol == '"') {
+                quoted = true;
+            } else if (symbol == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(symbol);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+    
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
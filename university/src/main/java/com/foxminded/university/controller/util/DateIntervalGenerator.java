@@ -20,6 +20,12 @@ public class DateIntervalGenerator {
         return new DateInterval(startDate, endDate);
     }
     
+    public DateInterval getMonthsByDate(LocalDate date, int months) {
+        LocalDate startDate = getFirstDayOfMonth(date);
+        LocalDate endDate = startDate.plusMonths(months).minusDays(1);
+        return new DateInterval(startDate, endDate);
+    }
+    
     public DateInterval getWeekByDate(LocalDate date) {
         LocalDate startDate = getFirstDayOfWeek(date);
         LocalDate endDate = startDate.plusDays(NUM_DAYS_TO_END_OF_WEEK);
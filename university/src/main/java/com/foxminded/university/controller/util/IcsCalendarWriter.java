@@ -0,0 +1,156 @@
+package com.foxminded.university.controller.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+
+public class IcsCalendarWriter {
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final Pattern TIMESLOT_PATTERN = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*-\\s*(\\d{1,2}):(\\d{2})");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final LocalTime[] ALL_DAY = new LocalTime[0];
+    
+    private final Writer writer;
+    private final String calendarName;
+    private final ZoneId zone;
+    private final String timestamp;
+    private final Map<Integer, LocalTime[]> timeslotTimes = new HashMap<>();
+    private int eventsCount;
+    
+    public IcsCalendarWriter(Writer writer, String calendarName, ZoneId zone) {
+        this.writer = writer;
+        this.calendarName = calendarName;
+        this.zone = zone;
+        this.timestamp = LocalDateTime.now(ZoneOffset.UTC).format(DATE_TIME) + "Z";
+    }
+    
+    public void begin() {
+        writeLine("BEGIN:VCALENDAR");
+        writeLine("VERSION:2.0");
+        writeLine("PRODID:-//foxminded//university//EN");
+        writeLine("CALSCALE:GREGORIAN");
+        writeLine("X-WR-CALNAME:" + escape(calendarName));
+        writeLine("X-WR-TIMEZONE:" + zone.getId());
+    }
+    
+    public void writeLesson(Lesson lesson) {
+        writeLine("BEGIN:VEVENT");
+        writeLine("UID:lesson-" + lesson.getId() + "@university");
+        writeLine("DTSTAMP:" + timestamp);
+        
+        LocalDate date = lesson.getDate();
+        LocalTime[] times = getTimes(lesson.getTime());
+        if (times == ALL_DAY) {
+            writeLine("DTSTART;VALUE=DATE:" + date.format(DATE));
+            writeLine("DTEND;VALUE=DATE:" + date.plusDays(1).format(DATE));
+        } else {
+            writeLine("DTSTART:" + toUtc(date.atTime(times[0])));
+            writeLine("DTEND:" + toUtc(date.atTime(times[1])));
+        }
+        
+        writeLine("SUMMARY:" + escape(lesson.getCourse().getName()));
+        writeLine("LOCATION:" + escape(lesson.getClassroom().getNumber()));
+        writeLine("DESCRIPTION:" + escape(lesson.getTime().getDescription()));
+        writeLine("END:VEVENT");
+        eventsCount++;
+    }
+    
+    public void end() {
+        writeLine("END:VCALENDAR");
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    public int getEventsCount() {
+        return eventsCount;
+    }
+    
+    private String toUtc(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).format(DATE_TIME) + "Z";
+    }
+    
+    private LocalTime[] getTimes(Timeslot timeslot) {
+        return timeslotTimes.computeIfAbsent(timeslot.getId(), id -> parseTimes(timeslot.getDescription()));
+    }
+    
+    private LocalTime[] parseTimes(String description) {
+        if (description == null) {
+            return ALL_DAY;
+        }
+        Matcher matcher = TIMESLOT_PATTERN.matcher(description);
+        if (!matcher.find()) {
+            return ALL_DAY;
+        }
+        try {
+            LocalTime start = LocalTime.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            LocalTime end = LocalTime.of(Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)));
+            return end.isAfter(start) ? new LocalTime[] {start, end} : ALL_DAY;
+        } catch (DateTimeException ex) {
+            return ALL_DAY;
+        }
+    }
+    
+    private String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\")
+                    .replace(";", "\\;")
+                    .replace(",", "\\,")
+                    .replace("\r\n", "\\n")
+                    .replace("\n", "\\n");
+    }
+    
+    private void writeLine(String line) {
+        try {
+            int start = 0;
+            int octets = 0;
+            for (int i = 0; i < line.length();) {
+                int codePoint = line.codePointAt(i);
+                int length = utf8Length(codePoint);
+                if (octets + length > MAX_LINE_OCTETS) {
+                    writer.write(line, start, i - start);
+                    writer.write(CRLF);
+                    writer.write(' ');
+                    start = i;
+                    octets = 1;
+                }
+                octets += length;
+                i += Character.charCount(codePoint);
+            }
+            writer.write(line, start, line.length() - start);
+            writer.write(CRLF);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
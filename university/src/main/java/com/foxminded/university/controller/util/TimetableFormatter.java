@@ -1,53 +1,90 @@
 package com.foxminded.university.controller.util;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import com.foxminded.university.model.DateInterval;
 import com.foxminded.university.model.Lesson;
 import com.foxminded.university.model.Timeslot;
 import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
 
 @Component
-public class TimetableFormatter {   
-    public Map<LocalDate, Lesson[]> generateFormattedTable(Timetable timeTable, List<Timeslot> timeslots) {        
-        List<LocalDate> dates = generateDatesList(timeTable.getDateInterval());
-        Map<LocalDate, Lesson[]> output = new LinkedHashMap<>();
-        for(LocalDate date : dates) {
-            output.put(date, new Lesson[timeslots.size()]);
-        }
-        
-        for(Lesson lesson : timeTable.getLessons()) {
-            Lesson[] lessonsOfDay = output.get(lesson.getDate());
-            lessonsOfDay[findTimeslotIndex(timeslots, lesson.getTime())] = lesson;
-        }
-        
-        return output;
+public class TimetableFormatter {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    public TimetableGrid generateFormattedTable(Timetable timeTable, List<Timeslot> timeslots) {
+        return generateFormattedTable(timeTable.getDateInterval(), timeslots, timeTable.getLessons()::forEach);
     }
     
-    private List<LocalDate> generateDatesList(DateInterval dateInterval) {
-        List<LocalDate> output = new ArrayList<>();
-        LocalDate currentDate = dateInterval.getStartDate(); 
-        while(currentDate.isAfter(dateInterval.getEndDate()) == false) {
-            output.add(currentDate);
-            currentDate = currentDate.plusDays(1);
+    public TimetableGrid generateFormattedTable(DateInterval dateInterval, List<Timeslot> timeslots, 
+                                                Consumer<Consumer<Lesson>> lessons) {
+        LocalDate startDate = dateInterval.getStartDate();
+        ColumnIndex columns = new ColumnIndex(timeslots);
+        
+        TimetableGrid grid = new TimetableGrid(dateInterval, timeslots.size());
+        int days = grid.getDays();
+        lessons.accept(lesson -> {
+            long dayOffset = ChronoUnit.DAYS.between(startDate, lesson.getDate());
+            int column = columns.get(lesson.getTime().getId());
+            
+            if (dayOffset < 0 || dayOffset >= days || column < 0) {
+                grid.addUnplaced(lesson);
+            } else {
+                grid.place((int) dayOffset, column, lesson);
+            }
+        });
+        
+        if (logger.isWarnEnabled() && !grid.getUnplacedLessons().isEmpty()) {
+            logger.warn("{} lessons have unknown timeslot or date outside ({}, {})", 
+                        grid.getUnplacedLessons().size(), startDate, dateInterval.getEndDate());
+        }
+        if (logger.isWarnEnabled() && !grid.getConflictingLessons().isEmpty()) {
+            logger.warn("{} lessons collide with another lesson in the same cell", 
+                        grid.getConflictingLessons().size());
         }
-        return output;
+        return grid;
     }
     
-    private int findTimeslotIndex(List<Timeslot> timeslots, Timeslot timeslot) {
-        int index = -1;
-        for (int i = 0 ; i < timeslots.size(); i++) {
-            if (timeslots.get(i).getId() == timeslot.getId()) {
-                index = i;
-                break;
+    // timeslot ids are database keys, so they are looked up in a sorted array rather than used as offsets
+    private static class ColumnIndex {
+        private final int[] ids;
+        private final int[] columns;
+        
+        ColumnIndex(List<Timeslot> timeslots) {
+            Integer[] order = new Integer[timeslots.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
             }
+            // the sort is stable, so a duplicated id keeps its first column
+            Arrays.sort(order, Comparator.comparingInt(i -> timeslots.get(i).getId()));
+            
+            int[] sortedIds = new int[order.length];
+            int[] sortedColumns = new int[order.length];
+            int size = 0;
+            for (Integer column : order) {
+                int id = timeslots.get(column).getId();
+                if (size == 0 || sortedIds[size - 1] != id) {
+                    sortedIds[size] = id;
+                    sortedColumns[size] = column;
+                    size++;
+                }
+            }
+            this.ids = Arrays.copyOf(sortedIds, size);
+            this.columns = Arrays.copyOf(sortedColumns, size);
+        }
+        
+        int get(int timeslotId) {
+            int position = Arrays.binarySearch(ids, timeslotId);
+            return position < 0 ? -1 : columns[position];
         }
-        return index;
     }
 }
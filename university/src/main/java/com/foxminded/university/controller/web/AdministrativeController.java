@@ -1,6 +1,7 @@
 package com.foxminded.university.controller.web;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import com.foxminded.university.controller.service.AdministrativeService;
+import com.foxminded.university.model.AdministrativeOverview;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Teacher;
@@ -32,13 +34,16 @@ public class AdministrativeController {
         model.addAttribute("teacher", new Teacher());
         model.addAttribute("group", new Group());
         
-        List<Faculty> faculties = administrativeService.getAllFaculties();
+        AdministrativeOverview overview = administrativeService.getOverview();
+        List<Faculty> faculties = overview.getFaculties();
         
         List<Group> groups = new ArrayList<>();
-        faculties.forEach(f -> groups.addAll(administrativeService.getGroupsByFaculty(f.getId())));
+        faculties.forEach(f -> groups.addAll(overview.getGroupsByFaculty()
+                                                     .getOrDefault(f.getId(), Collections.emptyList())));
 
         List<Teacher> teachers = new ArrayList<>();
-        faculties.forEach(f -> teachers.addAll(administrativeService.getTeachersByFaculty(f.getId())));
+        faculties.forEach(f -> teachers.addAll(overview.getTeachersByFaculty()
+                                                       .getOrDefault(f.getId(), Collections.emptyList())));
         
         model.addAttribute("faculties", faculties);
         model.addAttribute("groups", groups);
@@ -1,7 +1,5 @@
 package com.foxminded.university.controller.web;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import com.foxminded.university.controller.service.LessonService;
 import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.LessonFormOptions;
 import com.foxminded.university.model.Timeslot;
 
 @Controller
@@ -26,11 +25,10 @@ public class LessonController {
     
     @RequestMapping("/lesson")
     public String lessonsInfo(Model model) {
-        List<Classroom> classrooms = lessonService.getAllClassrooms();
-        List<Timeslot> timeslots = lessonService.getAllTimeslots();
+        LessonFormOptions options = lessonService.getLessonFormOptions();
         
-        model.addAttribute("classrooms", classrooms);
-        model.addAttribute("timeslots", timeslots);
+        model.addAttribute("classrooms", options.getClassrooms());
+        model.addAttribute("timeslots", options.getTimeslots());
         model.addAttribute("classroom", new Classroom());
         model.addAttribute("timeslot", new Timeslot());
         return "lesson";
@@ -70,6 +68,19 @@ public class LessonController {
         return "redirect:/lesson";
     }
     
+    @GetMapping("/lesson/freeclassrooms")
+    public String findFreeClassrooms(@RequestParam(required = false) String date,
+                                     @RequestParam(required = false) String end,
+                                     @RequestParam(defaultValue = "0") int timeslot,
+                                     @RequestParam(defaultValue = "0") int capacity,
+                                     Model model) {
+        model.addAttribute("timeslots", lessonService.getAllTimeslots());
+        if (date != null) {
+            model.addAttribute("classrooms", lessonService.findFreeClassrooms(date, end, timeslot, capacity));
+        }
+        return "lesson/freeclassrooms";
+    }
+    
     @PostMapping("/addtimeslot")
     public String addTimeslot(@ModelAttribute Timeslot timeslot, Model model) {
         lessonService.addTimeslot(timeslot);
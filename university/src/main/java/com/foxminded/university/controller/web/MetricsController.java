@@ -0,0 +1,57 @@
+package com.foxminded.university.controller.web;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import com.foxminded.university.controller.async.TimetableRequestExecutor;
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
+import com.foxminded.university.controller.metrics.HttpMetrics;
+import com.foxminded.university.controller.metrics.QueryMetrics;
+import com.foxminded.university.controller.metrics.SlowQueryLog;
+
+@Controller
+public class MetricsController {
+    private QueryMetrics queryMetrics;
+    private ConnectionMetrics connectionMetrics;
+    private HttpMetrics httpMetrics;
+    private SlowQueryLog slowQueryLog;
+    private TimetableRequestExecutor timetableRequestExecutor;
+    
+    @Autowired
+    public MetricsController(QueryMetrics queryMetrics, ConnectionMetrics connectionMetrics, 
+                             HttpMetrics httpMetrics, SlowQueryLog slowQueryLog, 
+                             TimetableRequestExecutor timetableRequestExecutor) {
+        this.queryMetrics = queryMetrics;
+        this.connectionMetrics = connectionMetrics;
+        this.httpMetrics = httpMetrics;
+        this.slowQueryLog = slowQueryLog;
+        this.timetableRequestExecutor = timetableRequestExecutor;
+    }
+    
+    @GetMapping("/admin/metrics")
+    public void getMetrics(HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "no-store");
+        PrintWriter writer = response.getWriter();
+        httpMetrics.writePrometheus(writer);
+        queryMetrics.writePrometheus(writer);
+        connectionMetrics.writePrometheus(writer);
+        timetableRequestExecutor.writePrometheus(writer);
+        writer.flush();
+    }
+    
+    @GetMapping("/admin/slowqueries")
+    public String getSlowQueries(Model model) {
+        model.addAttribute("slowQueries", slowQueryLog.getRecent());
+        return "admin/slowqueries";
+    }
+}
@@ -1,5 +1,9 @@
 package com.foxminded.university.controller.web;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.foxminded.university.controller.service.StudentsService;
 import com.foxminded.university.model.Group;
@@ -52,6 +57,14 @@ public class StudentsController {
         return "redirect:/student";
     }
     
+    @PostMapping("/student/import")
+    public String importStudents(@RequestParam("file") MultipartFile file, Model model) throws IOException {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            model.addAttribute("result", studentsService.importStudents(reader));
+        }
+        return "student/import";
+    }
+    
     @GetMapping("/deletestudent")
     public String deleteStudent(@RequestParam String id, Model model) {
         try {
@@ -58,7 +58,7 @@ public class TeachersController {
     public String getCourse(@RequestParam String id, Model model) {
         try {
             int courseId = Integer.parseInt(id);
-            model.addAttribute("teachers", teachersService.getAll());
+            model.addAttribute("teachers", teachersService.getTeachersList());
             model.addAttribute("course", teachersService.getCourse(courseId));
         } catch (NumberFormatException ex) {
             //log error
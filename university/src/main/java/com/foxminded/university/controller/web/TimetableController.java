@@ -1,63 +1,153 @@
 package com.foxminded.university.controller.web;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
+import com.foxminded.university.controller.async.TimetableRequestExecutor;
 import com.foxminded.university.controller.service.LessonService;
 import com.foxminded.university.controller.service.TimetableService;
-import com.foxminded.university.controller.util.TimetableFormatter;
+import com.foxminded.university.controller.util.IcsCalendarWriter;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonFormOptions;
+import com.foxminded.university.model.ScheduleConflict;
 import com.foxminded.university.model.Timeslot;
-import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
 
 @Controller
 public class TimetableController {
+    private static final String PAGE_CACHE_CONTROL = "private, no-cache";
+    private static final String FEED_CACHE_CONTROL = "private, max-age=300";
+    // the calendar is already written, empty headers only mark the async result as handled
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders());
+    
     private TimetableService timetableService;
     private LessonService lessonService;
-    private TimetableFormatter timetableFormatter;
+    private TimetableRequestExecutor requestExecutor;
+    private ZoneId timeZone;
     
     @Autowired
-    public TimetableController(TimetableService timetableService, LessonService lessonService,
-                               TimetableFormatter timetableFormatter) {
+    public TimetableController(TimetableService timetableService, LessonService lessonService, 
+                               TimetableRequestExecutor requestExecutor,
+                               @Value("${timetable.time-zone:}") String timeZone) {
         this.timetableService = timetableService;
         this.lessonService = lessonService;
-        this.timetableFormatter = timetableFormatter;
+        this.requestExecutor = requestExecutor;
+        // timeslot descriptions hold wall-clock times of the university, calendars get them in UTC
+        this.timeZone = timeZone.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(timeZone);
     }
     
     @RequestMapping("/timetable")
-    public String timetableInfo(Model model) {
+    public DeferredResult<String> timetableInfo(ServletWebRequest webRequest, Model model) {
         int studentId = 1;
-        Timetable timetable = timetableService.getStudentTimetable("2020-06-15", "2020-06-21", studentId);
-        model.addAttribute("studentId", studentId);
-        model.addAttribute("timetable", timetable);
-
-        List<Timeslot> timeslots = lessonService.getAllTimeslots();
-        model.addAttribute("timeslots", timeslots);
-        model.addAttribute("timemap", timetableFormatter.generateFormattedTable(timetable, timeslots));
-        return "timetable";
+        if (isNotModified(webRequest, PAGE_CACHE_CONTROL, 
+                          timetableService.getStudentTimetableETag("2020-06-15", "2020-06-21", studentId))) {
+            return null;
+        }
+        return requestExecutor.submit(() -> {
+            List<Timeslot> timeslots = lessonService.getAllTimeslots();
+            TimetableGrid timemap = timetableService.getStudentTimetableGrid("2020-06-15", "2020-06-21", 
+                                                                             studentId, timeslots);
+            model.addAttribute("studentId", studentId);
+            model.addAttribute("dateInterval", timemap.getDateInterval());
+            model.addAttribute("timeslots", timeslots);
+            model.addAttribute("timemap", timemap);
+            return "timetable";
+        });
     }
     
     @GetMapping("/teacherstimetable")
-    public String getTimetableByTeacher(Model model) {
+    public DeferredResult<String> getTimetableByTeacher(ServletWebRequest webRequest, Model model) {
         int teacherId = 1;
-        model.addAttribute("teacherId", teacherId);
-        
-        Timetable timetable = timetableService.getTeacherTimetable("2020-06-15", "2020-06-21", teacherId);
-        List<Timeslot> timeslots = lessonService.getAllTimeslots();
-        model.addAttribute("dateInterval", timetable.getDateInterval());
-        model.addAttribute("timeslots", timeslots);
-        model.addAttribute("timemap", timetableFormatter.generateFormattedTable(timetable, timeslots));
-        
-        return "teacherstimetable";
+        if (isNotModified(webRequest, PAGE_CACHE_CONTROL, 
+                          timetableService.getTeacherTimetableETag("2020-06-15", "2020-06-21", teacherId))) {
+            return null;
+        }
+        return requestExecutor.submit(() -> {
+            model.addAttribute("teacherId", teacherId);
+            
+            List<Timeslot> timeslots = lessonService.getAllTimeslots();
+            TimetableGrid timemap = timetableService.getTeacherTimetableGrid("2020-06-15", "2020-06-21", 
+                                                                             teacherId, timeslots);
+            model.addAttribute("dateInterval", timemap.getDateInterval());
+            model.addAttribute("timeslots", timeslots);
+            model.addAttribute("timemap", timemap);
+            
+            return "teacherstimetable";
+        });
+    }
+    
+    @GetMapping("/timetable.ics")
+    public DeferredResult<HttpHeaders> exportStudentTimetable(@RequestParam(defaultValue = "1") int id,
+                                                       @RequestParam(required = false) String start,
+                                                       @RequestParam(required = false) String end,
+                                                       ServletWebRequest webRequest,
+                                                       HttpServletResponse response) {
+        if (isNotModified(webRequest, FEED_CACHE_CONTROL, timetableService.getStudentFeedETag(start, end, id))) {
+            return null;
+        }
+        return requestExecutor.submitStreaming(() -> {
+            IcsCalendarWriter calendar = startCalendar(response, "student-" + id);
+            timetableService.streamStudentTimetable(start, end, id, calendar::writeLesson);
+            calendar.end();
+            return NO_HEADERS;
+        });
+    }
+    
+    @GetMapping("/teacherstimetable.ics")
+    public DeferredResult<HttpHeaders> exportTeacherTimetable(@RequestParam(defaultValue = "1") int id,
+                                                       @RequestParam(required = false) String start,
+                                                       @RequestParam(required = false) String end,
+                                                       ServletWebRequest webRequest,
+                                                       HttpServletResponse response) {
+        if (isNotModified(webRequest, FEED_CACHE_CONTROL, timetableService.getTeacherFeedETag(start, end, id))) {
+            return null;
+        }
+        return requestExecutor.submitStreaming(() -> {
+            IcsCalendarWriter calendar = startCalendar(response, "teacher-" + id);
+            timetableService.streamTeacherTimetable(start, end, id, calendar::writeLesson);
+            calendar.end();
+            return NO_HEADERS;
+        });
+    }
+    
+    private boolean isNotModified(ServletWebRequest webRequest, String cacheControl, String etag) {
+        webRequest.getResponse().setHeader("Cache-Control", cacheControl);
+        if (!CollectionUtils.isEmpty(RequestContextUtils.getInputFlashMap(webRequest.getRequest()))) {
+            return false;
+        }
+        return webRequest.checkNotModified(etag, timetableService.getScheduleLastModified());
+    }
+    
+    private IcsCalendarWriter startCalendar(HttpServletResponse response, String name) throws IOException {
+        response.setContentType("text/calendar");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "inline; filename=\"" + name + ".ics\"");
+        IcsCalendarWriter calendar = new IcsCalendarWriter(response.getWriter(), "University timetable " + name, 
+                                                       timeZone);
+        calendar.begin();
+        return calendar;
     }
     
     @GetMapping("/timetable/addlesson")
@@ -70,9 +160,10 @@ public class TimetableController {
             lesson.setDate(LocalDate.parse(date));
             model.addAttribute("lesson", lesson);
             model.addAttribute("timeslotId", timeslot);
-            model.addAttribute("classrooms", lessonService.getAllClassrooms());
-            model.addAttribute("timeslots", lessonService.getAllTimeslots());
-            model.addAttribute("courses", lessonService.getCoursesByTeacher(tid));
+            LessonFormOptions options = lessonService.getLessonFormOptions(tid);
+            model.addAttribute("classrooms", options.getClassrooms());
+            model.addAttribute("timeslots", options.getTimeslots());
+            model.addAttribute("courses", options.getCourses());
         } catch (Exception ex) {
             //log error
         }
@@ -80,24 +171,71 @@ public class TimetableController {
     }
     
     @PostMapping("/timetable/addlesson")
-    public String saveNewLesson(@ModelAttribute Lesson lesson, Model model) {
-        lessonService.createLesson(lesson.getDate().toString(), lesson.getTime().getId(), 
-                                   lesson.getClassroom().getId(), lesson.getCourse().getId());
+    public String saveNewLesson(@ModelAttribute Lesson lesson, Model model, RedirectAttributes redirectAttributes) {
+        List<ScheduleConflict> conflicts = lessonService.createLesson(lesson.getDate().toString(), 
+                lesson.getTime().getId(), lesson.getClassroom().getId(), lesson.getCourse().getId());
+        redirectAttributes.addFlashAttribute("conflicts", conflicts);
         return "redirect:/teacherstimetable";
     }
     
+    @GetMapping("/timetable/addseries")
+    public String createNewLessonSeries(@RequestParam int tid, Model model) {
+        addSeriesFormAttributes(tid, model);
+        return "timetable/addseries";
+    }
+    
+    @PostMapping("/timetable/addseries")
+    public String saveNewLessonSeries(@RequestParam int tid,
+                                      @RequestParam String start,
+                                      @RequestParam String end,
+                                      @RequestParam int weekday,
+                                      @RequestParam int timeslot,
+                                      @RequestParam int classroom,
+                                      @RequestParam int course,
+                                      Model model) {
+        model.addAttribute("result", 
+                lessonService.createLessonSeries(start, end, weekday, timeslot, classroom, course));
+        addSeriesFormAttributes(tid, model);
+        return "timetable/addseries";
+    }
+    
+    private void addSeriesFormAttributes(int teacherId, Model model) {
+        model.addAttribute("teacherId", teacherId);
+        model.addAttribute("weekdays", DayOfWeek.values());
+        LessonFormOptions options = lessonService.getLessonFormOptions(teacherId);
+        model.addAttribute("classrooms", options.getClassrooms());
+        model.addAttribute("timeslots", options.getTimeslots());
+        model.addAttribute("courses", options.getCourses());
+    }
+    
+    @GetMapping("/timetable/generate")
+    public String createTimetable() {
+        return "timetable/generate";
+    }
+    
+    @PostMapping("/timetable/generate")
+    public String generateTimetable(@RequestParam String start,
+                                    @RequestParam int weeks,
+                                    @RequestParam int lessons,
+                                    @RequestParam int budget,
+                                    Model model) {
+        model.addAttribute("result", lessonService.generateTimetable(start, weeks, lessons, budget));
+        return "timetable/generate";
+    }
+    
     @GetMapping("/timetable/editlesson")
     public String getLessonInfo(@RequestParam int id, @RequestParam int tid, Model model) {
         model.addAttribute("lesson", lessonService.getLessonById(id));
-        model.addAttribute("classrooms", lessonService.getAllClassrooms());
-        model.addAttribute("timeslots", lessonService.getAllTimeslots());
-        model.addAttribute("courses", lessonService.getCoursesByTeacher(tid));
+        LessonFormOptions options = lessonService.getLessonFormOptions(tid);
+        model.addAttribute("classrooms", options.getClassrooms());
+        model.addAttribute("timeslots", options.getTimeslots());
+        model.addAttribute("courses", options.getCourses());
         return "timetable/editlesson";
     }
     
     @PostMapping("/timetable/editlesson")
-    public String updateLesson(@ModelAttribute Lesson lesson, Model model) {
-        lessonService.updateLesson(lesson);
+    public String updateLesson(@ModelAttribute Lesson lesson, Model model, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addFlashAttribute("conflicts", lessonService.updateLesson(lesson));
         return "redirect:/teacherstimetable";
     }
     
@@ -0,0 +1,34 @@
+package com.foxminded.university.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class AdministrativeOverview {
+    private List<Faculty> faculties;
+    private Map<Integer, List<Group>> groupsByFaculty;
+    private Map<Integer, List<Teacher>> teachersByFaculty;
+
+    public List<Faculty> getFaculties() {
+        return faculties;
+    }
+
+    public void setFaculties(List<Faculty> faculties) {
+        this.faculties = faculties;
+    }
+
+    public Map<Integer, List<Group>> getGroupsByFaculty() {
+        return groupsByFaculty;
+    }
+
+    public void setGroupsByFaculty(Map<Integer, List<Group>> groupsByFaculty) {
+        this.groupsByFaculty = groupsByFaculty;
+    }
+
+    public Map<Integer, List<Teacher>> getTeachersByFaculty() {
+        return teachersByFaculty;
+    }
+
+    public void setTeachersByFaculty(Map<Integer, List<Teacher>> teachersByFaculty) {
+        this.teachersByFaculty = teachersByFaculty;
+    }
+}
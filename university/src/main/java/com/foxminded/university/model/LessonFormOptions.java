@@ -0,0 +1,34 @@
+package com.foxminded.university.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public class LessonFormOptions {
+    private List<Classroom> classrooms = Collections.emptyList();
+    private List<Timeslot> timeslots = Collections.emptyList();
+    private List<Course> courses = Collections.emptyList();
+
+    public List<Classroom> getClassrooms() {
+        return classrooms;
+    }
+
+    public void setClassrooms(List<Classroom> classrooms) {
+        this.classrooms = classrooms;
+    }
+
+    public List<Timeslot> getTimeslots() {
+        return timeslots;
+    }
+
+    public void setTimeslots(List<Timeslot> timeslots) {
+        this.timeslots = timeslots;
+    }
+
+    public List<Course> getCourses() {
+        return courses;
+    }
+
+    public void setCourses(List<Course> courses) {
+        this.courses = courses;
+    }
+}
@@ -0,0 +1,25 @@
+package com.foxminded.university.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class LessonSeriesResult {
+    private List<LocalDate> createdDates;
+    private List<LocalDate> conflictingDates;
+
+    public List<LocalDate> getCreatedDates() {
+        return createdDates;
+    }
+
+    public void setCreatedDates(List<LocalDate> createdDates) {
+        this.createdDates = createdDates;
+    }
+
+    public List<LocalDate> getConflictingDates() {
+        return conflictingDates;
+    }
+
+    public void setConflictingDates(List<LocalDate> conflictingDates) {
+        this.conflictingDates = conflictingDates;
+    }
+}
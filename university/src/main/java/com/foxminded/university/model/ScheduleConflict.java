@@ -0,0 +1,39 @@
+package com.foxminded.university.model;
+
+public class ScheduleConflict {
+    private Type type;
+    private int lessonId;
+    private String description;
+    
+    public enum Type {
+        CLASSROOM, COURSE, TEACHER, GROUP, CAPACITY
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public int getLessonId() {
+        return lessonId;
+    }
+
+    public void setLessonId(int lessonId) {
+        this.lessonId = lessonId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String toString() {
+        return type + ": " + description;
+    }
+}
@@ -0,0 +1,73 @@
+package com.foxminded.university.model;
+
+import java.time.LocalDateTime;
+
+public class SlowQuery {
+    private LocalDateTime recordedAt;
+    private String statement;
+    private double durationMillis;
+    private String sql;
+    private String parameters;
+    private String caller;
+    private volatile String plan;
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public void setStatement(String statement) {
+        this.statement = statement;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(double durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public void setCaller(String caller) {
+        this.caller = caller;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public void setPlan(String plan) {
+        this.plan = plan;
+    }
+    
+    public String toString() {
+        return statement + " took " + durationMillis + " ms";
+    }
+}
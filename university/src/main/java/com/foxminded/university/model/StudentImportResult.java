@@ -0,0 +1,33 @@
+package com.foxminded.university.model;
+
+import java.util.List;
+
+public class StudentImportResult {
+    private int importedCount;
+    private int rejectedCount;
+    private List<String> rejectedRows;
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public void setImportedCount(int importedCount) {
+        this.importedCount = importedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(int rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public List<String> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(List<String> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+}
@@ -0,0 +1,94 @@
+package com.foxminded.university.model;
+
+public class TimetableGenerationResult {
+    private int weeks;
+    private int requiredLessons;
+    private int placedLessons;
+    private int unplacedLessons;
+    private int createdLessons;
+    private int rejectedLessons;
+    private int objective;
+    private long iterations;
+    private long solveTimeMillis;
+    private boolean busy;
+
+    public int getWeeks() {
+        return weeks;
+    }
+
+    public void setWeeks(int weeks) {
+        this.weeks = weeks;
+    }
+
+    public int getRequiredLessons() {
+        return requiredLessons;
+    }
+
+    public void setRequiredLessons(int requiredLessons) {
+        this.requiredLessons = requiredLessons;
+    }
+
+    public int getPlacedLessons() {
+        return placedLessons;
+    }
+
+    public void setPlacedLessons(int placedLessons) {
+        this.placedLessons = placedLessons;
+    }
+
+    public int getUnplacedLessons() {
+        return unplacedLessons;
+    }
+
+    public void setUnplacedLessons(int unplacedLessons) {
+        this.unplacedLessons = unplacedLessons;
+    }
+
+    public int getCreatedLessons() {
+        return createdLessons;
+    }
+
+    public void setCreatedLessons(int createdLessons) {
+        this.createdLessons = createdLessons;
+    }
+
+    public int getRejectedLessons() {
+        return rejectedLessons;
+    }
+
+    public void setRejectedLessons(int rejectedLessons) {
+        this.rejectedLessons = rejectedLessons;
+    }
+
+    public int getObjective() {
+        return objective;
+    }
+
+    public void setObjective(int objective) {
+        this.objective = objective;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(long iterations) {
+        this.iterations = iterations;
+    }
+
+    public long getSolveTimeMillis() {
+        return solveTimeMillis;
+    }
+
+    public void setSolveTimeMillis(long solveTimeMillis) {
+        this.solveTimeMillis = solveTimeMillis;
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    public void setBusy(boolean busy) {
+        this.busy = busy;
+    }
+}
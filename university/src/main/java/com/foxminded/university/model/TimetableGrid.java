@@ -0,0 +1,86 @@
+package com.foxminded.university.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TimetableGrid {
+    private final DateInterval dateInterval;
+    private final Lesson[][] cells;
+    private final List<Row> rows;
+    private final List<Lesson> unplacedLessons = new ArrayList<>();
+    private final List<Lesson> conflictingLessons = new ArrayList<>();
+    
+    public TimetableGrid(DateInterval dateInterval, int timeslots) {
+        long days = ChronoUnit.DAYS.between(dateInterval.getStartDate(), dateInterval.getEndDate()) + 1;
+        this.dateInterval = dateInterval;
+        this.cells = new Lesson[(int) Math.max(0, days)][timeslots];
+        // rows share the cell arrays, so they see lessons placed after construction
+        List<Row> dayRows = new ArrayList<>(cells.length);
+        for (int dayOffset = 0; dayOffset < cells.length; dayOffset++) {
+            dayRows.add(new Row(dateInterval.getStartDate().plusDays(dayOffset), cells[dayOffset]));
+        }
+        this.rows = Collections.unmodifiableList(dayRows);
+    }
+    
+    public DateInterval getDateInterval() {
+        return dateInterval;
+    }
+    
+    public LocalDate getStartDate() {
+        return dateInterval.getStartDate();
+    }
+    
+    public int getDays() {
+        return cells.length;
+    }
+    
+    public Lesson getLesson(int dayOffset, int column) {
+        return cells[dayOffset][column];
+    }
+    
+    public boolean place(int dayOffset, int column, Lesson lesson) {
+        if (cells[dayOffset][column] != null) {
+            conflictingLessons.add(lesson);
+            return false;
+        }
+        cells[dayOffset][column] = lesson;
+        return true;
+    }
+    
+    public void addUnplaced(Lesson lesson) {
+        unplacedLessons.add(lesson);
+    }
+    
+    public List<Lesson> getUnplacedLessons() {
+        return unplacedLessons;
+    }
+
+    public List<Lesson> getConflictingLessons() {
+        return conflictingLessons;
+    }
+    
+    public List<Row> getRows() {
+        return rows;
+    }
+    
+    public static class Row {
+        private final LocalDate date;
+        private final Lesson[] lessons;
+        
+        public Row(LocalDate date, Lesson[] lessons) {
+            this.date = date;
+            this.lessons = lessons;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public Lesson[] getLessons() {
+            return lessons;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.foxminded.university.build;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StaticResourceCompressorTest {
+    @TempDir
+    Path tempDirectory;
+    
+    @Test
+    void compressDirectoryShouldWriteGzipVariantsOfCompressibleFilesTest() throws Exception {
+        Path source = tempDirectory.resolve("webapp");
+        Path target = tempDirectory.resolve("precompressed");
+        Path css = source.resolve("WEB-INF/css/site.css");
+        Files.createDirectories(css.getParent());
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append(".panel-").append(i).append(" { margin: 0; padding: 0; }\n");
+        }
+        Files.write(css, content.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(source.resolve("WEB-INF/css/tiny.css"), "a{}".getBytes(StandardCharsets.UTF_8));
+        Files.write(source.resolve("WEB-INF/css/font.woff2"), new byte[1024]);
+        
+        int compressed = new StaticResourceCompressor(source, target).compressDirectory("WEB-INF/css");
+        
+        assertEquals(1, compressed);
+        assertEquals(content.toString(), gunzip(target.resolve("WEB-INF/css/site.css.gz")));
+        assertFalse(Files.exists(target.resolve("WEB-INF/css/tiny.css.gz")));
+        assertFalse(Files.exists(target.resolve("WEB-INF/css/font.woff2.gz")));
+        assertFalse(Files.exists(target.resolve("WEB-INF/css/site.css.br")));
+    }
+    
+    private String gunzip(Path file) throws IOException {
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.foxminded.university.controller.async;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.DispatcherType;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.foxminded.university.controller.metrics.ConnectionHoldInterceptor;
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
+import com.foxminded.university.controller.metrics.LatencyHistogram;
+
+class TimetableRequestExecutorTest {
+    private TimetableRequestExecutor executor;
+    
+    @BeforeEach
+    void init() {
+        executor = new TimetableRequestExecutor(new ConnectionMetrics(), 1, 1, 10000);
+    }
+    
+    @AfterEach
+    void shutdown() {
+        executor.destroy();
+    }
+    
+    @Test
+    void submitShouldSetResultFromExecutorThreadTest() throws Exception {
+        DeferredResult<String> result = executor.submit(() -> Thread.currentThread().getName());
+        
+        assertEquals("timetable-request-1", await(result));
+        assertEquals(1, executor.getExecution().getCount());
+        assertEquals(1, executor.getQueueWait().getCount());
+    }
+    
+    @Test
+    void submitShouldSetErrorResultIfTaskFailsTest() throws Exception {
+        IllegalStateException failure = new IllegalStateException("failed");
+        
+        DeferredResult<String> result = executor.submit(() -> {
+            throw failure;
+        });
+        
+        assertSame(failure, await(result));
+    }
+    
+    @Test
+    void submitShouldRejectWithServiceUnavailableWhenQueueIsFullTest() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        DeferredResult<String> queued = executor.submit(() -> "queued");
+        
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
+                                                         () -> executor.submit(() -> "rejected"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(1, executor.getRejected());
+        
+        release.countDown();
+        assertEquals("queued", await(queued));
+    }
+    
+    @Test
+    void submitStreamingShouldLetStartedTaskRunPastTimeoutTest() throws Exception {
+        TimetableRequestExecutor streamingExecutor = new TimetableRequestExecutor(new ConnectionMetrics(), 1, 1, 50);
+        try {
+            DeferredResult<String> result = streamingExecutor.submitStreaming(() -> {
+                Thread.sleep(300);
+                return "streamed";
+            });
+            
+            assertEquals("streamed", await(result));
+            assertEquals(0, streamingExecutor.getTimeouts());
+        } finally {
+            streamingExecutor.destroy();
+        }
+    }
+    
+    @Test
+    void submitStreamingShouldTimeOutTaskStillWaitingForThreadTest() throws Exception {
+        TimetableRequestExecutor streamingExecutor = new TimetableRequestExecutor(new ConnectionMetrics(), 1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedTaskRan = new AtomicBoolean();
+        try {
+            DeferredResult<Boolean> running = streamingExecutor.submitStreaming(
+                    () -> release.await(5, TimeUnit.SECONDS));
+            DeferredResult<Boolean> queued = streamingExecutor.submitStreaming(() -> {
+                queuedTaskRan.set(true);
+                return true;
+            });
+            
+            assertTrue(await(queued) instanceof AsyncRequestTimeoutException);
+            release.countDown();
+            assertEquals(true, await(running));
+            assertFalse(queuedTaskRan.get());
+            assertEquals(1, streamingExecutor.getTimeouts());
+        } finally {
+            streamingExecutor.destroy();
+        }
+    }
+    
+    @Test
+    void submitShouldCarryConnectionHoldTimeBackToRequestTest() throws Exception {
+        ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+        TimetableRequestExecutor meteredExecutor = new TimetableRequestExecutor(connectionMetrics, 1, 1, 10000);
+        ConnectionHoldInterceptor interceptor = new ConnectionHoldInterceptor(connectionMetrics);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/timetable");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            interceptor.preHandle(request, response, null);
+            connectionMetrics.recordHold(TimeUnit.MILLISECONDS.toNanos(1));
+            DeferredResult<String> result = meteredExecutor.submit(() -> {
+                connectionMetrics.recordHold(TimeUnit.MILLISECONDS.toNanos(2));
+                return "done";
+            });
+            interceptor.afterConcurrentHandlingStarted(request, response, null);
+            assertEquals("done", await(result));
+            
+            request.setDispatcherType(DispatcherType.ASYNC);
+            interceptor.preHandle(request, response, null);
+            interceptor.afterCompletion(request, response, null, null);
+            
+            LatencyHistogram holdTime = connectionMetrics.getHoldTime("GET unmatched");
+            assertEquals(1, holdTime.getCount());
+            assertEquals(0.003, holdTime.getSumSeconds(), 1e-9);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            meteredExecutor.destroy();
+        }
+    }
+    
+    private Object await(DeferredResult<?> result) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return result.getResult();
+    }
+}
@@ -0,0 +1,82 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+class FragmentCacheTest {
+    private static final String TEMPLATE = "<ul><li th:each=\"item : ${items}\" cache:fragment=\"${items}\" " 
+                                         + "th:text=\"${item + suffix}\">item</li></ul>";
+    
+    private FragmentCache fragmentCache;
+    private TemplateEngine templateEngine;
+    
+    @BeforeEach
+    void init() {
+        fragmentCache = new FragmentCache();
+        templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        templateEngine.addDialect(new FragmentCacheDialect(fragmentCache));
+    }
+    
+    @Test
+    void getShouldRenderOnlyOncePerVersionTest() {
+        List<String> version = Arrays.asList("a");
+        
+        assertEquals("first", fragmentCache.get("key", version, () -> "first"));
+        assertEquals("first", fragmentCache.get("key", version, () -> "second"));
+        assertEquals("third", fragmentCache.get("key", Arrays.asList("a"), () -> "third"));
+        
+        assertEquals(1, fragmentCache.getHits());
+        assertEquals(2, fragmentCache.getMisses());
+        assertEquals(1, fragmentCache.size());
+    }
+    
+    @Test
+    void fragmentShouldBeRenderedWithLocalVariablesAndReusedForSameVersionTest() {
+        List<String> items = Arrays.asList("a", "b");
+        
+        assertEquals("<ul><li>a!</li><li>b!</li></ul>", render(items, "!"));
+        assertEquals("<ul><li>a!</li><li>b!</li></ul>", render(items, "?"));
+        
+        assertEquals(1, fragmentCache.getHits());
+        assertEquals(1, fragmentCache.getMisses());
+    }
+    
+    @Test
+    void fragmentShouldBeRenderedAgainWhenVersionChangesTest() {
+        render(Arrays.asList("a", "b"), "!");
+        
+        assertEquals("<ul><li>c!</li></ul>", render(Arrays.asList("c"), "!"));
+        assertEquals(2, fragmentCache.getMisses());
+    }
+    
+    @Test
+    void cachedFragmentShouldNotBeInlinedAgainTest() {
+        List<String> items = Arrays.asList("[[${1 + 1}]]");
+        
+        render(items, "");
+        
+        assertEquals("<ul><li>[[${1 + 1}]]</li></ul>", render(items, ""));
+    }
+    
+    @Test
+    void fragmentWithoutVersionShouldNotBeCachedTest() {
+        assertEquals("<ul></ul>", render(null, "!"));
+        assertEquals(0, fragmentCache.size());
+    }
+    
+    private String render(List<String> items, String suffix) {
+        Context context = new Context();
+        context.setVariable("items", items);
+        context.setVariable("suffix", suffix);
+        return templateEngine.process(TEMPLATE, context);
+    }
+}
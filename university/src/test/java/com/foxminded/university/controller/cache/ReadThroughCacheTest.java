@@ -0,0 +1,62 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ReadThroughCacheTest {
+    
+    @Test
+    void getShouldCallLoaderOnlyOnceUntilInvalidatedTest() {
+        ReadThroughCache<String> cache = new ReadThroughCache<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        
+        cache.get(() -> Arrays.asList("a", String.valueOf(loads.incrementAndGet())));
+        List<String> actual = cache.get(() -> Arrays.asList("a", String.valueOf(loads.incrementAndGet())));
+        
+        assertEquals(Arrays.asList("a", "1"), actual);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void invalidateShouldForceReloadTest() {
+        ReadThroughCache<String> cache = new ReadThroughCache<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        
+        cache.get(() -> Arrays.asList(String.valueOf(loads.incrementAndGet())));
+        cache.invalidate();
+        List<String> actual = cache.get(() -> Arrays.asList(String.valueOf(loads.incrementAndGet())));
+        
+        assertEquals(Arrays.asList("2"), actual);
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    void invalidateDuringLoadShouldDiscardLoadedValueTest() {
+        ReadThroughCache<String> cache = new ReadThroughCache<>("test");
+        
+        cache.get(() -> {
+            cache.invalidate();
+            return Arrays.asList("stale");
+        });
+        List<String> actual = cache.get(() -> Arrays.asList("fresh"));
+        
+        assertEquals(Arrays.asList("fresh"), actual);
+    }
+
+    @Test
+    void getShouldReturnUnmodifiableListTest() {
+        ReadThroughCache<String> cache = new ReadThroughCache<>("test");
+        List<String> actual = cache.get(() -> Arrays.asList("a"));
+        
+        assertThrows(UnsupportedOperationException.class, () -> actual.add("b"));
+    }
+}
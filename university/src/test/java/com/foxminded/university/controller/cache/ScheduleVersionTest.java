@@ -0,0 +1,39 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.foxminded.university.model.DateInterval;
+
+class ScheduleVersionTest {
+    
+    @Test
+    void incrementShouldChangeETagAndLastModifiedTest() {
+        long[] now = {1000};
+        ScheduleVersion scheduleVersion = new ScheduleVersion(() -> now[0]);
+        DateInterval week = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        String before = scheduleVersion.getETag("student", 1, week);
+        
+        now[0] = 5000;
+        scheduleVersion.increment();
+        
+        assertEquals(1, scheduleVersion.getVersion());
+        assertEquals(5000, scheduleVersion.getLastModified());
+        assertNotEquals(before, scheduleVersion.getETag("student", 1, week));
+        assertTrue(before.startsWith("W/\""));
+    }
+    
+    @Test
+    void getETagShouldDifferByEntityAndWeekTest() {
+        ScheduleVersion scheduleVersion = new ScheduleVersion(() -> 1000);
+        DateInterval week = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        DateInterval nextWeek = new DateInterval(LocalDate.of(2020, 6, 22), LocalDate.of(2020, 6, 28));
+        
+        assertNotEquals(scheduleVersion.getETag("student", 1, week), scheduleVersion.getETag("teacher", 1, week));
+        assertNotEquals(scheduleVersion.getETag("student", 1, week), scheduleVersion.getETag("student", 2, week));
+        assertNotEquals(scheduleVersion.getETag("student", 1, week), scheduleVersion.getETag("student", 1, nextWeek));
+    }
+}
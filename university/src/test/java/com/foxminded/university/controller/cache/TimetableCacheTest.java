@@ -0,0 +1,150 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.foxminded.university.controller.cache.TimetableCache.Owner;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Timetable;
+
+class TimetableCacheTest {
+    private static final DateInterval WEEK = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+    private static final DateInterval NEXT_WEEK = new DateInterval(LocalDate.of(2020, 6, 22), LocalDate.of(2020, 6, 28));
+    
+    @Test
+    void getShouldReturnCachedTimetableForEqualIntervalTest() {
+        TimetableCache cache = new TimetableCache(10, 1000, () -> 0);
+        Timetable timetable = new Timetable();
+        cache.get(Owner.GROUP, 1, WEEK, () -> timetable);
+        
+        DateInterval sameWeek = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        Timetable actual = cache.get(Owner.GROUP, 1, sameWeek, Timetable::new);
+        
+        assertSame(timetable, actual);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void getShouldReloadExpiredEntryTest() {
+        AtomicLong now = new AtomicLong();
+        TimetableCache cache = new TimetableCache(10, 1000, now::get);
+        Timetable timetable = new Timetable();
+        cache.get(Owner.TEACHER, 1, WEEK, () -> timetable);
+        
+        now.set(1000);
+        Timetable actual = cache.get(Owner.TEACHER, 1, WEEK, Timetable::new);
+        
+        assertNotSame(timetable, actual);
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void getShouldDropLeastRecentlyUsedEntryWhenFullTest() {
+        TimetableCache cache = new TimetableCache(2, 1000, () -> 0);
+        cache.get(Owner.GROUP, 1, WEEK, Timetable::new);
+        cache.get(Owner.GROUP, 2, WEEK, Timetable::new);
+        cache.get(Owner.GROUP, 1, WEEK, Timetable::new);
+        cache.get(Owner.GROUP, 3, WEEK, Timetable::new);
+        
+        assertEquals(2, cache.size());
+        cache.get(Owner.GROUP, 1, WEEK, Timetable::new);
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void evictShouldRemoveOnlyIntervalsContainingDateForOwnerTest() {
+        TimetableCache cache = new TimetableCache(10, 1000, () -> 0);
+        cache.get(Owner.GROUP, 1, WEEK, Timetable::new);
+        cache.get(Owner.GROUP, 1, NEXT_WEEK, Timetable::new);
+        cache.get(Owner.GROUP, 2, WEEK, Timetable::new);
+        cache.get(Owner.TEACHER, 1, WEEK, Timetable::new);
+        
+        cache.evict(Owner.GROUP, 1, LocalDate.of(2020, 6, 18));
+        
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void evictAllShouldRemoveEveryIntervalForOwnerTest() {
+        TimetableCache cache = new TimetableCache(10, 1000, () -> 0);
+        cache.get(Owner.GROUP, 1, WEEK, Timetable::new);
+        cache.get(Owner.GROUP, 1, NEXT_WEEK, Timetable::new);
+        cache.get(Owner.TEACHER, 1, WEEK, Timetable::new);
+        
+        cache.evictAll(Owner.GROUP, 1);
+        
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    void getShouldLoadOnceForConcurrentRequestsOfSameKeyTest() throws Exception {
+        TimetableCache cache = new TimetableCache(10, 1000, () -> 0);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Timetable timetable = new Timetable();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Timetable> first = executor.submit(() -> cache.get(Owner.GROUP, 1, WEEK, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return timetable;
+            }));
+            loading.await();
+            Thread follower = new Thread(() -> cache.get(Owner.GROUP, 1, WEEK, () -> {
+                loads.incrementAndGet();
+                return new Timetable();
+            }));
+            follower.start();
+            while (cache.getCoalesced() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            follower.join();
+            
+            assertSame(timetable, first.get());
+            assertEquals(1, loads.get());
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void getShouldNotCacheLoadEvictedWhileRunningButKeepOtherKeysTest() throws Exception {
+        TimetableCache cache = new TimetableCache(10, 1000, () -> 0);
+        cache.get(Owner.GROUP, 2, WEEK, () -> {
+            cache.evict(Owner.GROUP, 1, LocalDate.of(2020, 6, 18));
+            return new Timetable();
+        });
+        cache.get(Owner.GROUP, 1, WEEK, () -> {
+            cache.evict(Owner.GROUP, 1, LocalDate.of(2020, 6, 18));
+            return new Timetable();
+        });
+        
+        assertEquals(1, cache.size());
+        cache.get(Owner.GROUP, 2, WEEK, Timetable::new);
+        assertEquals(1, cache.getHits());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
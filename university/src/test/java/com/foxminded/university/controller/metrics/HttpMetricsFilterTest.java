@@ -0,0 +1,87 @@
+package com.foxminded.university.controller.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class HttpMetricsFilterTest {
+    
+    @Test
+    void doFilterShouldRecordLatencyStatusAndResponseSizePerHandlerMappingTest() throws Exception {
+        HttpMetrics httpMetrics = new HttpMetrics();
+        HttpMetricsFilter filter = new HttpMetricsFilter(httpMetrics);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/timetable");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) 
+                    throws ServletException, IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/timetable");
+                resp.setStatus(201);
+                resp.getWriter().print("timetable");
+            }
+        }));
+        
+        assertEquals("timetable", response.getContentAsString());
+        assertEquals(1, httpMetrics.getLatency("GET /timetable").getCount());
+        assertEquals(9, httpMetrics.getResponseBytes("GET /timetable"));
+        
+        StringWriter output = new StringWriter();
+        httpMetrics.writePrometheus(new PrintWriter(output));
+        assertTrue(output.toString().contains(
+                "university_http_responses_total{endpoint=\"GET /timetable\",status=\"201\"} 1\n"));
+        assertTrue(output.toString().contains(
+                "university_http_request_duration_seconds_count{endpoint=\"GET /timetable\"} 1\n"));
+    }
+    
+    @Test
+    void doFilterShouldRecordUnmatchedRequestsUnderOneEndpointTest() throws Exception {
+        HttpMetrics httpMetrics = new HttpMetrics();
+        HttpMetricsFilter filter = new HttpMetricsFilter(httpMetrics);
+        
+        filter.doFilter(new MockHttpServletRequest("POST", "/missing"), new MockHttpServletResponse(), 
+                        new MockFilterChain());
+        
+        assertEquals(1, httpMetrics.getLatency("POST unmatched").getCount());
+        assertEquals(0, httpMetrics.getResponseBytes("POST unmatched"));
+    }
+    
+    @Test
+    void doFilterShouldRecordServerErrorIfExceptionEscapesChainTest() throws Exception {
+        HttpMetrics httpMetrics = new HttpMetrics();
+        HttpMetricsFilter filter = new HttpMetricsFilter(httpMetrics);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/timetable");
+        
+        assertThrows(ServletException.class, () -> filter.doFilter(request, new MockHttpServletResponse(), 
+                                                                    new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/timetable");
+                throw new ServletException("handler failed");
+            }
+        })));
+        
+        StringWriter output = new StringWriter();
+        httpMetrics.writePrometheus(new PrintWriter(output));
+        assertTrue(output.toString().contains(
+                "university_http_responses_total{endpoint=\"GET /timetable\",status=\"500\"} 1\n"));
+    }
+}
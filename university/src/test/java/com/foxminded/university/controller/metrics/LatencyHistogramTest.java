@@ -0,0 +1,60 @@
+package com.foxminded.university.controller.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+    
+    @Test
+    void bucketUpperBoundShouldBeWithinOneEighthOfRecordedValueTest() {
+        for (long micros = 0; micros < 1_000_000; micros += 7) {
+            long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(micros));
+            assertTrue(upperBound >= micros);
+            assertTrue(upperBound - micros <= Math.max(micros / 8, 0));
+        }
+    }
+    
+    @Test
+    void getQuantileSecondsShouldReturnUpperBoundOfBucketAtRankTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 99; i++) {
+            histogram.record(10_000);
+        }
+        histogram.record(5_000_000);
+        
+        assertEquals(100, histogram.getCount());
+        assertEquals(0.00599, histogram.getSumSeconds(), 1e-9);
+        assertEquals(0.00001, histogram.getQuantileSeconds(0.5), 1e-9);
+        assertEquals(0.00001, histogram.getQuantileSeconds(0.99), 1e-9);
+        assertEquals(0.005, histogram.getQuantileSeconds(0.999), 0.005 / 8);
+    }
+    
+    @Test
+    void getQuantileSecondsShouldReturnZeroIfNothingRecordedTest() {
+        assertEquals(0, new LatencyHistogram().getQuantileSeconds(0.99));
+    }
+    
+    @Test
+    void getQuantileSecondsShouldForgetLatenciesOlderThanWindowTest() {
+        AtomicLong now = new AtomicLong();
+        LatencyHistogram histogram = new LatencyHistogram(60_000, now::get);
+        histogram.record(5_000_000);
+        
+        now.set(50_000);
+        histogram.record(10_000);
+        assertEquals(0.005, histogram.getQuantileSeconds(0.99), 0.005 / 8);
+        
+        now.set(65_000);
+        assertEquals(0.00001, histogram.getQuantileSeconds(0.99), 1e-9);
+        assertEquals(2, histogram.getCount());
+        
+        now.set(200_000);
+        assertEquals(0, histogram.getQuantileSeconds(0.99));
+        histogram.record(20_000);
+        assertEquals(0.00002, histogram.getQuantileSeconds(0.5), 0.00002 / 8);
+        assertEquals(3, histogram.getCount());
+    }
+}
@@ -0,0 +1,62 @@
+package com.foxminded.university.controller.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+class MeteredDataSourceTest {
+    
+    @Test
+    void closeShouldRecordHoldTimeOnceForCurrentRequestTest() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+        MeteredDataSource dataSource = new MeteredDataSource(target, connectionMetrics);
+        
+        connectionMetrics.startRequest();
+        Connection actual = dataSource.getConnection();
+        actual.setAutoCommit(false);
+        actual.close();
+        actual.close();
+        connectionMetrics.finishRequest("GET /timetable");
+        
+        verify(connection).setAutoCommit(false);
+        verify(connection, times(2)).close();
+        assertEquals(1, connectionMetrics.getHoldTime("GET /timetable").getCount());
+        assertTrue(write(connectionMetrics).contains("university_pool_connection_hold_seconds_count 1\n"));
+    }
+    
+    @Test
+    void getConnectionShouldCountTimeoutsTest() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+        ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+        MeteredDataSource dataSource = new MeteredDataSource(target, connectionMetrics);
+        
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        
+        String actual = write(connectionMetrics);
+        assertTrue(actual.contains("university_pool_acquire_timeouts_total 1\n"));
+        assertTrue(actual.contains("university_pool_acquire_seconds_count 1\n"));
+        assertFalse(actual.contains("university_pool_connections"));
+    }
+    
+    private String write(ConnectionMetrics connectionMetrics) {
+        StringWriter output = new StringWriter();
+        connectionMetrics.writePrometheus(new PrintWriter(output));
+        return output.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.foxminded.university.controller.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class QueryMetricsTest {
+    
+    @Test
+    void writePrometheusShouldWriteSummaryAndCountersPerStatementTest() {
+        QueryMetrics queryMetrics = new QueryMetrics();
+        queryMetrics.record("LessonRepository.getById", 2_000_000, 1, false);
+        queryMetrics.record("LessonRepository.getById", 4_000_000, 0, true);
+        
+        StringWriter output = new StringWriter();
+        queryMetrics.writePrometheus(new PrintWriter(output));
+        String actual = output.toString();
+        
+        assertTrue(actual.contains("# TYPE university_query_duration_seconds summary\n"));
+        assertTrue(actual.contains("university_query_duration_seconds{statement=\"LessonRepository.getById\","
+                                 + "quantile=\"0.5\"} "));
+        assertTrue(actual.contains("university_query_duration_seconds_sum{statement=\"LessonRepository.getById\"} 0.006\n"));
+        assertTrue(actual.contains("university_query_duration_seconds_count{statement=\"LessonRepository.getById\"} 2\n"));
+        assertTrue(actual.contains("university_query_rows_total{statement=\"LessonRepository.getById\"} 1\n"));
+        assertTrue(actual.contains("university_query_errors_total{statement=\"LessonRepository.getById\"} 1\n"));
+    }
+    
+    @Test
+    void statementNamesShouldRestorePreviousNameOnExitTest() {
+        String outer = StatementNames.enter("GroupRepository.getAll");
+        String inner = StatementNames.enter("StudentRepository.getAll");
+        assertEquals("StudentRepository.getAll", StatementNames.current());
+        
+        StatementNames.exit(inner);
+        assertEquals("GroupRepository.getAll", StatementNames.current());
+        StatementNames.exit(outer);
+        assertEquals(StatementNames.UNNAMED, StatementNames.current());
+    }
+}
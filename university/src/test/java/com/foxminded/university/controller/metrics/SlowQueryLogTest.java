@@ -0,0 +1,98 @@
+package com.foxminded.university.controller.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.foxminded.university.model.SlowQuery;
+
+class SlowQueryLogTest {
+    
+    @Test
+    void getRecentShouldReturnNewestEntriesWithinCapacityTest() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(mock(DataSource.class), 10, 0, false, 2);
+        
+        slowQueryLog.record("GroupRepository.getAll", 20_000_000, "SELECT * FROM groups", null);
+        slowQueryLog.record("FacultyRepository.getAll", 30_000_000, "SELECT * FROM faculties", null);
+        slowQueryLog.record("LessonRepository.getById", 40_000_000, "SELECT * FROM lessons WHERE lesson_id = ?", 
+                            new Object[] {7});
+        
+        List<SlowQuery> actual = slowQueryLog.getRecent();
+        assertEquals(2, actual.size());
+        assertEquals("LessonRepository.getById", actual.get(0).getStatement());
+        assertEquals("[7]", actual.get(0).getParameters());
+        assertEquals(40.0, actual.get(0).getDurationMillis());
+        assertEquals("unknown", actual.get(0).getCaller());
+        assertEquals("FacultyRepository.getAll", actual.get(1).getStatement());
+    }
+    
+    @Test
+    void isSlowShouldCompareWithThresholdTest() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(mock(DataSource.class), 10, 0, false, 2);
+        
+        assertFalse(slowQueryLog.isSlow(9_999_999));
+        assertTrue(slowQueryLog.isSlow(10_000_000));
+    }
+    
+    @Test
+    void explainShouldStorePlanOfBoundStatementTest() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:slowquerylog;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS lessons (lesson_id INT PRIMARY KEY, course_id INT)");
+        }
+        SlowQueryLog slowQueryLog = new SlowQueryLog(dataSource, 0, 0, true, 10);
+        SlowQuery slowQuery = slowQueryLog.record("LessonRepository.getByCourse", 1, 
+                                                  "SELECT lesson_id FROM lessons WHERE course_id IN (SELECT ?)", 
+                                                  new Object[] {1});
+        
+        slowQueryLog.explain(slowQuery, new Object[] {1});
+        
+        assertNotNull(slowQuery.getPlan());
+        assertTrue(slowQuery.getPlan().toUpperCase().contains("LESSONS"));
+    }
+    
+    @Test
+    void explainShouldRestoreConnectionStateBeforeReturningItTest() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isReadOnly()).thenReturn(false);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        SlowQueryLog slowQueryLog = new SlowQueryLog(dataSource, 0, 0, false, 10);
+        SlowQuery slowQuery = slowQueryLog.record("GroupRepository.getAll", 1, "SELECT * FROM groups", null);
+        
+        slowQueryLog.explain(slowQuery, null);
+        
+        InOrder order = inOrder(connection);
+        order.verify(connection).setReadOnly(true);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(connection).rollback();
+        order.verify(connection).setAutoCommit(true);
+        order.verify(connection).setReadOnly(false);
+        order.verify(connection).close();
+    }
+}
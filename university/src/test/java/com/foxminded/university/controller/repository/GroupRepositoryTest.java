@@ -3,6 +3,7 @@ package com.foxminded.university.controller.repository;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -163,6 +164,45 @@ class GroupRepositoryTest {
         });
     }
     
+    @Order(12)
+    @Test
+    void getAllWithDetailsShouldReturnGroupsWithFacultyCoursesAndStudentsTest() {
+        List<Group> actual = groupRepository.getAllWithDetails();
+        assertEquals(2, actual.size());
+        
+        Group group = actual.get(0);
+        assertEquals(1, group.getId());
+        assertEquals("cs-20", group.getGroupName());
+        assertEquals("CS", group.getFaculty().getShortName());
+        assertEquals("Computer Science", group.getFaculty().getFullName());
+        assertEquals(2, group.getCourses().size());
+        assertEquals(2, group.getStudents().size());
+        
+        Group addedGroup = actual.get(1);
+        assertEquals(1, addedGroup.getCourses().size());
+        assertTrue(addedGroup.getStudents().isEmpty());
+    }
+    
+    @Order(13)
+    @Test
+    void getAllWithCoursesShouldReturnGroupsWithTheirCoursesTest() {
+        List<Group> actual = groupRepository.getAllWithCourses();
+        assertEquals(2, actual.size());
+        assertEquals("cs-20", actual.get(0).getGroupName());
+        assertEquals(2, actual.get(0).getCourses().size());
+        assertEquals("Turing machine", actual.get(0).getCourses().get(0).getName());
+        assertEquals(1, actual.get(1).getCourses().size());
+    }
+    
+    @Order(14)
+    @Test
+    void getIdsByNameShouldMapEveryGroupNameToItsIdTest() {
+        Map<String, Integer> actual = groupRepository.getIdsByName();
+        assertEquals(2, actual.size());
+        assertEquals(1, actual.get("cs-20"));
+        assertEquals(2, actual.get("testGroup"));
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
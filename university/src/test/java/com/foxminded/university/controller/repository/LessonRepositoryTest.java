@@ -2,7 +2,14 @@ package com.foxminded.university.controller.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -14,17 +21,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.cache.TimetableCache.Owner;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.model.Classroom;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.DateInterval;
 import com.foxminded.university.model.Lesson;
 import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.Timetable;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = WebConfig.class)
@@ -38,6 +57,18 @@ class LessonRepositoryTest {
     @Autowired
     LessonRepository lessonRepository;
     
+    @Autowired
+    TimetableCache timetableCache;
+    
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    ScheduleConflictEngine scheduleConflictEngine;
+    
+    @Autowired
+    ScheduleVersion scheduleVersion;
+    
     @Order(1)
     @Test
     void addShouldCreateNewRowInLessonsTable() {      
@@ -85,6 +116,235 @@ class LessonRepositoryTest {
         });        
     }
     
+    @Order(3)
+    @Test
+    void addAndDeleteShouldEvictAffectedTimetablesTest() {
+        LocalDate date = LocalDate.of(2020, 6, 19);
+        DateInterval week = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        DateInterval otherWeek = new DateInterval(LocalDate.of(2020, 6, 22), LocalDate.of(2020, 6, 28));
+        timetableCache.invalidateAll();
+        timetableCache.get(Owner.GROUP, 1, week, Timetable::new);
+        timetableCache.get(Owner.TEACHER, 1, week, Timetable::new);
+        timetableCache.get(Owner.GROUP, 1, otherWeek, Timetable::new);
+        
+        Timeslot time = new Timeslot();
+        time.setId(3);
+        Course course = new Course();
+        course.setId(2);
+        Classroom classroom = new Classroom();
+        classroom.setId(2);
+        Lesson lesson = new Lesson();
+        lesson.setDate(date);
+        lesson.setTime(time);
+        lesson.setCourse(course);
+        lesson.setClassroom(classroom);
+        lessonRepository.add(lesson);
+        
+        assertEquals(1, timetableCache.size());
+        
+        timetableCache.get(Owner.TEACHER, 1, week, Timetable::new);
+        lesson.setId(jdbcTemplate.queryForObject("SELECT lesson_id FROM lessons WHERE lesson_date = ? AND timeslot_id = 3", 
+                                                 Integer.class, date));
+        lessonRepository.delete(lesson);
+        
+        assertEquals(1, timetableCache.size());
+    }
+    
+    @Order(4)
+    @Test
+    void addAllShouldInsertFreeLessonsAndReturnConflictsTest() {
+        jdbcTemplate.update("INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) "
+                          + "VALUES ('2021-03-15', 4, 1, 2)");
+        Timeslot time = new Timeslot();
+        time.setId(4);
+        Course course = new Course();
+        course.setId(2);
+        Classroom classroom = new Classroom();
+        classroom.setId(2);
+        List<Lesson> lessons = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(2021, 3, 1); date.getMonthValue() == 3; date = date.plusWeeks(1)) {
+            Lesson lesson = new Lesson();
+            lesson.setDate(date);
+            lesson.setTime(time);
+            lesson.setCourse(course);
+            lesson.setClassroom(classroom);
+            lessons.add(lesson);
+        }
+        
+        List<Lesson> conflicts = lessonRepository.addAll(lessons);
+        
+        assertEquals(1, conflicts.size());
+        assertEquals(LocalDate.of(2021, 3, 15), conflicts.get(0).getDate());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lessons WHERE course_id = 2 "
+                                                  + "AND lesson_date BETWEEN '2021-03-01' AND '2021-03-31'", 
+                                                  Integer.class));
+        jdbcTemplate.update("DELETE FROM lessons WHERE lesson_date BETWEEN '2021-03-01' AND '2021-03-31'");
+    }
+    
+    @Order(5)
+    @Test
+    void addAllShouldReportRowsInsertedConcurrentlyAsConflictsTest() {
+        LocalDate concurrent = LocalDate.of(2021, 4, 12);
+        AtomicBoolean raced = new AtomicBoolean();
+        JdbcTemplate racingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+                if (raced.compareAndSet(false, true)) {
+                    insertConcurrently(concurrent);
+                    throw new DuplicateKeyException("lesson inserted by a concurrent transaction");
+                }
+                return super.execute(psc, action);
+            }
+        };
+        
+        List<Lesson> conflicts = newRepository(racingTemplate).addAll(createMondayLessons(4));
+        
+        assertEquals(1, conflicts.size());
+        assertEquals(concurrent, conflicts.get(0).getDate());
+        assertEquals(4, countLessonsInApril());
+        jdbcTemplate.update("DELETE FROM lessons WHERE lesson_date BETWEEN '2021-04-01' AND '2021-04-30'");
+    }
+    
+    @Order(6)
+    @Test
+    void addAllShouldInsertRowByRowIfDriverReportsNoCountsTest() {
+        jdbcTemplate.update("INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) "
+                          + "VALUES ('2021-04-19', 4, 1, 2)");
+        JdbcTemplate noInfoTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+                T result = super.execute(psc, action);
+                if (result instanceof int[]) {
+                    Arrays.fill((int[]) result, Statement.SUCCESS_NO_INFO);
+                }
+                return result;
+            }
+        };
+        
+        List<Lesson> conflicts = newRepository(noInfoTemplate).addAll(createMondayLessons(4));
+        
+        assertEquals(1, conflicts.size());
+        assertEquals(LocalDate.of(2021, 4, 19), conflicts.get(0).getDate());
+        assertEquals(4, countLessonsInApril());
+        jdbcTemplate.update("DELETE FROM lessons WHERE lesson_date BETWEEN '2021-04-01' AND '2021-04-30'");
+    }
+    
+    @Order(7)
+    @Test
+    void deleteShouldEvictTimetablesWithoutQueryingCoursesTest() {
+        LocalDate date = LocalDate.of(2020, 6, 19);
+        DateInterval week = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        Lesson lesson = createMondayLessons(1).get(0);
+        lesson.setDate(date);
+        scheduleConflictEngine.getOccupiedClassrooms(date, date, 4);
+        lessonRepository.add(lesson);
+        timetableCache.invalidateAll();
+        timetableCache.get(Owner.GROUP, 1, week, Timetable::new);
+        timetableCache.get(Owner.TEACHER, 1, week, Timetable::new);
+        List<String> queries = new ArrayList<>();
+        JdbcTemplate recordingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> List<T> query(String sql, Object[] args, RowMapper<T> rowMapper) {
+                queries.add(sql);
+                return super.query(sql, args, rowMapper);
+            }
+            
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                queries.add(sql);
+                return super.queryForList(sql, elementType, args);
+            }
+        };
+        
+        newRepository(recordingTemplate).delete(lesson);
+        
+        assertEquals(Collections.emptyList(), queries);
+        assertEquals(0, timetableCache.size());
+    }
+    
+    @Order(8)
+    @Test
+    void addAllShouldAddInsertedLessonsToScheduleIndexTest() {
+        List<Lesson> lessons = createMondayLessons(2);
+        scheduleConflictEngine.getOccupiedClassrooms(lessons.get(0).getDate(), lessons.get(1).getDate(), 4);
+        
+        assertTrue(lessonRepository.addAll(lessons).isEmpty());
+        
+        for (Lesson lesson : lessons) {
+            assertEquals(lesson.getId(), (int) jdbcTemplate.queryForObject(
+                    "SELECT lesson_id FROM lessons WHERE lesson_date = ? AND timeslot_id = 4", Integer.class, 
+                    lesson.getDate()));
+            assertEquals(lesson.getDate(), scheduleConflictEngine.findIndexedLesson(lesson.getId()).getDate());
+        }
+        jdbcTemplate.update("DELETE FROM lessons WHERE lesson_date BETWEEN '2021-04-01' AND '2021-04-30'");
+        scheduleConflictEngine.invalidateLessons();
+    }
+    
+    @Order(9)
+    @Test
+    void addAllShouldNotCommitAnyRowIfRowByRowRetryFailsTest() {
+        AtomicInteger calls = new AtomicInteger();
+        JdbcTemplate failingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+                int call = calls.incrementAndGet();
+                if (call == 1) {
+                    throw new DuplicateKeyException("lesson inserted by a concurrent transaction");
+                }
+                if (call == 4) {
+                    throw new DataAccessResourceFailureException("connection lost");
+                }
+                return super.execute(psc, action);
+            }
+        };
+        
+        assertThrows(DataAccessResourceFailureException.class, 
+                     () -> newRepository(failingTemplate).addAll(createMondayLessons(4)));
+        
+        assertEquals(0, countLessonsInApril());
+    }
+    
+    private void insertConcurrently(LocalDate date) {
+        // another thread commits on its own connection, outside of the batch transaction
+        Thread concurrent = new Thread(() -> jdbcTemplate.update(
+                "INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id) VALUES (?, 4, 2, 2)", date));
+        concurrent.start();
+        try {
+            concurrent.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private LessonRepository newRepository(JdbcTemplate template) {
+        return new LessonRepository(template, timetableCache, transactionTemplate, scheduleConflictEngine, 
+                                    scheduleVersion);
+    }
+    
+    private List<Lesson> createMondayLessons(int count) {
+        Timeslot time = new Timeslot();
+        time.setId(4);
+        Course course = new Course();
+        course.setId(2);
+        Classroom classroom = new Classroom();
+        classroom.setId(2);
+        List<Lesson> lessons = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Lesson lesson = new Lesson();
+            lesson.setDate(LocalDate.of(2021, 4, 5).plusWeeks(i));
+            lesson.setTime(time);
+            lesson.setCourse(course);
+            lesson.setClassroom(classroom);
+            lessons.add(lesson);
+        }
+        return lessons;
+    }
+    
+    private int countLessonsInApril() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lessons "
+                                         + "WHERE lesson_date BETWEEN '2021-04-01' AND '2021-04-30'", Integer.class);
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
@@ -0,0 +1,89 @@
+package com.foxminded.university.controller.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.schedule.ScheduleIndex;
+import com.foxminded.university.controller.schedule.SchedulingProblem;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.ScheduleConflict;
+import com.foxminded.university.model.Timeslot;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@WebAppConfiguration
+class ScheduleRepositoryTest {
+    @Autowired
+    ScheduleRepository scheduleRepository;
+    
+    @Test
+    void loadShouldFillIndexWithLessonsAndReferenceDataTest() {
+        ScheduleIndex index = new ScheduleIndex();
+        scheduleRepository.loadLessons(index, LocalDate.of(2020, 6, 22), LocalDate.of(2020, 6, 28));
+        assertEquals(0, index.getLessonsCount());
+        scheduleRepository.loadLessons(index, LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        scheduleRepository.loadReferenceData(index);
+        
+        assertEquals(2, index.getLessonsCount());
+        List<ScheduleConflict> conflicts = index.findConflicts(lesson(LocalDate.of(2020, 6, 18), 1, 2, 2));
+        assertEquals(2, conflicts.size());
+        assertEquals(ScheduleConflict.Type.TEACHER, conflicts.get(0).getType());
+        assertEquals(ScheduleConflict.Type.GROUP, conflicts.get(1).getType());
+        assertTrue(index.findConflicts(lesson(LocalDate.of(2020, 6, 19), 1, 2, 2)).isEmpty());
+    }
+    
+    @Test
+    void loadSchedulingProblemShouldReadReferenceDataAndLessonsOfPeriodTest() {
+        SchedulingProblem problem = new SchedulingProblem();
+        scheduleRepository.loadSchedulingProblem(problem, LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), problem.getTimeslotIds());
+        assertEquals(Integer.valueOf(300), problem.getCapacityByClassroom().get(2));
+        assertEquals(Integer.valueOf(1), problem.getTeacherByCourse().get(1));
+        assertEquals(Arrays.asList(1), problem.getCourseGroups(2));
+        assertEquals(2, problem.getGroupSize(1));
+        assertEquals(2, problem.getFixedLessons().size());
+        assertArrayEquals(new int[] {3, 1, 1, 1, 0}, problem.getFixedLessons().get(0));
+        
+        problem = new SchedulingProblem();
+        scheduleRepository.loadSchedulingProblem(problem, LocalDate.of(2020, 6, 8), LocalDate.of(2020, 6, 21));
+        assertArrayEquals(new int[] {3, 1, 1, 1, 1}, problem.getFixedLessons().get(0));
+        
+        problem = new SchedulingProblem();
+        scheduleRepository.loadSchedulingProblem(problem, LocalDate.of(2020, 6, 22), LocalDate.of(2020, 6, 28));
+        assertTrue(problem.getFixedLessons().isEmpty());
+    }
+    
+    private Lesson lesson(LocalDate date, int timeslotId, int courseId, int classroomId) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(timeslotId);
+        Course course = new Course();
+        course.setId(courseId);
+        Classroom classroom = new Classroom();
+        classroom.setId(classroomId);
+        
+        Lesson lesson = new Lesson();
+        lesson.setDate(date);
+        lesson.setTime(timeslot);
+        lesson.setCourse(course);
+        lesson.setClassroom(classroom);
+        return lesson;
+    }
+}
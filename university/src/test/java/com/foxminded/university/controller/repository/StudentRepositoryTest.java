@@ -2,6 +2,9 @@ package com.foxminded.university.controller.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -12,13 +15,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Student;
 
@@ -34,6 +41,15 @@ class StudentRepositoryTest {
     @Autowired
     StudentRepository studentRepository;
     
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    ScheduleConflictEngine scheduleConflictEngine;
+    
+    @Autowired
+    ScheduleVersion scheduleVersion;
+    
     @Order(1)
     @Test
     void addShoulCreateNewRowInStudentsTableTest() {
@@ -68,6 +84,92 @@ class StudentRepositoryTest {
         assertEquals("cs-20", actual.getGroup().getGroupName());
     }
     
+    @Order(4)
+    @ParameterizedTest
+    @CsvSource({"1, 1", 
+                "2, 1"})
+    void getGroupIdShouldReturnStudentsGroupIdTest(int studentId, int expectedGroupId) {
+        assertEquals(expectedGroupId, studentRepository.getGroupId(studentId));
+    }
+    
+    @Order(5)
+    @ParameterizedTest
+    @CsvSource({"100", "-1000"})
+    void getGroupIdShouldReturnNullForNonExistingStudentTest(int studentId) {
+        assertNull(studentRepository.getGroupId(studentId));
+    }
+    
+    @Order(6)
+    @Test
+    void addAllShouldInsertAllStudentsTest() {
+        Group group = new Group();
+        group.setId(1);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Student student = new Student();
+            student.setFirstName("bulk" + i);
+            student.setLastName("O'Neil, \"Jr\"");
+            student.setGroup(group);
+            students.add(student);
+        }
+        
+        studentRepository.addAll(students);
+        
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students WHERE first_name LIKE 'bulk%'", 
+                                                    Integer.class));
+        assertEquals("O'Neil, \"Jr\"", jdbcTemplate.queryForObject(
+                "SELECT last_name FROM students WHERE first_name = 'bulk0'", String.class));
+        jdbcTemplate.update("DELETE FROM students WHERE first_name LIKE 'bulk%'");
+    }
+    
+    @Order(7)
+    @Test
+    void addAllShouldNotInsertAnyStudentIfOneRowFailsTest() {
+        List<Student> students = new ArrayList<>();
+        for (int groupId : new int[] {1, 1, 1000}) {
+            Group group = new Group();
+            group.setId(groupId);
+            Student student = new Student();
+            student.setFirstName("bulk" + groupId);
+            student.setLastName("bulk");
+            student.setGroup(group);
+            students.add(student);
+        }
+        
+        assertThrows(DataIntegrityViolationException.class, () -> studentRepository.addAll(students));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students WHERE first_name LIKE 'bulk%'", 
+                                                    Integer.class));
+    }
+    
+    @Order(8)
+    @Test
+    void getGroupIdShouldNotCacheGroupReadBeforeConcurrentUpdateTest() {
+        jdbcTemplate.update("INSERT INTO groups (group_name, faculty_id) VALUES ('race-20', 1)");
+        int newGroupId = jdbcTemplate.queryForObject("SELECT group_id FROM groups WHERE group_name = 'race-20'", 
+                                                     Integer.class);
+        Student student = studentRepository.getById(2);
+        student.getGroup().setId(newGroupId);
+        StudentRepository[] repository = new StudentRepository[1];
+        JdbcTemplate racingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                List<T> result = super.queryForList(sql, elementType, args);
+                // the student moves to another group after its old group was selected
+                repository[0].update(student);
+                return result;
+            }
+        };
+        repository[0] = new StudentRepository(racingTemplate, transactionTemplate, scheduleConflictEngine, 
+                                               scheduleVersion);
+        
+        assertEquals(1, repository[0].getGroupId(2));
+        assertEquals(newGroupId, repository[0].getGroupId(2));
+        
+        student.getGroup().setId(1);
+        studentRepository.update(student);
+        jdbcTemplate.update("DELETE FROM groups WHERE group_id = ?", newGroupId);
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
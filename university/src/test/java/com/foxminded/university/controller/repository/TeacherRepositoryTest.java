@@ -84,6 +84,17 @@ class TeacherRepositoryTest {
         });  
     }
 
+    @Order(5)
+    @Test
+    void getAllWithCoursesShouldReturnTeachersWithTheirCoursesTest() {
+        List<Teacher> actual = teacherRepository.getAllWithCourses();
+        assertEquals(2, actual.size());
+        assertEquals("Alan", actual.get(0).getFirstName());
+        assertEquals(2, actual.get(0).getCourses().size());
+        assertEquals("Turing machine", actual.get(0).getCourses().get(0).getName());
+        assertTrue(actual.get(1).getCourses().isEmpty());
+    }
+
     @AfterAll
     @Test
     void restoreDatabaseState() {
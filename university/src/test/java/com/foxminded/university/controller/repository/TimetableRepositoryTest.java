@@ -3,6 +3,9 @@ package com.foxminded.university.controller.repository;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -13,14 +16,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.metrics.MeteredJdbcTemplate;
+import com.foxminded.university.controller.metrics.QueryMetrics;
+import com.foxminded.university.controller.metrics.SlowQueryLog;
 import com.foxminded.university.model.DateInterval;
-import com.foxminded.university.model.Student;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.SlowQuery;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Timetable;
 
@@ -36,16 +49,19 @@ class TimetableRepositoryTest {
     @Autowired
     TimetableRepository TimetableRepository;
     
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    
     @Test
-    void testGetByStudentShouldReturnTimetableObjectTest() {
+    void getByGroupShouldReturnTimetableObjectTest() {
         LocalDate startDate = LocalDate.of(2020, 1, 1);
-        LocalDate endDate = LocalDate.of(2021,1,1);
+        LocalDate endDate = LocalDate.of(2021, 1, 1);
         DateInterval dateInterval = new DateInterval(startDate, endDate);
+        Group group = new Group();
+        group.setId(1);
         
-        Student student = new Student();
-        student.setId(1);
+        Timetable timetable = TimetableRepository.getByGroup(group, dateInterval);
         
-        Timetable timetable = TimetableRepository.getByStudent(student, dateInterval);
         assertEquals(startDate, timetable.getDateInterval().getStartDate());
         assertEquals(endDate, timetable.getDateInterval().getEndDate());
         assertTrue(timetable.getLessons().size() > 0);
@@ -53,15 +69,12 @@ class TimetableRepositoryTest {
 
     @ParameterizedTest
     @CsvSource({"100", "200", "-1000"})
-    void testGetByStudentShouldReturnTimetableWithEmptyListOfLessonsForNonExistingStudentTest(int id) {
-        LocalDate startDate = LocalDate.of(2020, 1, 1);
-        LocalDate endDate = LocalDate.of(2021,1,1);
-        DateInterval dateInterval = new DateInterval(startDate, endDate);
+    void getByGroupShouldReturnTimetableWithEmptyListOfLessonsForNonExistingGroupTest(int id) {
+        DateInterval dateInterval = new DateInterval(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1));
+        Group group = new Group();
+        group.setId(id);
         
-        Student student = new Student();
-        student.setId(id);
-        
-        Timetable timetable = TimetableRepository.getByStudent(student, dateInterval);
+        Timetable timetable = TimetableRepository.getByGroup(group, dateInterval);
         assertTrue(timetable.getLessons().isEmpty());
     }
     
@@ -94,6 +107,84 @@ class TimetableRepositoryTest {
         assertTrue(timetable.getLessons().isEmpty());
     }
     
+    @Test
+    void streamByGroupShouldPassSameLessonsAsGetByGroupTest() {
+        DateInterval dateInterval = new DateInterval(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1));
+        Group group = new Group();
+        group.setId(1);
+        
+        List<Lesson> streamed = new ArrayList<>();
+        TimetableRepository.streamByGroup(group, dateInterval, streamed::add);
+        Timetable timetable = TimetableRepository.getByGroup(group, dateInterval);
+        
+        assertTrue(streamed.size() > 0);
+        assertEquals(timetable.getLessons().size(), streamed.size());
+        assertEquals(timetable.getLessons().get(0).getId(), streamed.get(0).getId());
+        assertNotNull(streamed.get(0).getTime().getDescription());
+    }
+    
+    @Test
+    void streamByTeacherShouldPassSameLessonsAsGetByTeacherTest() {
+        DateInterval dateInterval = new DateInterval(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1));
+        Teacher teacher = new Teacher();
+        teacher.setId(1);
+        
+        List<Lesson> streamed = new ArrayList<>();
+        TimetableRepository.streamByTeacher(teacher, dateInterval, streamed::add);
+        Timetable timetable = TimetableRepository.getByTeacher(teacher, dateInterval);
+        
+        assertTrue(streamed.size() > 0);
+        assertEquals(timetable.getLessons().size(), streamed.size());
+    }
+    
+    @Test
+    void streamByGroupShouldSetFetchSizeInsideReadOnlyTransactionTest() {
+        List<Integer> fetchSizes = new ArrayList<>();
+        List<Boolean> autoCommits = new ArrayList<>();
+        List<Boolean> readOnlyTransactions = new ArrayList<>();
+        JdbcTemplate recordingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> T execute(PreparedStatementCreator creator, PreparedStatementCallback<T> action) 
+                    throws DataAccessException {
+                return super.execute(creator, statement -> {
+                    fetchSizes.add(statement.getFetchSize());
+                    autoCommits.add(statement.getConnection().getAutoCommit());
+                    readOnlyTransactions.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+                    return action.doInPreparedStatement(statement);
+                });
+            }
+        };
+        TimetableRepository repository = new TimetableRepository(recordingTemplate, transactionTemplate, 50);
+        Group group = new Group();
+        group.setId(1);
+        
+        List<Lesson> streamed = new ArrayList<>();
+        repository.streamByGroup(group, new DateInterval(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1)), 
+                                 streamed::add);
+        
+        assertTrue(streamed.size() > 0);
+        assertEquals(Arrays.asList(50), fetchSizes);
+        assertEquals(Arrays.asList(false), autoCommits);
+        assertEquals(Arrays.asList(true), readOnlyTransactions);
+    }
+    
+    @Test
+    void streamByGroupShouldPassSqlAndArgumentsToSlowQueryLogTest() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(jdbcTemplate.getDataSource(), 0, 0, false, 10);
+        JdbcTemplate meteredTemplate = new MeteredJdbcTemplate(jdbcTemplate.getDataSource(), new QueryMetrics(), 
+                                                               slowQueryLog);
+        TimetableRepository repository = new TimetableRepository(meteredTemplate, transactionTemplate, 50);
+        Group group = new Group();
+        group.setId(1);
+        
+        repository.streamByGroup(group, new DateInterval(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1)), 
+                                 lesson -> { });
+        
+        SlowQuery slowQuery = slowQueryLog.getRecent().get(0);
+        assertTrue(slowQuery.getSql().startsWith("SELECT lessons.lesson_id"));
+        assertEquals("[1, 2020-01-01, 2021-01-01]", slowQuery.getParameters());
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
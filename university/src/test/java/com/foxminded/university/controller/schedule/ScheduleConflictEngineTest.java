@@ -0,0 +1,134 @@
+package com.foxminded.university.controller.schedule;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.foxminded.university.controller.repository.ScheduleRepository;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+
+class ScheduleConflictEngineTest {
+    private static final LocalDate DATE = LocalDate.of(2020, 6, 18);
+    
+    @Test
+    void findConflictsShouldLoadIndexOnceAndFollowLessonWritesTest() {
+        ScheduleRepository repository = Mockito.mock(ScheduleRepository.class);
+        mockLessonOnDate(repository);
+        ScheduleConflictEngine engine = new ScheduleConflictEngine(repository, 26);
+        
+        assertEquals(1, engine.findConflicts(lesson(0, 1, 1)).size());
+        assertTrue(engine.findConflicts(lesson(0, 2, 1)).isEmpty());
+        
+        engine.lessonSaved(lesson(2, 2, 1));
+        assertEquals(1, engine.findConflicts(lesson(0, 2, 1)).size());
+        engine.lessonDeleted(1);
+        assertTrue(engine.findConflicts(lesson(0, 1, 1)).isEmpty());
+        verify(repository).loadLessons(any(ScheduleIndex.class), any(LocalDate.class), any(LocalDate.class));
+        verify(repository).loadReferenceData(any(ScheduleIndex.class));
+        
+        engine.invalidateLessons();
+        engine.invalidateReferenceData();
+        assertEquals(1, engine.findConflicts(lesson(0, 1, 1)).size());
+        verify(repository, times(2)).loadLessons(any(ScheduleIndex.class), any(LocalDate.class), 
+                                                 any(LocalDate.class));
+        verify(repository, times(2)).loadReferenceData(any(ScheduleIndex.class));
+    }
+    
+    @Test
+    void engineShouldKeepOnlyRecentlyUsedWeeksIndexedTest() {
+        ScheduleRepository repository = Mockito.mock(ScheduleRepository.class);
+        mockLessonOnDate(repository);
+        ScheduleConflictEngine engine = new ScheduleConflictEngine(repository, 1);
+        
+        assertEquals(1, engine.findConflicts(lesson(0, 1, 1)).size());
+        verify(repository).loadLessons(any(ScheduleIndex.class), eq(LocalDate.of(2020, 6, 15)), 
+                                       eq(LocalDate.of(2020, 6, 21)));
+        assertNotNull(engine.findIndexedLesson(1));
+        
+        Lesson later = lesson(0, 1, 1);
+        later.setDate(DATE.plusWeeks(3));
+        assertTrue(engine.findConflicts(later).isEmpty());
+        assertNull(engine.findIndexedLesson(1));
+        
+        assertTrue(engine.getOccupiedClassrooms(DATE.minusWeeks(1), DATE.plusWeeks(1), 1).get(1));
+        assertEquals(1, engine.findConflicts(lesson(0, 1, 1)).size());
+    }
+    
+    @Test
+    void findConflictsShouldLoadWithoutLockAndSkipLessonsDeletedMeanwhileTest() throws Exception {
+        ScheduleRepository repository = Mockito.mock(ScheduleRepository.class);
+        ScheduleConflictEngine engine = new ScheduleConflictEngine(repository, 26);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Mockito.doAnswer(invocation -> {
+                invocation.<ScheduleIndex>getArgument(0).addLesson(1, DATE, 1, 1, 1);
+                // another request deletes the lesson after it was read but before the load is installed
+                executor.submit(() -> engine.lessonDeleted(1)).get(5, TimeUnit.SECONDS);
+                return null;
+            }).when(repository).loadLessons(any(ScheduleIndex.class), any(LocalDate.class), any(LocalDate.class));
+            
+            assertTrue(engine.findConflicts(lesson(0, 1, 1)).isEmpty());
+            assertNull(engine.findIndexedLesson(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void findConflictsShouldReloadReferenceDataInvalidatedWhileLoadingTest() {
+        ScheduleRepository repository = Mockito.mock(ScheduleRepository.class);
+        ScheduleConflictEngine engine = new ScheduleConflictEngine(repository, 26);
+        AtomicInteger loads = new AtomicInteger();
+        Mockito.doAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                engine.invalidateReferenceData();
+            } else {
+                invocation.<ScheduleIndex>getArgument(0).setCourseTeacher(10, 7);
+            }
+            return null;
+        }).when(repository).loadReferenceData(any(ScheduleIndex.class));
+        
+        assertEquals(Integer.valueOf(7), engine.getCourseTeacher(10));
+        assertEquals(2, loads.get());
+    }
+    
+    private void mockLessonOnDate(ScheduleRepository repository) {
+        Mockito.doAnswer(invocation -> {
+            if (!DATE.isBefore(invocation.getArgument(1)) && !DATE.isAfter(invocation.getArgument(2))) {
+                invocation.<ScheduleIndex>getArgument(0).addLesson(1, DATE, 1, 1, 1);
+            }
+            return null;
+        }).when(repository).loadLessons(any(ScheduleIndex.class), any(LocalDate.class), any(LocalDate.class));
+    }
+    
+    private Lesson lesson(int id, int timeslotId, int classroomId) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(timeslotId);
+        Course course = new Course();
+        course.setId(10 + id);
+        Classroom classroom = new Classroom();
+        classroom.setId(classroomId);
+        
+        Lesson lesson = new Lesson();
+        lesson.setId(id);
+        lesson.setDate(DATE);
+        lesson.setTime(timeslot);
+        lesson.setCourse(course);
+        lesson.setClassroom(classroom);
+        return lesson;
+    }
+}
@@ -0,0 +1,120 @@
+package com.foxminded.university.controller.schedule;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.ScheduleConflict;
+import com.foxminded.university.model.ScheduleConflict.Type;
+import com.foxminded.university.model.Timeslot;
+
+class ScheduleIndexTest {
+    private static final LocalDate DATE = LocalDate.of(2020, 6, 18);
+    
+    ScheduleIndex index;
+    
+    @BeforeEach
+    void init() {
+        index = new ScheduleIndex();
+        index.setCourseTeacher(1, 10);
+        index.setCourseTeacher(2, 10);
+        index.setCourseTeacher(3, 20);
+        index.addCourseGroup(1, 100);
+        index.addCourseGroup(3, 100);
+        index.addCourseGroup(4, 200);
+        index.setGroupSize(100, 25);
+        index.setGroupSize(200, 300);
+        index.setClassroomCapacity(1, 30);
+        index.setClassroomCapacity(2, 300);
+        index.addLesson(7, DATE, 1, 1, 1);
+    }
+    
+    @Test
+    void findConflictsShouldReturnEmptyListForFreeSlotTest() {
+        assertTrue(index.findConflicts(lesson(0, DATE, 2, 2, 1)).isEmpty());
+        assertTrue(index.findConflicts(lesson(0, DATE.plusDays(1), 1, 3, 1)).isEmpty());
+    }
+    
+    @Test
+    void findConflictsShouldDetectClassroomTeacherAndGroupConflictsTest() {
+        assertEquals(types(Type.CLASSROOM, Type.TEACHER), types(index.findConflicts(lesson(0, DATE, 1, 2, 1))));
+        assertEquals(types(Type.GROUP), types(index.findConflicts(lesson(0, DATE, 1, 3, 2))));
+        assertEquals(types(Type.COURSE), types(index.findConflicts(lesson(0, DATE, 1, 1, 2))));
+    }
+    
+    @Test
+    void findConflictsShouldDetectClassroomCapacityTest() {
+        List<ScheduleConflict> conflicts = index.findConflicts(lesson(0, DATE.plusDays(1), 1, 4, 1));
+        assertEquals(types(Type.CAPACITY), types(conflicts));
+        assertTrue(conflicts.get(0).getDescription().contains("300 students"));
+    }
+    
+    @Test
+    void findConflictsShouldIgnoreLessonItselfAndFollowUpdatesTest() {
+        assertTrue(index.findConflicts(lesson(7, DATE, 1, 1, 1)).isEmpty());
+        
+        index.addLesson(7, DATE, 2, 1, 1);
+        assertTrue(index.findConflicts(lesson(0, DATE, 1, 2, 1)).isEmpty());
+        assertEquals(types(Type.CLASSROOM, Type.TEACHER), types(index.findConflicts(lesson(0, DATE, 2, 2, 1))));
+        
+        index.removeLesson(7);
+        assertTrue(index.findConflicts(lesson(0, DATE, 2, 2, 1)).isEmpty());
+        assertEquals(0, index.getLessonsCount());
+    }
+    
+    @Test
+    void collectOccupiedClassroomsShouldFollowLessonWritesTest() {
+        index.addLesson(8, DATE, 1, 2, 2);
+        index.addLesson(9, DATE.plusDays(1), 1, 3, 5);
+        
+        BitSet occupied = new BitSet();
+        index.collectOccupiedClassrooms(DATE, 1, occupied);
+        assertEquals("{1, 2}", occupied.toString());
+        index.collectOccupiedClassrooms(DATE.plusDays(1), 1, occupied);
+        index.collectOccupiedClassrooms(DATE.plusDays(2), 1, occupied);
+        assertEquals("{1, 2, 5}", occupied.toString());
+        
+        index.removeLesson(8);
+        index.addLesson(7, DATE, 2, 1, 1);
+        occupied = new BitSet();
+        index.collectOccupiedClassrooms(DATE, 1, occupied);
+        assertTrue(occupied.isEmpty());
+        index.collectOccupiedClassrooms(DATE, 2, occupied);
+        assertEquals("{1}", occupied.toString());
+    }
+    
+    private List<Type> types(Type... types) {
+        return Arrays.asList(types);
+    }
+    
+    private List<Type> types(List<ScheduleConflict> conflicts) {
+        return conflicts.stream().map(ScheduleConflict::getType).collect(Collectors.toList());
+    }
+    
+    private Lesson lesson(int id, LocalDate date, int timeslotId, int courseId, int classroomId) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(timeslotId);
+        Course course = new Course();
+        course.setId(courseId);
+        Classroom classroom = new Classroom();
+        classroom.setId(classroomId);
+        
+        Lesson lesson = new Lesson();
+        lesson.setId(id);
+        lesson.setDate(date);
+        lesson.setTime(timeslot);
+        lesson.setCourse(course);
+        lesson.setClassroom(classroom);
+        return lesson;
+    }
+}
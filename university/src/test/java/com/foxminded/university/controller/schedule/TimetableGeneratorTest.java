@@ -0,0 +1,146 @@
+package com.foxminded.university.controller.schedule;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.foxminded.university.controller.repository.ScheduleRepository;
+import com.foxminded.university.controller.schedule.WeeklyPlan.PlannedLesson;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+
+class TimetableGeneratorTest {
+    private static final LocalDate MONDAY = LocalDate.of(2020, 9, 7);
+    
+    TimetableGenerator generator = new TimetableGenerator(Mockito.mock(ScheduleRepository.class), 2);
+    
+    @Test
+    void solveShouldPlaceAllLessonsWithoutConflictsTest() {
+        SchedulingProblem problem = createProblem(3, 2);
+        for (int course = 1; course <= 12; course++) {
+            problem.addCourse(course, 1 + course % 4);
+            problem.addCourseGroup(course, 1 + course % 3);
+        }
+        problem.addCourseGroup(12, 2);
+        problem.addFixedLesson(0, 1, 5, 1, 0);
+        
+        WeeklyPlan plan = generator.solve(problem, 2, 5000);
+        
+        assertEquals(23, plan.getRequiredLessons());
+        assertEquals(0, plan.getUnplacedLessons());
+        assertEquals(23, plan.getLessons().size());
+        assertTrue(plan.getObjective() < 1000);
+        assertConflictFree(problem, plan);
+    }
+    
+    @Test
+    void solveShouldLeaveLessonsUnplacedIfNoClassroomFitsGroupTest() {
+        SchedulingProblem problem = createProblem(2, 1);
+        problem.addCourse(1, 1);
+        problem.addCourseGroup(1, 1);
+        problem.setGroupSize(1, 500);
+        problem.addCourse(2, 1);
+        problem.addCourseGroup(2, 2);
+        problem.addCourse(3, 0);
+        
+        WeeklyPlan plan = generator.solve(problem, 3, 1000);
+        
+        assertEquals(6, plan.getRequiredLessons());
+        assertEquals(3, plan.getUnplacedLessons());
+        assertEquals(3, plan.getLessons().size());
+        for (PlannedLesson lesson : plan.getLessons()) {
+            assertEquals(2, lesson.getCourseId());
+        }
+    }
+    
+    @Test
+    void solveShouldReportUnplacedLessonsIfWeekIsTooShortTest() {
+        SchedulingProblem problem = createProblem(1, 1);
+        problem.addCourse(1, 1);
+        problem.addCourseGroup(1, 1);
+        problem.addCourse(2, 1);
+        problem.addCourseGroup(2, 2);
+        
+        WeeklyPlan plan = generator.solve(problem, 4, 200);
+        
+        assertEquals(8, plan.getRequiredLessons());
+        assertEquals(5, plan.getLessons().size());
+        assertEquals(3, plan.getUnplacedLessons());
+        assertConflictFree(problem, plan);
+    }
+    
+    @Test
+    void solveShouldOnlyCountLessonsFixedInEveryWeekTowardsTargetTest() {
+        SchedulingProblem problem = createProblem(3, 2);
+        problem.setWeeks(2);
+        problem.addCourse(1, 1);
+        problem.addCourseGroup(1, 1);
+        problem.addCourse(2, 2);
+        problem.addCourseGroup(2, 2);
+        problem.addFixedLesson(0, 1, 1, 1, 0);
+        problem.addFixedLesson(1, 1, 1, 1, 1);
+        problem.addFixedLesson(2, 1, 2, 2, 0);
+        
+        WeeklyPlan plan = generator.solve(problem, 2, 1000);
+        
+        assertEquals(3, plan.getRequiredLessons());
+        assertEquals(1, plan.getLessons().stream().filter(lesson -> lesson.getCourseId() == 1).count());
+        assertEquals(2, plan.getLessons().stream().filter(lesson -> lesson.getCourseId() == 2).count());
+        assertConflictFree(problem, plan);
+    }
+    
+    private SchedulingProblem createProblem(int timeslots, int classrooms) {
+        SchedulingProblem problem = new SchedulingProblem();
+        for (int i = 1; i <= timeslots; i++) {
+            problem.addTimeslot(i);
+        }
+        for (int i = 1; i <= classrooms; i++) {
+            problem.addClassroom(i, 100);
+        }
+        for (int i = 1; i <= 3; i++) {
+            problem.setGroupSize(i, 25);
+        }
+        return problem;
+    }
+    
+    private void assertConflictFree(SchedulingProblem problem, WeeklyPlan plan) {
+        ScheduleIndex index = new ScheduleIndex();
+        problem.getTeacherByCourse().forEach((course, teacher) -> {
+            index.setCourseTeacher(course, teacher);
+            problem.getCourseGroups(course).forEach(group -> index.addCourseGroup(course, group));
+        });
+        problem.getCapacityByClassroom().forEach(index::setClassroomCapacity);
+        int id = 1;
+        for (int[] fixed : problem.getFixedLessons()) {
+            index.addLesson(id++, MONDAY.plusDays(fixed[0]), fixed[1], fixed[2], fixed[3]);
+        }
+        for (PlannedLesson planned : plan.getLessons()) {
+            Lesson lesson = createLesson(id++, planned);
+            assertEquals(0, index.findConflicts(lesson).size(), () -> index.findConflicts(lesson).toString());
+            index.addLesson(lesson.getId(), lesson.getDate(), planned.getTimeslotId(), planned.getCourseId(), 
+                            planned.getClassroomId());
+        }
+    }
+    
+    private Lesson createLesson(int id, PlannedLesson planned) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(planned.getTimeslotId());
+        Course course = new Course();
+        course.setId(planned.getCourseId());
+        Classroom classroom = new Classroom();
+        classroom.setId(planned.getClassroomId());
+        
+        Lesson lesson = new Lesson();
+        lesson.setId(id);
+        lesson.setDate(MONDAY.plusDays(planned.getDay()));
+        lesson.setTime(timeslot);
+        lesson.setCourse(course);
+        lesson.setClassroom(classroom);
+        return lesson;
+    }
+}
@@ -7,17 +7,25 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 
+import java.util.Arrays;
+
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
 import com.foxminded.university.controller.repository.ClassroomRepository;
 import com.foxminded.university.controller.repository.CourseRepository;
 import com.foxminded.university.controller.repository.FacultyRepository;
 import com.foxminded.university.controller.repository.GroupRepository;
 import com.foxminded.university.controller.repository.StudentRepository;
 import com.foxminded.university.controller.repository.TeacherRepository;
+import com.foxminded.university.model.AdministrativeOverview;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Teacher;
@@ -114,4 +122,31 @@ class AdministrativeServiceTest {
         verify(courseRepository).getByTeacher(any(Teacher.class));
     }
 
+    @Test
+    void getOverviewShouldPartitionGroupsAndTeachersByFacultyTest() {
+        FacultyRepository faculties = Mockito.mock(FacultyRepository.class);
+        GroupRepository groups = Mockito.mock(GroupRepository.class);
+        TeacherRepository teachers = Mockito.mock(TeacherRepository.class);
+        AdministrativeService service = new AdministrativeService(faculties, groups, studentRepository,
+                                                                  teachers, classroomRepository, courseRepository,
+                                                                  new QueryFanOut(new ConnectionMetrics(), 2, 5000));
+        Faculty faculty = new Faculty();
+        faculty.setId(1);
+        Group group = new Group();
+        group.setFaculty(faculty);
+        Teacher teacher = new Teacher();
+        teacher.setFaculty(faculty);
+        Mockito.when(faculties.getAll()).thenReturn(Arrays.asList(faculty));
+        Mockito.when(groups.getAll()).thenReturn(Arrays.asList(group));
+        Mockito.when(teachers.getAll()).thenReturn(Arrays.asList(teacher));
+        
+        AdministrativeOverview overview = service.getOverview();
+        
+        assertEquals(1, overview.getFaculties().size());
+        assertEquals(Arrays.asList(group), overview.getGroupsByFaculty().get(1));
+        assertEquals(Arrays.asList(teacher), overview.getTeachersByFaculty().get(1));
+        verify(groups, never()).getByFaculty(any(Faculty.class));
+        verify(teachers, never()).getByFaculty(any(Faculty.class));
+    }
+
 }
@@ -5,16 +5,48 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
 import com.foxminded.university.controller.repository.ClassroomRepository;
 import com.foxminded.university.controller.repository.CourseRepository;
 import com.foxminded.university.controller.repository.LessonRepository;
 import com.foxminded.university.controller.repository.TimeslotRepository;
-import com.foxminded.university.model.Teacher;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
+import com.foxminded.university.controller.schedule.TimetableGenerator;
+import com.foxminded.university.controller.schedule.WeeklyPlan;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonFormOptions;
+import com.foxminded.university.model.LessonSeriesResult;
+import com.foxminded.university.model.ScheduleConflict;
+import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimetableGenerationResult;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class LessonServiceTest {
@@ -26,10 +58,16 @@ class LessonServiceTest {
     ClassroomRepository classroomRepository;
     @Mock
     CourseRepository courseRepository;
+    @Mock
+    ScheduleConflictEngine scheduleConflictEngine;
+    @Mock
+    TimetableGenerator timetableGenerator;
     
     @InjectMocks
     LessonService lessonService;
     
+    QueryFanOut queryFanOut = new QueryFanOut(new ConnectionMetrics(), 2, 5000);
+    
     @BeforeAll
     void init() {
         MockitoAnnotations.initMocks(this);
@@ -41,6 +79,30 @@ class LessonServiceTest {
         verify(classroomRepository).getAll();
     }
 
+    @Test
+    void getLessonFormOptionsShouldCombineParallelLookupsTest() {
+        ClassroomRepository classrooms = Mockito.mock(ClassroomRepository.class);
+        TimeslotRepository timeslots = Mockito.mock(TimeslotRepository.class);
+        CourseRepository courses = Mockito.mock(CourseRepository.class);
+        LessonService service = new LessonService(classrooms, lessonRepository, timeslots, courses,
+                                                  Mockito.mock(ScheduleConflictEngine.class), 
+                                                  Mockito.mock(TimetableGenerator.class), queryFanOut);
+        List<Classroom> allClassrooms = Arrays.asList(new Classroom());
+        List<Timeslot> allTimeslots = Arrays.asList(new Timeslot(), new Timeslot());
+        List<Course> teacherCourses = Arrays.asList(new Course());
+        Mockito.when(classrooms.getAll()).thenReturn(allClassrooms);
+        Mockito.when(timeslots.getAll()).thenReturn(allTimeslots);
+        Mockito.when(courses.getByTeacher(any(Teacher.class))).thenReturn(teacherCourses);
+        
+        LessonFormOptions options = service.getLessonFormOptions(7);
+        
+        assertSame(allClassrooms, options.getClassrooms());
+        assertSame(allTimeslots, options.getTimeslots());
+        assertSame(teacherCourses, options.getCourses());
+        assertSame(allTimeslots, service.getLessonFormOptions().getTimeslots());
+        assertTrue(service.getLessonFormOptions().getCourses().isEmpty());
+    }
+
     @Test
     void getAllTimeslotsShouldCallTimeslotRepositoryTest() {
         lessonService.getAllTimeslots();
@@ -58,5 +120,188 @@ class LessonServiceTest {
         lessonService.createLesson("2020-01-31", 333, 444, 555);
         verify(lessonRepository).add(any(Lesson.class));
     }
-
+    
+    @Test
+    void createLessonSeriesShouldBatchWeeklyLessonsAndReportConflictsTest() {
+        LessonRepository lessons = Mockito.mock(LessonRepository.class);
+        LessonService service = new LessonService(classroomRepository, lessons, timeslotRepository, courseRepository,
+                                                  Mockito.mock(ScheduleConflictEngine.class), 
+                                                  Mockito.mock(TimetableGenerator.class), queryFanOut);
+        Mockito.when(lessons.addAll(anyList())).thenAnswer(invocation -> {
+            List<Lesson> batch = invocation.getArgument(0);
+            return Arrays.asList(batch.get(1));
+        });
+        
+        LessonSeriesResult result = service.createLessonSeries("2020-09-01", "2020-09-30", 
+                                                               DayOfWeek.MONDAY.getValue(), 1, 2, 3);
+        
+        assertEquals(Arrays.asList(LocalDate.of(2020, 9, 7), LocalDate.of(2020, 9, 21), LocalDate.of(2020, 9, 28)),
+                     result.getCreatedDates());
+        assertEquals(Arrays.asList(LocalDate.of(2020, 9, 14)), result.getConflictingDates());
+        verify(lessons).addAll(anyList());
+    }
+    
+    @Test
+    void createLessonSeriesShouldNotCallRepositoryForInvalidInputTest() {
+        LessonRepository lessons = Mockito.mock(LessonRepository.class);
+        LessonService service = new LessonService(classroomRepository, lessons, timeslotRepository, courseRepository,
+                                                  Mockito.mock(ScheduleConflictEngine.class), 
+                                                  Mockito.mock(TimetableGenerator.class), queryFanOut);
+        
+        LessonSeriesResult result = service.createLessonSeries("2020-09-", "2020-09-30", 1, 1, 2, 3);
+        assertTrue(result.getCreatedDates().isEmpty());
+        result = service.createLessonSeries("2020-09-01", "2020-09-30", 8, 1, 2, 3);
+        assertTrue(result.getCreatedDates().isEmpty());
+        
+        verify(lessons, never()).addAll(anyList());
+    }
+    
+    @Test
+    void createLessonSeriesShouldRejectTooLongRangeTest() {
+        LessonRepository lessons = Mockito.mock(LessonRepository.class);
+        ScheduleConflictEngine engine = Mockito.mock(ScheduleConflictEngine.class);
+        LessonService service = new LessonService(classroomRepository, lessons, timeslotRepository, courseRepository,
+                                                  engine, Mockito.mock(TimetableGenerator.class), queryFanOut);
+        
+        LessonSeriesResult result = service.createLessonSeries("2020-09-01", "9999-12-31", 1, 1, 2, 3);
+        assertTrue(result.getCreatedDates().isEmpty());
+        assertTrue(result.getConflictingDates().isEmpty());
+        
+        verifyNoInteractions(engine, lessons);
+    }
+    
+    @Test
+    void createLessonShouldNotCallRepositoryIfEngineReportsConflictsTest() {
+        LessonRepository lessons = Mockito.mock(LessonRepository.class);
+        ScheduleConflictEngine engine = Mockito.mock(ScheduleConflictEngine.class);
+        LessonService service = new LessonService(classroomRepository, lessons, timeslotRepository, courseRepository,
+                                                  engine, Mockito.mock(TimetableGenerator.class), queryFanOut);
+        List<ScheduleConflict> conflicts = Arrays.asList(new ScheduleConflict());
+        Mockito.when(engine.findConflicts(any(Lesson.class))).thenReturn(conflicts);
+        
+        assertEquals(conflicts, service.createLesson("2020-01-31", 1, 1, 1));
+        Lesson lesson = new Lesson();
+        lesson.setDate(LocalDate.of(2020, 1, 31));
+        lesson.setTime(new Timeslot());
+        assertEquals(conflicts, service.updateLesson(lesson));
+        
+        verify(lessons, never()).add(any(Lesson.class));
+        verify(lessons, never()).update(any(Lesson.class));
+    }
+    
+    @Test
+    void createLessonShouldCheckConflictsOfSameSlotOnlyAfterPreviousWriteTest() throws Exception {
+        LessonRepository lessons = Mockito.mock(LessonRepository.class);
+        ScheduleConflictEngine engine = Mockito.mock(ScheduleConflictEngine.class);
+        LessonService service = new LessonService(classroomRepository, lessons, timeslotRepository, courseRepository,
+                                                  engine, Mockito.mock(TimetableGenerator.class), queryFanOut);
+        CountDownLatch adding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(engine.findConflicts(any(Lesson.class))).thenReturn(Collections.emptyList());
+        Mockito.doAnswer(invocation -> {
+            adding.countDown();
+            release.await();
+            return null;
+        }).when(lessons).add(any(Lesson.class));
+        
+        Thread first = new Thread(() -> service.createLesson("2020-01-31", 1, 1, 1));
+        first.start();
+        assertTrue(adding.await(5, TimeUnit.SECONDS));
+        Thread second = new Thread(() -> service.createLesson("2020-01-31", 1, 2, 2));
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        verify(engine).findConflicts(any(Lesson.class));
+        
+        release.countDown();
+        first.join();
+        second.join();
+        verify(engine, Mockito.times(2)).findConflicts(any(Lesson.class));
+    }
+    
+    @Test
+    void generateTimetableShouldRepeatWeeklyPlanAndInsertItInOneBatchTest() {
+        LessonRepository lessons = Mockito.mock(LessonRepository.class);
+        TimetableGenerator generator = Mockito.mock(TimetableGenerator.class);
+        LessonService service = new LessonService(classroomRepository, lessons, timeslotRepository, courseRepository,
+                                                  Mockito.mock(ScheduleConflictEngine.class), generator, queryFanOut);
+        WeeklyPlan plan = new WeeklyPlan();
+        plan.setRequiredLessons(3);
+        plan.setUnplacedLessons(1);
+        plan.addLesson(0, 1, 2, 3);
+        plan.addLesson(4, 2, 2, 3);
+        Mockito.when(generator.generate(eq(LocalDate.of(2020, 9, 7)), eq(2), eq(3), anyLong())).thenReturn(plan);
+        Mockito.when(lessons.addAll(anyList())).thenAnswer(invocation -> {
+            List<Lesson> batch = invocation.getArgument(0);
+            assertEquals(Arrays.asList(LocalDate.of(2020, 9, 7), LocalDate.of(2020, 9, 11), 
+                                       LocalDate.of(2020, 9, 14), LocalDate.of(2020, 9, 18)), 
+                         batch.stream().map(Lesson::getDate).collect(Collectors.toList()));
+            return Arrays.asList(batch.get(3));
+        });
+        
+        TimetableGenerationResult result = service.generateTimetable("2020-09-02", 2, 3, 10);
+        
+        assertEquals(2, result.getPlacedLessons());
+        assertEquals(1, result.getUnplacedLessons());
+        assertEquals(3, result.getCreatedLessons());
+        assertEquals(1, result.getRejectedLessons());
+        verify(lessons).addAll(anyList());
+        
+        service.generateTimetable("2020-09-", 2, 3, 10);
+        verify(generator).generate(any(LocalDate.class), anyInt(), anyInt(), anyLong());
+        verify(lessons).addAll(anyList());
+    }
+    
+    @Test
+    void generateTimetableShouldSkipConflictingLessonsAndCapWeeksTest() {
+        LessonRepository lessons = Mockito.mock(LessonRepository.class);
+        TimetableGenerator generator = Mockito.mock(TimetableGenerator.class);
+        ScheduleConflictEngine engine = Mockito.mock(ScheduleConflictEngine.class);
+        LessonService service = new LessonService(classroomRepository, lessons, timeslotRepository, courseRepository,
+                                                  engine, generator, queryFanOut);
+        WeeklyPlan plan = new WeeklyPlan();
+        plan.addLesson(0, 1, 2, 3);
+        Mockito.when(generator.generate(any(LocalDate.class), anyInt(), anyInt(), anyLong())).thenReturn(plan);
+        Mockito.when(engine.findConflicts(any(Lesson.class))).thenAnswer(invocation -> {
+            Lesson lesson = invocation.getArgument(0);
+            return lesson.getDate().equals(LocalDate.of(2020, 9, 14)) 
+                    ? Arrays.asList(new ScheduleConflict()) : Collections.emptyList();
+        });
+        Mockito.when(lessons.addAll(anyList())).thenReturn(Collections.emptyList());
+        
+        TimetableGenerationResult result = service.generateTimetable("2020-09-07", 1000, 1, 10);
+        
+        assertEquals(52, result.getWeeks());
+        assertEquals(51, result.getCreatedLessons());
+        assertEquals(1, result.getRejectedLessons());
+        verify(generator).generate(eq(LocalDate.of(2020, 9, 7)), eq(52), eq(1), anyLong());
+        verify(lessons).addAll(Mockito.argThat(batch -> batch.size() == 51 && batch.stream()
+                .noneMatch(lesson -> lesson.getDate().equals(LocalDate.of(2020, 9, 14)))));
+    }
+    
+    @Test
+    void generateTimetableShouldRejectGenerationWhileAnotherIsRunningTest() throws Exception {
+        TimetableGenerator generator = Mockito.mock(TimetableGenerator.class);
+        LessonService service = new LessonService(classroomRepository, Mockito.mock(LessonRepository.class), 
+                                                  timeslotRepository, courseRepository, 
+                                                  Mockito.mock(ScheduleConflictEngine.class), generator, queryFanOut);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(generator.generate(any(LocalDate.class), anyInt(), anyInt(), anyLong())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new WeeklyPlan();
+        });
+        CompletableFuture<TimetableGenerationResult> first = 
+                CompletableFuture.supplyAsync(() -> service.generateTimetable("2020-09-07", 1, 1, 10));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        
+        TimetableGenerationResult second = service.generateTimetable("2020-09-07", 1, 1, 10);
+        release.countDown();
+        
+        assertTrue(second.isBusy());
+        assertFalse(first.get(5, TimeUnit.SECONDS).isBusy());
+        verify(generator).generate(any(LocalDate.class), anyInt(), anyInt(), anyLong());
+    }
 }
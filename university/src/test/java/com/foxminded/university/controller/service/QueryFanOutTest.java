@@ -0,0 +1,134 @@
+package com.foxminded.university.controller.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
+
+import com.foxminded.university.controller.metrics.ConnectionMetrics;
+import com.foxminded.university.controller.metrics.MeteredJdbcTemplate;
+import com.foxminded.university.controller.metrics.QueryMetrics;
+import com.foxminded.university.controller.metrics.SlowQueryLog;
+
+class QueryFanOutTest {
+    private ConnectionMetrics connectionMetrics;
+    private QueryFanOut queryFanOut;
+    
+    @BeforeEach
+    void init() {
+        connectionMetrics = new ConnectionMetrics();
+        queryFanOut = new QueryFanOut(connectionMetrics, 2, 1000);
+    }
+    
+    @AfterEach
+    void shutdown() {
+        queryFanOut.destroy();
+    }
+    
+    @Test
+    void forkedLookupsShouldRunConcurrentlyTest() {
+        CountDownLatch started = new CountDownLatch(2);
+        QueryFanOut.Batch batch = queryFanOut.begin();
+        
+        CompletableFuture<Boolean> first = batch.fork(() -> awaitOther(started));
+        CompletableFuture<Boolean> second = batch.fork(() -> awaitOther(started));
+        
+        assertTrue(batch.join(first));
+        assertTrue(batch.join(second));
+        assertEquals(2, queryFanOut.getForks());
+    }
+    
+    @Test
+    void joinShouldRethrowLookupFailureTest() {
+        QueryFanOut.Batch batch = queryFanOut.begin();
+        
+        CompletableFuture<Object> failed = batch.fork(() -> {
+            throw new IllegalArgumentException("failed");
+        });
+        
+        assertEquals("failed", assertThrows(IllegalArgumentException.class, () -> batch.join(failed)).getMessage());
+    }
+    
+    @Test
+    void joinShouldThrowQueryTimeoutAfterDeadlineTest() {
+        QueryFanOut fanOut = new QueryFanOut(connectionMetrics, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        QueryFanOut.Batch batch = fanOut.begin();
+        
+        CompletableFuture<Boolean> slow = batch.fork(() -> awaitRelease(release));
+        
+        assertThrows(QueryTimeoutException.class, () -> batch.join(slow));
+        assertEquals(1, fanOut.getTimeouts());
+        release.countDown();
+        fanOut.destroy();
+    }
+    
+    @Test
+    void joinShouldAddForkedConnectionHoldTimeToCurrentRequestTest() {
+        connectionMetrics.startRequest();
+        connectionMetrics.recordHold(10);
+        QueryFanOut.Batch batch = queryFanOut.begin();
+        
+        batch.join(batch.fork(() -> {
+            connectionMetrics.recordHold(5);
+            return null;
+        }));
+        
+        assertEquals(15, connectionMetrics.takeRequestHoldTime());
+    }
+    
+    @Test
+    void forkedLookupShouldUseRemainingDeadlineAsQueryTimeoutTest() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        JdbcTemplate jdbcTemplate = new MeteredJdbcTemplate(dataSource, new QueryMetrics(), 
+                                                            new SlowQueryLog(dataSource, 10000, 0, false, 2));
+        QueryFanOut.Batch batch = queryFanOut.begin();
+        
+        batch.join(batch.fork(() -> jdbcTemplate.execute((StatementCallback<Integer>) Statement::getQueryTimeout)));
+        jdbcTemplate.execute((StatementCallback<Integer>) Statement::getQueryTimeout);
+        
+        verify(statement, times(1)).setQueryTimeout(1);
+        verify(statement, times(1)).setQueryTimeout(anyInt());
+    }
+    
+    private boolean awaitOther(CountDownLatch started) {
+        started.countDown();
+        try {
+            return started.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private boolean awaitRelease(CountDownLatch release) {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
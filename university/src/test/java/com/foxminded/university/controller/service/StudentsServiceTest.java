@@ -1,18 +1,30 @@
 package com.foxminded.university.controller.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import com.foxminded.university.controller.repository.GroupRepository;
 import com.foxminded.university.controller.repository.StudentRepository;
 import com.foxminded.university.model.Student;
+import com.foxminded.university.model.StudentImportResult;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class StudentsServiceTest {
@@ -46,4 +58,39 @@ class StudentsServiceTest {
         studentsService.getGroupById(333);
         verify(groupRepository).getById(333);
     }
+
+    @Test
+    void getAllGroupsShouldCallGroupRepositoryBulkLoaderTest() {
+        studentsService.getAllGroups();
+        verify(groupRepository).getAllWithDetails();
+        verify(groupRepository, never()).getAll();
+    }
+    
+    @Test
+    void importStudentsShouldAddValidRowsAndReportRejectedOnesTest() throws IOException {
+        GroupRepository groups = Mockito.mock(GroupRepository.class);
+        StudentRepository students = Mockito.mock(StudentRepository.class);
+        StudentsService service = new StudentsService(groups, students);
+        Mockito.when(groups.getIdsByName()).thenReturn(Collections.singletonMap("cs-20", 1));
+        List<Student> imported = new ArrayList<>();
+        Mockito.doAnswer(invocation -> imported.addAll(invocation.getArgument(0)))
+               .when(students).addAll(anyList());
+        String csv = "first_name,last_name,group_name\n"
+                   + "John,Smith,cs-20\n"
+                   + "\"Mary, Ann\",Lee,cs-20\n"
+                   + "Bob,Brown,unknown\n"
+                   + "\n"
+                   + "Tom,cs-20\n";
+        
+        StudentImportResult result = service.importStudents(new StringReader(csv));
+        
+        assertEquals(2, result.getImportedCount());
+        assertEquals(2, result.getRejectedCount());
+        assertEquals(Arrays.asList("line 4: unknown group 'unknown'", "line 6: expected 3 fields but found 2"),
+                     result.getRejectedRows());
+        assertEquals("Mary, Ann", imported.get(1).getFirstName());
+        assertEquals(1, imported.get(1).getGroup().getId());
+        verify(groups).getIdsByName();
+        verify(students).addAll(anyList());
+    }
 }
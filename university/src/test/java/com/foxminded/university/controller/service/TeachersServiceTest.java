@@ -7,11 +7,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import com.foxminded.university.controller.repository.CourseRepository;
+import com.foxminded.university.controller.repository.GroupRepository;
 import com.foxminded.university.controller.repository.TeacherRepository;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Teacher;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -20,6 +23,8 @@ class TeachersServiceTest {
     CourseRepository courseRepository;
     @Mock
     TeacherRepository teacherRepository;
+    @Mock
+    GroupRepository groupRepository;
     
     @InjectMocks
     TeachersService teachersService;
@@ -53,4 +58,18 @@ class TeachersServiceTest {
         verify(courseRepository).getById(4444);
     }
 
+    @Test
+    void getAllShouldLoadTeachersWithCoursesInOneCallTest() {
+        teachersService.getAll();
+        verify(teacherRepository).getAllWithCourses();
+        verify(courseRepository, never()).getByTeacher(any(Teacher.class));
+    }
+
+    @Test
+    void getAllGroupsShouldLoadGroupsWithCoursesInOneCallTest() {
+        teachersService.getAllGroups();
+        verify(groupRepository).getAllWithCourses();
+        verify(courseRepository, never()).getByGroup(any(Group.class));
+    }
+
 }
@@ -7,23 +7,44 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 
+import com.foxminded.university.controller.cache.ScheduleVersion;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.repository.StudentRepository;
 import com.foxminded.university.controller.repository.TimetableRepository;
 import com.foxminded.university.controller.util.DateIntervalGenerator;
+import com.foxminded.university.controller.util.TimetableFormatter;
 import com.foxminded.university.model.Teacher;
-import com.foxminded.university.model.Student;
+import com.foxminded.university.model.Group;
 import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class TimetableServiceTest {
     @Mock
     TimetableRepository timetableRepository;
     @Mock
+    StudentRepository studentRepository;
+    @Mock
     DateIntervalGenerator dateIntervalGenerator;
+    @Spy
+    TimetableCache timetableCache = new TimetableCache(100, 60);
+    @Spy
+    TimetableFormatter timetableFormatter = new TimetableFormatter();
+    @Spy
+    ScheduleVersion scheduleVersion = new ScheduleVersion();
     
     @InjectMocks
     TimetableService timetableService;
@@ -49,7 +70,7 @@ class TimetableServiceTest {
     }
 
     @Test
-    void getStudentTimetableShouldCallTimetableRepositoryAndDateIntervalGeneratorTest() {
+    void getStudentTimetableShouldResolveGroupAndCallTimetableRepositoryTest() {
         String startDate = "2000-01-01";
         String endDate = "2001-01-01";
         LocalDate start = LocalDate.parse(startDate);
@@ -57,9 +78,77 @@ class TimetableServiceTest {
         Mockito.when(dateIntervalGenerator.getFromString(startDate, endDate))
                .thenReturn(new DateInterval(start, end));
         
+        Mockito.when(studentRepository.getGroupId(222)).thenReturn(1);
+        
         timetableService.getStudentTimetable(startDate, endDate, 222);
         verify(dateIntervalGenerator).getFromString(startDate, endDate);
-        verify(timetableRepository).getByStudent(any(Student.class), any(DateInterval.class));
+        verify(studentRepository).getGroupId(222);
+        verify(timetableRepository).getByGroup(any(Group.class), any(DateInterval.class));
     }
 
+    @Test
+    void getStudentTimetableShouldShareCachedTimetableWithinGroupTest() {
+        String startDate = "2002-01-01";
+        String endDate = "2002-01-07";
+        DateInterval dateInterval = new DateInterval(LocalDate.parse(startDate), LocalDate.parse(endDate));
+        TimetableRepository timetables = Mockito.mock(TimetableRepository.class);
+        StudentRepository students = Mockito.mock(StudentRepository.class);
+        DateIntervalGenerator generator = Mockito.mock(DateIntervalGenerator.class);
+        TimetableService service = new TimetableService(timetables, students, generator, 
+                                                         new TimetableCache(100, 60), new TimetableFormatter(), 
+                                                         new ScheduleVersion());
+        Mockito.when(generator.getFromString(startDate, endDate)).thenReturn(dateInterval);
+        Mockito.when(students.getGroupId(Mockito.anyInt())).thenReturn(7);
+        Mockito.when(timetables.getByGroup(any(Group.class), any(DateInterval.class))).thenReturn(new Timetable());
+        
+        Timetable first = service.getStudentTimetable(startDate, endDate, 333);
+        Timetable second = service.getStudentTimetable(startDate, endDate, 334);
+        
+        assertSame(first, second);
+        verify(timetables).getByGroup(any(Group.class), any(DateInterval.class));
+    }
+    
+    @Test
+    void getTeacherTimetableGridShouldStreamLessonsForLongRangeTest() {
+        String startDate = "2003-01-01";
+        String endDate = "2003-06-30";
+        DateInterval dateInterval = new DateInterval(LocalDate.parse(startDate), LocalDate.parse(endDate));
+        TimetableRepository timetables = Mockito.mock(TimetableRepository.class);
+        DateIntervalGenerator generator = Mockito.mock(DateIntervalGenerator.class);
+        TimetableService service = new TimetableService(timetables, Mockito.mock(StudentRepository.class), 
+                                                         generator, new TimetableCache(100, 60), 
+                                                         new TimetableFormatter(), new ScheduleVersion());
+        Mockito.when(generator.getFromString(startDate, endDate)).thenReturn(dateInterval);
+        
+        TimetableGrid grid = service.getTeacherTimetableGrid(startDate, endDate, 1, new ArrayList<>());
+        
+        assertSame(dateInterval, grid.getDateInterval());
+        verify(timetables).streamByTeacher(any(Teacher.class), eq(dateInterval), any());
+        verify(timetables, never()).getByTeacher(any(Teacher.class), any(DateInterval.class));
+    }
+    
+    @Test
+    void getStudentTimetableGridShouldUseCachedTimetableForShortRangeTest() {
+        String startDate = "2004-01-05";
+        String endDate = "2004-01-11";
+        DateInterval dateInterval = new DateInterval(LocalDate.parse(startDate), LocalDate.parse(endDate));
+        TimetableRepository timetables = Mockito.mock(TimetableRepository.class);
+        StudentRepository students = Mockito.mock(StudentRepository.class);
+        DateIntervalGenerator generator = Mockito.mock(DateIntervalGenerator.class);
+        TimetableService service = new TimetableService(timetables, students, generator, 
+                                                         new TimetableCache(100, 60), new TimetableFormatter(), 
+                                                         new ScheduleVersion());
+        Timetable timetable = new Timetable();
+        timetable.setDateInterval(dateInterval);
+        timetable.setLessons(new ArrayList<>());
+        Mockito.when(generator.getFromString(startDate, endDate)).thenReturn(dateInterval);
+        Mockito.when(students.getGroupId(1)).thenReturn(1);
+        Mockito.when(timetables.getByGroup(any(Group.class), any(DateInterval.class))).thenReturn(timetable);
+        
+        TimetableGrid grid = service.getStudentTimetableGrid(startDate, endDate, 1, new ArrayList<>());
+        
+        assertEquals(7, grid.getDays());
+        verify(timetables).getByGroup(any(Group.class), eq(dateInterval));
+        verify(timetables, never()).streamByGroup(any(Group.class), any(DateInterval.class), any());
+    }
 }
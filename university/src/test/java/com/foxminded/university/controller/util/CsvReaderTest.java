@@ -0,0 +1,23 @@
+package com.foxminded.university.controller.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+    
+    @Test
+    void readRecordShouldSplitFieldsAndUnquoteValuesTest() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a, b ,c\n\"x, y\",\"say \"\"hi\"\"\",\n"));
+        
+        assertEquals(Arrays.asList("a", "b", "c"), reader.readRecord());
+        assertEquals(1, reader.getLineNumber());
+        assertEquals(Arrays.asList("x, y", "say \"hi\"", ""), reader.readRecord());
+        assertEquals(2, reader.getLineNumber());
+        assertNull(reader.readRecord());
+    }
+}
@@ -55,6 +55,16 @@ class DateIntervalGeneratorTest {
         assertEquals(endOfCurrentMonth, actual.getEndDate());
     }
     
+    @ParameterizedTest
+    @CsvSource({"2020, 6, 18, 6, '2020-06-01 - 2020-11-30'",
+                "2020, 9, 1, 6, '2020-09-01 - 2021-02-28'",
+                "2020, 1, 31, 1, '2020-01-01 - 2020-01-31'"})
+    void getMonthsByDateShouldReturnIntervalFromFirstDayOfMonthTest(int year, int month, int day, int months, 
+                                                                   String expected) {
+        DateInterval actual = dateIntervalGenerator.getMonthsByDate(LocalDate.of(year, month, day), months);
+        assertEquals(expected, actual.getStartDate().toString() + " - " + actual.getEndDate().toString());
+    }
+    
     @ParameterizedTest
     @CsvSource({"1970, 12, 1, '1970-11-30 - 1970-12-06'",
                 "2020, 7, 14, '2020-07-13 - 2020-07-19'",
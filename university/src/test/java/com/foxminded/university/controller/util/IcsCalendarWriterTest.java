@@ -0,0 +1,103 @@
+package com.foxminded.university.controller.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.Test;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+
+class IcsCalendarWriterTest {
+    private static final ZoneId KYIV = ZoneId.of("Europe/Kiev");
+    
+    @Test
+    void writeLessonShouldWriteEventWithTimesFromTimeslotTest() {
+        StringWriter output = new StringWriter();
+        IcsCalendarWriter calendar = new IcsCalendarWriter(output, "test", KYIV);
+        
+        calendar.begin();
+        calendar.writeLesson(createLesson(7, "09:00 - 10:30", "Math, basics; part 1"));
+        calendar.end();
+        
+        String actual = output.toString();
+        assertTrue(actual.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(actual.endsWith("END:VCALENDAR\r\n"));
+        assertTrue(actual.contains("UID:lesson-7@university\r\n"));
+        assertTrue(actual.contains("X-WR-TIMEZONE:Europe/Kiev\r\n"));
+        assertTrue(actual.contains("DTSTART:20200618T060000Z\r\n"));
+        assertTrue(actual.contains("DTEND:20200618T073000Z\r\n"));
+        assertTrue(actual.contains("SUMMARY:Math\\, basics\\; part 1\r\n"));
+        assertEquals(1, calendar.getEventsCount());
+    }
+    
+    @Test
+    void writeLessonShouldWriteAllDayEventIfTimeslotHasNoTimesTest() {
+        StringWriter output = new StringWriter();
+        IcsCalendarWriter calendar = new IcsCalendarWriter(output, "test", KYIV);
+        
+        calendar.writeLesson(createLesson(1, "first pair", "Math"));
+        
+        assertTrue(output.toString().contains("DTSTART;VALUE=DATE:20200618\r\n"));
+        assertTrue(output.toString().contains("DTEND;VALUE=DATE:20200619\r\n"));
+    }
+    
+    @Test
+    void writeLessonShouldFoldLinesLongerThanSeventyFiveCharactersTest() {
+        StringWriter output = new StringWriter();
+        IcsCalendarWriter calendar = new IcsCalendarWriter(output, "test", KYIV);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            name.append('a');
+        }
+        
+        calendar.writeLesson(createLesson(1, "09:00 - 10:30", name.toString()));
+        
+        for (String line : output.toString().split("\r\n")) {
+            assertTrue(line.length() <= 75);
+        }
+        assertTrue(output.toString().replace("\r\n ", "").contains("SUMMARY:" + name + "\r\n"));
+    }
+    
+    @Test
+    void writeLessonShouldFoldLinesOnUtf8OctetsWithoutSplittingCharactersTest() {
+        StringWriter output = new StringWriter();
+        IcsCalendarWriter calendar = new IcsCalendarWriter(output, "test", KYIV);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            name.append("\u041C\u0430\u0442\u0435\u043C\u0430\u0442\u0438\u043A\u0430 \uD83D\uDCDA ");
+        }
+        
+        calendar.writeLesson(createLesson(1, "09:00 - 10:30", name.toString()));
+        
+        for (String line : output.toString().split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75);
+            assertFalse(Character.isHighSurrogate(line.charAt(line.length() - 1)));
+        }
+        assertTrue(output.toString().replace("\r\n ", "").contains("SUMMARY:" + name + "\r\n"));
+    }
+    
+    private Lesson createLesson(int id, String timeslotDescription, String courseName) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(1);
+        timeslot.setDescription(timeslotDescription);
+        Course course = new Course();
+        course.setName(courseName);
+        Classroom classroom = new Classroom();
+        classroom.setNumber("101A");
+        
+        Lesson lesson = new Lesson();
+        lesson.setId(id);
+        lesson.setDate(LocalDate.of(2020, 6, 18));
+        lesson.setTime(timeslot);
+        lesson.setCourse(course);
+        lesson.setClassroom(classroom);
+        return lesson;
+    }
+}
@@ -0,0 +1,116 @@
+package com.foxminded.university.controller.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
+
+class TimetableFormatterTest {
+    private static final LocalDate MONDAY = LocalDate.of(2020, 6, 15);
+    
+    TimetableFormatter timetableFormatter = new TimetableFormatter();
+    
+    @Test
+    void generateFormattedTableShouldPlaceLessonsByDateAndTimeslotTest() {
+        List<Timeslot> timeslots = Arrays.asList(timeslot(5), timeslot(2), timeslot(9));
+        Lesson first = lesson(MONDAY.plusDays(3), 2);
+        Lesson second = lesson(MONDAY.plusDays(6), 9);
+        
+        TimetableGrid grid = timetableFormatter.generateFormattedTable(timetable(first, second), timeslots);
+        
+        assertEquals(7, grid.getDays());
+        assertEquals(7, grid.getRows().size());
+        assertEquals(MONDAY.plusDays(3), grid.getRows().get(3).getDate());
+        assertSame(first, grid.getLesson(3, 1));
+        assertSame(second, grid.getLesson(6, 2));
+        assertNull(grid.getLesson(0, 0));
+        assertTrue(grid.getUnplacedLessons().isEmpty());
+        assertTrue(grid.getConflictingLessons().isEmpty());
+    }
+
+    @Test
+    void generateFormattedTableShouldReportLessonsWithUnknownTimeslotTest() {
+        List<Timeslot> timeslots = Arrays.asList(timeslot(1), timeslot(2));
+        Lesson unknown = lesson(MONDAY, 100);
+        Lesson negative = lesson(MONDAY, -1);
+        Lesson outside = lesson(MONDAY.plusDays(30), 1);
+        
+        TimetableGrid grid = timetableFormatter.generateFormattedTable(timetable(unknown, negative, outside), timeslots);
+        
+        assertEquals(Arrays.asList(unknown, negative, outside), grid.getUnplacedLessons());
+    }
+
+    @Test
+    void generateFormattedTableShouldPlaceLessonsWithSparseTimeslotIdsTest() {
+        List<Timeslot> timeslots = Arrays.asList(timeslot(Integer.MAX_VALUE), timeslot(1), timeslot(1));
+        Lesson large = lesson(MONDAY, Integer.MAX_VALUE);
+        Lesson duplicated = lesson(MONDAY.plusDays(1), 1);
+        
+        TimetableGrid grid = timetableFormatter.generateFormattedTable(timetable(large, duplicated), timeslots);
+        
+        assertSame(large, grid.getLesson(0, 0));
+        assertSame(duplicated, grid.getLesson(1, 1));
+        assertSame(grid.getRows(), grid.getRows());
+        assertTrue(grid.getUnplacedLessons().isEmpty());
+    }
+
+    @Test
+    void generateFormattedTableShouldReportCollidingLessonsTest() {
+        List<Timeslot> timeslots = Arrays.asList(timeslot(1), timeslot(2));
+        Lesson first = lesson(MONDAY, 1);
+        Lesson second = lesson(MONDAY, 1);
+        
+        TimetableGrid grid = timetableFormatter.generateFormattedTable(timetable(first, second), timeslots);
+        
+        assertSame(first, grid.getLesson(0, 0));
+        assertEquals(Arrays.asList(second), grid.getConflictingLessons());
+    }
+    
+    @Test
+    void generateFormattedTableShouldPlaceStreamedLessonsTest() {
+        List<Timeslot> timeslots = Arrays.asList(timeslot(1), timeslot(2));
+        DateInterval semester = new DateInterval(MONDAY, MONDAY.plusDays(119));
+        Lesson first = lesson(MONDAY.plusDays(100), 2);
+        Lesson second = lesson(MONDAY.plusDays(119), 1);
+        
+        TimetableGrid grid = timetableFormatter.generateFormattedTable(semester, timeslots, consumer -> {
+            consumer.accept(first);
+            consumer.accept(second);
+        });
+        
+        assertEquals(120, grid.getDays());
+        assertSame(semester, grid.getDateInterval());
+        assertSame(first, grid.getLesson(100, 1));
+        assertSame(second, grid.getLesson(119, 0));
+    }
+    
+    private Timetable timetable(Lesson... lessons) {
+        Timetable timetable = new Timetable();
+        timetable.setDateInterval(new DateInterval(MONDAY, MONDAY.plusDays(6)));
+        timetable.setLessons(new ArrayList<>(Arrays.asList(lessons)));
+        return timetable;
+    }
+    
+    private Timeslot timeslot(int id) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(id);
+        return timeslot;
+    }
+    
+    private Lesson lesson(LocalDate date, int timeslotId) {
+        Lesson lesson = new Lesson();
+        lesson.setDate(date);
+        lesson.setTime(timeslot(timeslotId));
+        return lesson;
+    }
+}
@@ -8,18 +8,22 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
 import javax.servlet.ServletContext;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -41,7 +45,12 @@ import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.metrics.SlowQueryLog;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.controller.service.AdministrativeService;
+import com.foxminded.university.model.AdministrativeOverview;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Group;
@@ -56,6 +65,18 @@ class AdministrativeControllerTest {
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private TimetableCache timetableCache;
+    
+    @Autowired
+    private ScheduleConflictEngine scheduleConflictEngine;
+    
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+    
     private MockMvc mockMvc;
     
     @Mock
@@ -72,6 +93,14 @@ class AdministrativeControllerTest {
         this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
         administrativeController = new AdministrativeController(administrativeService);   
     }
+    
+    @BeforeEach
+    void resetCaches() {
+        referenceDataCache.invalidateAll();
+        timetableCache.invalidateAll();
+        scheduleConflictEngine.invalidateLessons();
+        scheduleConflictEngine.invalidateReferenceData();
+    }
      
     @Order(1)
     @Test
@@ -99,16 +128,20 @@ class AdministrativeControllerTest {
 
         Faculty faculty = new Faculty();
         faculty.setId(1);
-        Mockito.when(administrativeService.getAllFaculties()).thenReturn(Arrays.asList(faculty));
+        AdministrativeOverview overview = new AdministrativeOverview();
+        overview.setFaculties(Arrays.asList(faculty));
+        overview.setGroupsByFaculty(Collections.emptyMap());
+        overview.setTeachersByFaculty(Collections.emptyMap());
+        Mockito.when(administrativeService.getOverview()).thenReturn(overview);
         
         administrativeController.getInfo(model);
 
         verify(model).addAttribute(anyString(), any(Faculty.class));
         verify(model).addAttribute(anyString(), any(Teacher.class));
         verify(model).addAttribute(anyString(), any(Group.class));
-        verify(administrativeService).getAllFaculties();
-        verify(administrativeService).getGroupsByFaculty(anyInt());
-        verify(administrativeService).getTeachersByFaculty(anyInt());    
+        verify(administrativeService).getOverview();
+        verify(administrativeService, never()).getGroupsByFaculty(anyInt());
+        verify(administrativeService, never()).getTeachersByFaculty(anyInt());    
     }
 
     @Order(3)
@@ -221,7 +254,7 @@ class AdministrativeControllerTest {
         
         administrativeController.getTeacherById("1", model);
         verify(administrativeService).getTeacherById(anyInt());
-        verify(administrativeService, times(2)).getAllFaculties();    
+        verify(administrativeService).getAllFaculties();    
     }
 
     @Order(10)
@@ -283,7 +316,7 @@ class AdministrativeControllerTest {
         
         administrativeController.getGroupById("1", model);
         verify(administrativeService).getGroupById(anyInt());
-        verify(administrativeService, times(3)).getAllFaculties();   
+        verify(administrativeService, times(2)).getAllFaculties();   
     }
 
     @Order(14)
@@ -299,4 +332,41 @@ class AdministrativeControllerTest {
         administrativeController.updateGroup(new Group(), model);
         verify(administrativeService).updateGroup(any(Group.class));    
     }
+    
+    @Order(15)
+    @Test
+    void getMetricsShouldExposeRepositoryStatementsInPrometheusFormatTest() throws Exception {
+        this.mockMvc.perform(get("/admin"))
+                    .andExpect(status().isOk());
+        
+        this.mockMvc.perform(get("/admin/metrics"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                    .andExpect(content().string(Matchers.containsString(
+                            "# TYPE university_query_duration_seconds summary")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "university_query_duration_seconds_count{statement=\"FacultyRepository.")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "university_query_rows_total{statement=\"FacultyRepository.")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "university_pool_connections{state=\"active\"} ")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "university_pool_acquire_seconds_count ")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "university_request_connection_hold_seconds_count{endpoint=\"GET /admin\"} ")));
+    }
+    
+    @Order(16)
+    @Test
+    void getSlowQueriesShouldReturnRecentSlowQueriesTest() throws Exception {
+        slowQueryLog.record("TimetableRepository.getLessonsByGroup", 750_000_000, 
+                            "INSERT INTO lessons (lesson_date) VALUES (?)", new Object[] {"2020-06-18"});
+        
+        this.mockMvc.perform(get("/admin/slowqueries"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("admin/slowqueries"))
+                    .andExpect(model().attribute("slowQueries", Matchers.not(Matchers.empty())))
+                    .andExpect(content().string(Matchers.containsString("TimetableRepository.getLessonsByGroup")))
+                    .andExpect(content().string(Matchers.containsString("750.0")));
+    }
 }
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -15,6 +16,7 @@ import static org.mockito.ArgumentMatchers.any;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -22,6 +24,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mock.web.MockServletContext;
@@ -35,8 +38,13 @@ import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.FragmentCache;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.controller.service.LessonService;
 import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.LessonFormOptions;
 import com.foxminded.university.model.Timeslot;
 
 @ExtendWith(SpringExtension.class)
@@ -49,6 +57,18 @@ class LessonControllerTest {
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private TimetableCache timetableCache;
+    
+    @Autowired
+    private FragmentCache fragmentCache;
+    
+    @Autowired
+    private ScheduleConflictEngine scheduleConflictEngine;
+    
     private MockMvc mockMvc;
     
     @Mock
@@ -65,6 +85,15 @@ class LessonControllerTest {
         MockitoAnnotations.initMocks(this);
         this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
         this.lessonController = new LessonController(lessonService);
+        Mockito.when(lessonService.getLessonFormOptions()).thenReturn(new LessonFormOptions());
+    }
+    
+    @BeforeEach
+    void resetCaches() {
+        referenceDataCache.invalidateAll();
+        timetableCache.invalidateAll();
+        scheduleConflictEngine.invalidateLessons();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     @Order(1)
@@ -89,8 +118,7 @@ class LessonControllerTest {
                     .andExpect(model().attributeExists("timeslot"));
         
         lessonController.lessonsInfo(model);
-        verify(lessonService).getAllClassrooms();
-        verify(lessonService).getAllTimeslots();
+        verify(lessonService).getLessonFormOptions();
     }
 
     @Order(3)
@@ -197,4 +225,56 @@ class LessonControllerTest {
         lessonController.deleteTimeslot("10", model);
         verify(lessonService).deleteTimeslot(10);
     }
+    
+    @Test
+    void findFreeClassroomsTest() throws Exception {
+        this.mockMvc.perform(get("/lesson/freeclassrooms"))
+                    .andExpect(view().name("lesson/freeclassrooms"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attributeDoesNotExist("classrooms"));
+        
+        this.mockMvc.perform(get("/lesson/freeclassrooms")
+                    .param("date", "2020-06-18")
+                    .param("timeslot", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("classrooms", Matchers.contains(
+                            Matchers.hasProperty("number", Matchers.equalTo("102A")))));
+        
+        this.mockMvc.perform(get("/lesson/freeclassrooms")
+                    .param("date", "2020-06-15")
+                    .param("end", "2020-06-21")
+                    .param("timeslot", "2"))
+                    .andExpect(model().attribute("classrooms", Matchers.iterableWithSize(1)));
+        
+        this.mockMvc.perform(get("/lesson/freeclassrooms")
+                    .param("date", "2020-06-19")
+                    .param("timeslot", "1")
+                    .param("capacity", "100"))
+                    .andExpect(model().attribute("classrooms", Matchers.contains(
+                            Matchers.hasProperty("number", Matchers.equalTo("102A")))));
+        
+        this.mockMvc.perform(get("/lesson/freeclassrooms")
+                    .param("date", "2020-06-19")
+                    .param("timeslot", "1"))
+                    .andExpect(model().attribute("classrooms", Matchers.iterableWithSize(2)));
+    }
+    
+    @Test
+    void cachedClassroomRowsShouldBeRenderedAgainAfterClassroomIsAddedTest() throws Exception {
+        this.mockMvc.perform(get("/lesson"))
+                    .andExpect(content().string(Matchers.containsString("<td>101A</td>")));
+        long hits = fragmentCache.getHits();
+        
+        this.mockMvc.perform(get("/lesson"))
+                    .andExpect(content().string(Matchers.containsString("<td>101A</td>")));
+        assertEquals(hits + 2, fragmentCache.getHits());
+        
+        this.mockMvc.perform(post("/addclassroom")
+                    .param("number", "777FC")
+                    .param("capacity", "10"));
+        
+        this.mockMvc.perform(get("/lesson"))
+                    .andExpect(content().string(Matchers.containsString("<td>777FC</td>")))
+                    .andExpect(content().string(Matchers.containsString("<td>101A</td>")));
+    }
 }
@@ -0,0 +1,80 @@
+package com.foxminded.university.controller.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import com.foxminded.university.config.WebConfig;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@WebAppConfiguration
+class StaticResourcesTest {
+    @Autowired
+    private WebApplicationContext wac;
+    
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+    
+    private MockMvc mockMvc;
+    
+    @BeforeAll
+    void init() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac)
+                                      .addFilters(new ResourceUrlEncodingFilter())
+                                      .build();
+    }
+    
+    @Test
+    void versionedResourceShouldBeServedWithImmutableCacheControlTest() throws Exception {
+        String versioned = resourceUrlProvider.getForLookupPath("/css/panel.css");
+        assertTrue(versioned.matches("/css/panel-[0-9a-f]{32}\\.css"));
+        
+        this.mockMvc.perform(get(versioned))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+    }
+    
+    @Test
+    void fontReferencedFromStylesheetShouldNotBeCachedAsImmutableTest() throws Exception {
+        this.mockMvc.perform(get("/fonts/fontawesome-webfont.woff2"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", "max-age=86400, public"));
+    }
+    
+    @Test
+    void pagesShouldLinkFingerprintedResourcesTest() throws Exception {
+        this.mockMvc.perform(get("/admin"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.containsString(
+                            resourceUrlProvider.getForLookupPath("/css/bootstrap.min.css"))))
+                    .andExpect(content().string(Matchers.containsString(
+                            resourceUrlProvider.getForLookupPath("/js/jquery-1.10.2.min.js"))));
+    }
+    
+    @Test
+    void versionedPathWithWrongHashShouldNotBeFoundTest() throws Exception {
+        this.mockMvc.perform(get("/css/panel-00000000000000000000000000000000.css"))
+                    .andExpect(status().isNotFound());
+    }
+}
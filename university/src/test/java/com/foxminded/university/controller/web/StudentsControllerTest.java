@@ -3,12 +3,15 @@ package com.foxminded.university.controller.web;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.nio.charset.StandardCharsets;
+
 import javax.servlet.ServletContext;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -17,6 +20,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -26,6 +30,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
@@ -37,6 +43,9 @@ import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.controller.service.StudentsService;
 import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Student;
@@ -50,9 +59,21 @@ import com.foxminded.university.model.Student;
 class StudentsControllerTest {
 
     
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private TimetableCache timetableCache;
+    
+    @Autowired
+    private ScheduleConflictEngine scheduleConflictEngine;
+    
     private MockMvc mockMvc;
     
     @Mock
@@ -80,6 +101,14 @@ class StudentsControllerTest {
         assertNotNull(wac.getBean("studentsController"));
     }
     
+    @BeforeEach
+    void resetCaches() {
+        referenceDataCache.invalidateAll();
+        timetableCache.invalidateAll();
+        scheduleConflictEngine.invalidateLessons();
+        scheduleConflictEngine.invalidateReferenceData();
+    }
+    
     @Order(0)
     @Test
     void studentsInfoTest() throws Exception {
@@ -161,4 +190,22 @@ class StudentsControllerTest {
         studentsController.deleteStudent("10", model);
         verify(studentsService).deleteStudent(10);
     }
+    
+    @Order(7)
+    @Test
+    void importStudentsTest() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "students.csv", "text/csv", 
+                ("first_name,last_name,group_name\n"
+               + "Ada,Lovelace,cs-20\n"
+               + "Grace,Hopper,cs-20\n"
+               + "Linus,Torvalds,os-91\n").getBytes(StandardCharsets.UTF_8));
+        
+        this.mockMvc.perform(multipart("/student/import").file(file))
+                    .andExpect(view().name("student/import"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("result", Matchers.hasProperty("importedCount", Matchers.equalTo(2))))
+                    .andExpect(model().attribute("result", Matchers.hasProperty("rejectedCount", Matchers.equalTo(1))));
+        
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students", Integer.class));
+    }
 }
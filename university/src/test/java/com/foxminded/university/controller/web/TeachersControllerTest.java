@@ -16,10 +16,10 @@ import javax.servlet.ServletContext;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.times;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -42,6 +42,9 @@ import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.controller.service.TeachersService;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Group;
@@ -60,6 +63,15 @@ class TeachersControllerTest {
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private TimetableCache timetableCache;
+    
+    @Autowired
+    private ScheduleConflictEngine scheduleConflictEngine;
+    
     private MockMvc mockMvc;
     
     
@@ -89,6 +101,14 @@ class TeachersControllerTest {
         assertNotNull(wac.getBean("teachersController"));
     }
     
+    @BeforeEach
+    void resetCaches() {
+        referenceDataCache.invalidateAll();
+        timetableCache.invalidateAll();
+        scheduleConflictEngine.invalidateLessons();
+        scheduleConflictEngine.invalidateReferenceData();
+    }
+    
     @Order(2)
     @Test
     void teachersInfoTest() throws Exception {
@@ -153,7 +173,7 @@ class TeachersControllerTest {
         
         teachersController.getCourse("1", model);
         verify(teachersService).getCourse(1);
-        verify(teachersService, times(2)).getAll();
+        verify(teachersService).getTeachersList();
     }
 
     @Order(6)
@@ -3,15 +3,21 @@ package com.foxminded.university.controller.web;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
 
 import javax.servlet.ServletContext;
 
@@ -22,6 +28,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -33,26 +40,41 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.async.TimetableRequestExecutor;
+import com.foxminded.university.controller.cache.ReferenceDataCache;
+import com.foxminded.university.controller.cache.TimetableCache;
+import com.foxminded.university.controller.repository.ClassroomRepository;
+import com.foxminded.university.controller.repository.LessonRepository;
+import com.foxminded.university.controller.schedule.ScheduleConflictEngine;
 import com.foxminded.university.controller.service.LessonService;
 import com.foxminded.university.controller.service.TimetableService;
-import com.foxminded.university.controller.util.TimetableFormatter;
 import com.foxminded.university.model.Classroom;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.DateInterval;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonFormOptions;
+import com.foxminded.university.model.ScheduleConflict;
 import com.foxminded.university.model.Timeslot;
-import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = WebConfig.class)
@@ -67,6 +89,21 @@ class TimetableControllerTest {
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private TimetableCache timetableCache;
+    
+    @Autowired
+    private ScheduleConflictEngine scheduleConflictEngine;
+    
+    @Autowired
+    private LessonRepository lessonRepository;
+    
+    @Autowired
+    private ClassroomRepository classroomRepository;
+    
     private MockMvc mockMvc;
     
     
@@ -79,10 +116,10 @@ class TimetableControllerTest {
 
     @Mock
     LessonService lessonService;
-
-    @Mock
-    TimetableFormatter timetableFormatter;
     
+    @Mock
+    TimetableRequestExecutor requestExecutor;
+
     
     TimetableController timetableController;
     
@@ -90,8 +127,22 @@ class TimetableControllerTest {
     void init() {
         MockitoAnnotations.initMocks(this);
         this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
-        this.timetableController = new TimetableController(timetableService,
-                                            lessonService, timetableFormatter);
+        this.timetableController = new TimetableController(timetableService, lessonService, requestExecutor, 
+                                                           "Europe/Kiev");
+        Mockito.when(requestExecutor.submit(any())).thenAnswer(invocation -> {
+            DeferredResult<Object> result = new DeferredResult<>();
+            result.setResult(invocation.getArgument(0, Callable.class).call());
+            return result;
+        });
+        Mockito.when(lessonService.getLessonFormOptions(anyInt())).thenReturn(new LessonFormOptions());
+    }
+    
+    @BeforeEach
+    void resetCaches() {
+        referenceDataCache.invalidateAll();
+        timetableCache.invalidateAll();
+        scheduleConflictEngine.invalidateLessons();
+        scheduleConflictEngine.invalidateReferenceData();
     }
     
     @Order(1)
@@ -107,29 +158,29 @@ class TimetableControllerTest {
     @Order(2)
     @Test
     void timetableInfoTest() throws Exception {
-        this.mockMvc.perform(get("/timetable"))
+        performAsync(get("/timetable"))
                     .andExpect(view().name("timetable"))
                     .andExpect(status().isOk())
                     .andExpect(model().size(4))
                     .andExpect(model().attributeExists("studentId"))
-                    .andExpect(model().attributeExists("timetable"))
+                    .andExpect(model().attributeExists("dateInterval"))
                     .andExpect(model().attributeExists("timeslots"))
                     .andExpect(model().attributeExists("timemap"));
         
-        Mockito.when(timetableService.getStudentTimetable(anyString(), anyString(), anyInt()))
-               .thenReturn(new Timetable());
+        DateInterval dateInterval = new DateInterval(LocalDate.now(), LocalDate.now());
+        Mockito.when(timetableService.getStudentTimetableGrid(anyString(), anyString(), anyInt(), anyList()))
+               .thenReturn(new TimetableGrid(dateInterval, 1));
         Mockito.when(lessonService.getAllTimeslots()).thenReturn(Arrays.asList(new Timeslot()));
         
-        timetableController.timetableInfo(model);
-        verify(timetableService).getStudentTimetable(anyString(), anyString(), anyInt());
+        timetableController.timetableInfo(newWebRequest(), model);
+        verify(timetableService).getStudentTimetableGrid(anyString(), anyString(), anyInt(), anyList());
         verify(lessonService).getAllTimeslots();
-        verify(timetableFormatter).generateFormattedTable(any(Timetable.class), anyList());
     }
 
     @Order(3)
     @Test
     void getTimetableByTeacherTest() throws Exception {
-        this.mockMvc.perform(get("/teacherstimetable"))
+        performAsync(get("/teacherstimetable"))
                     .andExpect(view().name("teacherstimetable"))
                     .andExpect(status().isOk())
                     .andExpect(model().size(4))
@@ -140,17 +191,13 @@ class TimetableControllerTest {
         
         
         DateInterval dateInterval = new DateInterval(LocalDate.now(), LocalDate.now());
-        Timetable timetable = new Timetable();
-        timetable.setDateInterval(dateInterval);
-        
-        Mockito.when(timetableService.getTeacherTimetable(anyString(), anyString(), anyInt()))
-               .thenReturn(timetable);
+        Mockito.when(timetableService.getTeacherTimetableGrid(anyString(), anyString(), anyInt(), anyList()))
+               .thenReturn(new TimetableGrid(dateInterval, 1));
         Mockito.when(lessonService.getAllTimeslots()).thenReturn(Arrays.asList(new Timeslot()));
     
-        timetableController.getTimetableByTeacher(model);
-        verify(timetableService).getTeacherTimetable(anyString(), anyString(), anyInt());
+        timetableController.getTimetableByTeacher(newWebRequest(), model);
+        verify(timetableService).getTeacherTimetableGrid(anyString(), anyString(), anyInt(), anyList());
         verify(lessonService, times(2)).getAllTimeslots();
-        verify(timetableFormatter, times(2)).generateFormattedTable(any(Timetable.class), anyList());
     }
 
     @Order(4)
@@ -169,9 +216,7 @@ class TimetableControllerTest {
                 .andExpect(model().attribute("courses", Matchers.iterableWithSize(2)));
         
         timetableController.createNewLesson("2020-06-19", 1, 1, model);
-        verify(lessonService).getAllClassrooms();
-        verify(lessonService, times(3)).getAllTimeslots();
-        verify(lessonService).getCoursesByTeacher(1);
+        verify(lessonService).getLessonFormOptions(1);
     }
 
     @Order(5)
@@ -198,7 +243,7 @@ class TimetableControllerTest {
         lesson.setCourse(course);
         lesson.setTime(timeslot);
         
-        timetableController.saveNewLesson(lesson, model);
+        timetableController.saveNewLesson(lesson, model, new RedirectAttributesModelMap());
         verify(lessonService).createLesson(anyString(), anyInt(), anyInt(), anyInt());
     }
 
@@ -219,9 +264,7 @@ class TimetableControllerTest {
         
         timetableController.getLessonInfo(1, 1, model);
         verify(lessonService).getLessonById(1);
-        verify(lessonService, times(2)).getAllClassrooms();
-        verify(lessonService, times(4)).getAllTimeslots();
-        verify(lessonService, times(2)).getCoursesByTeacher(1);
+        verify(lessonService, times(2)).getLessonFormOptions(1);
     }
     
     @Order(7)
@@ -236,7 +279,7 @@ class TimetableControllerTest {
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/teacherstimetable"));
         
-        timetableController.updateLesson(new Lesson(), model);
+        timetableController.updateLesson(new Lesson(), model, new RedirectAttributesModelMap());
         verify(lessonService).updateLesson(any(Lesson.class));
     }
 
@@ -251,4 +294,175 @@ class TimetableControllerTest {
         timetableController.deleteLesson(10);
         verify(lessonService).deleteLesson(10);
     }
+
+    @Order(9)
+    @Test
+    void exportStudentTimetableTest() throws Exception {
+        performAsync(get("/timetable.ics")
+                .param("id", "1")
+                .param("start", "2020-06-01")
+                .param("end", "2020-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andExpect(header().string("Cache-Control", Matchers.containsString("max-age")))
+                .andExpect(content().string(Matchers.startsWith("BEGIN:VCALENDAR\r\n")))
+                .andExpect(content().string(Matchers.containsString("UID:lesson-1@university")))
+                .andExpect(content().string(Matchers.containsString("DTSTART:20200618T060000Z")))
+                .andExpect(content().string(Matchers.endsWith("END:VCALENDAR\r\n")));
+    }
+    
+    @Order(10)
+    @Test
+    void exportTeacherTimetableTest() throws Exception {
+        performAsync(get("/teacherstimetable.ics")
+                .param("id", "1")
+                .param("start", "2020-06-01")
+                .param("end", "2020-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andExpect(content().string(Matchers.containsString("UID:lesson-2@university")));
+        
+        performAsync(get("/timetable.ics").param("id", "100"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.not(Matchers.containsString("BEGIN:VEVENT"))));
+    }
+    
+    @Order(11)
+    @Test
+    void saveNewLessonSeriesTest() throws Exception {
+        this.mockMvc.perform(get("/timetable/addseries").param("tid", "1"))
+                    .andExpect(view().name("timetable/addseries"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("courses", Matchers.iterableWithSize(2)))
+                    .andExpect(model().attributeDoesNotExist("result"));
+        
+        this.mockMvc.perform(post("/timetable/addseries")
+                    .param("tid", "1")
+                    .param("start", "2020-06-01")
+                    .param("end", "2020-06-30")
+                    .param("weekday", "4")
+                    .param("timeslot", "1")
+                    .param("classroom", "1")
+                    .param("course", "1"))
+                    .andExpect(view().name("timetable/addseries"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("result", 
+                            Matchers.hasProperty("createdDates", Matchers.iterableWithSize(3))))
+                    .andExpect(model().attribute("result", 
+                            Matchers.hasProperty("conflictingDates", 
+                                    Matchers.contains(LocalDate.of(2020, 6, 18)))));
+        
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lessons", Integer.class));
+    }
+    
+    @Order(12)
+    @Test
+    void saveNewLessonShouldRejectTeacherConflictTest() throws Exception {
+        this.mockMvc.perform(post("/timetable/addlesson")
+                    .param("date", "2020-06-18")
+                    .param("time.id", "1")
+                    .param("course.id", "2")
+                    .param("classroom.id", "2"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/teacherstimetable"))
+                    .andExpect(flash().attribute("conflicts", Matchers.hasItem(
+                            Matchers.hasProperty("type", Matchers.equalTo(ScheduleConflict.Type.TEACHER)))));
+        
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lessons", Integer.class));
+    }
+    
+    @Order(13)
+    @Test
+    void generateTimetableTest() throws Exception {
+        this.mockMvc.perform(get("/timetable/generate"))
+                    .andExpect(view().name("timetable/generate"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attributeDoesNotExist("result"));
+        
+        this.mockMvc.perform(post("/timetable/generate")
+                    .param("start", "2020-08-31")
+                    .param("weeks", "2")
+                    .param("lessons", "2")
+                    .param("budget", "1"))
+                    .andExpect(view().name("timetable/generate"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("result", Matchers.hasProperty("placedLessons", Matchers.is(4))))
+                    .andExpect(model().attribute("result", Matchers.hasProperty("createdLessons", Matchers.is(8))))
+                    .andExpect(model().attribute("result", Matchers.hasProperty("unplacedLessons", Matchers.is(0))));
+        
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lessons", Integer.class));
+    }
+    
+    @Order(14)
+    @Test
+    void timetableShouldAnswerNotModifiedUntilLessonsChangeTest() throws Exception {
+        String etag = performAsync(get("/timetable"))
+                                  .andExpect(status().isOk())
+                                  .andExpect(header().string("Cache-Control", "private, no-cache"))
+                                  .andExpect(header().exists("Last-Modified"))
+                                  .andReturn().getResponse().getHeader("ETag");
+        assertTrue(etag.startsWith("W/\""));
+        
+        this.mockMvc.perform(get("/timetable").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        
+        lessonRepository.delete(lessonRepository.getById(2));
+        
+        performAsync(get("/timetable").header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("timetable"))
+                    .andExpect(header().string("ETag", Matchers.not(etag)));
+    }
+    
+    @Order(15)
+    @Test
+    void exportTeacherTimetableShouldAnswerNotModifiedForSameIntervalTest() throws Exception {
+        String etag = performAsync(get("/teacherstimetable.ics")
+                                  .param("start", "2020-06-01")
+                                  .param("end", "2020-06-30"))
+                                  .andExpect(status().isOk())
+                                  .andReturn().getResponse().getHeader("ETag");
+        
+        this.mockMvc.perform(get("/teacherstimetable.ics")
+                    .param("start", "2020-06-01")
+                    .param("end", "2020-06-30")
+                    .header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+        
+        performAsync(get("/teacherstimetable.ics")
+                    .param("start", "2020-07-01")
+                    .param("end", "2020-07-31")
+                    .header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.startsWith("BEGIN:VCALENDAR")));
+    }
+    
+    @Order(16)
+    @Test
+    void timetableShouldShowRenamedClassroomTest() throws Exception {
+        performAsync(get("/timetable"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.containsString("101A")));
+        
+        Classroom classroom = classroomRepository.getById(1);
+        classroom.setNumber("101B");
+        classroomRepository.update(classroom);
+        
+        performAsync(get("/timetable"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.containsString("101B")))
+                    .andExpect(content().string(Matchers.not(Matchers.containsString("101A"))));
+    }
+    
+    private ServletWebRequest newWebRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+    
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = this.mockMvc.perform(builder)
+                                       .andExpect(request().asyncStarted())
+                                       .andReturn();
+        return this.mockMvc.perform(asyncDispatch(result));
+    }
 }